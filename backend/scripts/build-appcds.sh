@@ -0,0 +1,66 @@
+#!/bin/bash
+# Builds an AppCDS archive for the small profile from a training run.
+#
+# Usage: scripts/build-appcds.sh [jar]   (default: target/christmas-gifts-*.jar, run `mvn package` first)
+#
+# The jar is unpacked to target/cds/app because CDS cannot archive classes from nested jars.
+# The training run starts the app with the small profile, logs in and touches every API once
+# so the lazily created beans are loaded too, then stops it; the JVM dumps the loaded classes
+# to target/cds/app.jsa on exit. scripts/run-small.sh picks the archive up automatically.
+# Rebuild the archive whenever the jar or the JDK changes; a stale archive is ignored by the JVM.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${1:-$(ls target/christmas-gifts-*.jar | grep -v original | head -n 1)}
+CDS_DIR=target/cds
+PORT=${PORT:-8089}
+API_URL="http://localhost:$PORT/api"
+
+rm -rf "$CDS_DIR"
+mkdir -p "$CDS_DIR/app"
+unzip -q "$JAR" -d "$CDS_DIR/app"
+
+# CDS only archives classes loaded from jars, and needs the exact same classpath at runtime
+jar cf "$CDS_DIR/app/application.jar" -C "$CDS_DIR/app/BOOT-INF/classes" .
+{
+    printf '%s' "$CDS_DIR/app/application.jar"
+    for lib in "$CDS_DIR"/app/BOOT-INF/lib/*.jar; do
+        printf ':%s' "$lib"
+    done
+} > "$CDS_DIR/classpath"
+sed -n 's/^Start-Class: *//p' "$CDS_DIR/app/META-INF/MANIFEST.MF" | tr -d '\r' > "$CDS_DIR/main-class"
+
+echo "==> Training run on port $PORT"
+java @scripts/jvm-small.options \
+    -XX:ArchiveClassesAtExit="$CDS_DIR/app.jsa" \
+    -cp "$(cat "$CDS_DIR/classpath")" "$(cat "$CDS_DIR/main-class")" \
+    --spring.profiles.active=small --server.port="$PORT" > "$CDS_DIR/training.log" 2>&1 &
+APP_PID=$!
+trap 'kill "$APP_PID" 2>/dev/null || true' EXIT
+
+TOKEN=""
+while [[ -z "$TOKEN" ]]; do
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "Training run exited, see $CDS_DIR/training.log" >&2
+        exit 1
+    fi
+    TOKEN=$(curl -sf -X POST "$API_URL/auth/login" \
+        -H 'Content-Type: application/json' \
+        -d "{\"username\":\"${APP_USERNAME:-admin}\",\"password\":\"${APP_PASSWORD:-admin123}\"}" \
+        | sed -E 's/.*"token":"([^"]+)".*/\1/') || sleep 0.5
+done
+
+for path in roasters coffees inventory/summary gifts persons budget/summary; do
+    curl -s -o /dev/null -H "Authorization: Bearer $TOKEN" "$API_URL/$path"
+done
+curl -s -o /dev/null -X POST -H "Authorization: Bearer $TOKEN" -H 'Content-Type: application/json' \
+    -d '{"name":"CDS Training"}' "$API_URL/roasters"
+
+kill -TERM "$APP_PID"
+wait "$APP_PID" || true
+trap - EXIT
+
+ls -lh "$CDS_DIR/app.jsa"
+echo "==> Start with scripts/run-small.sh"
@@ -0,0 +1,63 @@
+#!/bin/bash
+# Replays a recorded smart-scale session against a running backend.
+#
+# Usage: scripts/replay-scale.sh <recording.csv> <coffeeId> [speed]
+#   recording.csv  one "timestampMillis,weightGrams" reading per line, '#' lines are comments
+#   speed          1 keeps the recorded timing, 10 replays ten times faster,
+#                  0 streams the whole file at once as newline-delimited JSON (default: 1)
+#
+# Environment: API_URL (default http://localhost:8080/api), APP_USERNAME, APP_PASSWORD,
+#              BATCH_SIZE (readings per request when pacing, default 20)
+
+set -euo pipefail
+
+RECORDING=${1:?"Usage: $0 <recording.csv> <coffeeId> [speed]"}
+COFFEE_ID=${2:?"Usage: $0 <recording.csv> <coffeeId> [speed]"}
+SPEED=${3:-1}
+API_URL=${API_URL:-http://localhost:8080/api}
+BATCH_SIZE=${BATCH_SIZE:-20}
+
+TOKEN=$(curl -sf -X POST "$API_URL/auth/login" \
+    -H 'Content-Type: application/json' \
+    -d "{\"username\":\"${APP_USERNAME:-admin}\",\"password\":\"${APP_PASSWORD:-admin123}\"}" \
+    | sed -E 's/.*"token":"([^"]+)".*/\1/')
+
+to_ndjson() {
+    grep -v '^#' | grep -v '^[[:space:]]*$' \
+        | awk -F, '{ gsub(/ /, ""); printf "{\"timestamp\":%s,\"weight\":%s}\n", $1, $2 }'
+}
+
+post_readings() {
+    curl -sf -X POST "$API_URL/coffees/$COFFEE_ID/readings" \
+        -H "Authorization: Bearer $TOKEN" \
+        -H 'Content-Type: application/x-ndjson' \
+        --data-binary @-
+    echo
+}
+
+if [ "$SPEED" = "0" ]; then
+    to_ndjson < "$RECORDING" | post_readings
+    exit 0
+fi
+
+batch=""
+count=0
+previous_ts=""
+while IFS= read -r line; do
+    batch+="$line"$'\n'
+    count=$((count + 1))
+    if [ "$count" -ge "$BATCH_SIZE" ]; then
+        last_ts=$(printf '%s' "$line" | sed -E 's/.*"timestamp":([0-9]+).*/\1/')
+        if [ -n "$previous_ts" ]; then
+            sleep "$(awk -v gap=$((last_ts - previous_ts)) -v speed="$SPEED" 'BEGIN { printf "%.3f", gap / 1000 / speed }')"
+        fi
+        printf '%s' "$batch" | post_readings
+        previous_ts=$last_ts
+        batch=""
+        count=0
+    fi
+done < <(to_ndjson < "$RECORDING")
+
+if [ -n "$batch" ]; then
+    printf '%s' "$batch" | post_readings
+fi
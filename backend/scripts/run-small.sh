@@ -0,0 +1,24 @@
+#!/bin/bash
+# Starts the backend with the small profile and the JVM flags in scripts/jvm-small.options.
+#
+# Usage: scripts/run-small.sh [extra Spring arguments...]
+#
+# Uses the unpacked app and AppCDS archive from scripts/build-appcds.sh when present, otherwise
+# the packaged jar. SPRING_PROFILES_ACTIVE defaults to "prod,small"; set it to "small" for a
+# local run without CORS_ALLOWED_ORIGINS.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+CDS_DIR=target/cds
+export SPRING_PROFILES_ACTIVE=${SPRING_PROFILES_ACTIVE:-prod,small}
+
+if [[ -f "$CDS_DIR/app.jsa" ]]; then
+    exec java @scripts/jvm-small.options \
+        -XX:SharedArchiveFile="$CDS_DIR/app.jsa" -Xshare:auto \
+        -cp "$(cat "$CDS_DIR/classpath")" "$(cat "$CDS_DIR/main-class")" "$@"
+fi
+
+JAR=$(ls target/christmas-gifts-*.jar | grep -v original | head -n 1)
+exec java @scripts/jvm-small.options -jar "$JAR" "$@"
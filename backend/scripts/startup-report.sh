@@ -0,0 +1,65 @@
+#!/bin/bash
+# Reports time-to-first-request and resident memory for a backend started by a launch command.
+#
+# Usage: scripts/startup-report.sh [launch command...]   (default: scripts/run-small.sh)
+#   e.g. SPRING_PROFILES_ACTIVE=small scripts/startup-report.sh
+#        scripts/startup-report.sh java -jar target/christmas-gifts-1.0.0.jar
+#
+# Time-to-first-request is measured from launch until the first authenticated
+# GET /api/roasters succeeds. RSS is read from /proc (Linux only) right after that request and
+# again after WARMUP_REQUESTS more requests; VmHWM is the peak resident set of the process.
+#
+# Environment: PORT (default 8080), APP_USERNAME, APP_PASSWORD, WARMUP_REQUESTS (default 200)
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8080}
+API_URL="http://localhost:$PORT/api"
+WARMUP_REQUESTS=${WARMUP_REQUESTS:-200}
+LOG=target/startup-report.log
+
+if [[ $# -eq 0 ]]; then
+    set -- scripts/run-small.sh
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+memory() {
+    awk '/^VmRSS|^VmHWM/ { printf "%s %d MB  ", $1, $2 / 1024 }' "/proc/$APP_PID/status"
+}
+
+START=$(now_ms)
+"$@" --server.port="$PORT" > "$LOG" 2>&1 &
+APP_PID=$!
+trap 'kill "$APP_PID" 2>/dev/null || true' EXIT
+
+TOKEN=""
+until [[ -n "$TOKEN" ]]; do
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "Application exited, see $LOG" >&2
+        exit 1
+    fi
+    TOKEN=$(curl -sf -X POST "$API_URL/auth/login" \
+        -H 'Content-Type: application/json' \
+        -d "{\"username\":\"${APP_USERNAME:-admin}\",\"password\":\"${APP_PASSWORD:-admin123}\"}" \
+        | sed -E 's/.*"token":"([^"]+)".*/\1/') || sleep 0.05
+done
+curl -sf -o /dev/null -H "Authorization: Bearer $TOKEN" "$API_URL/roasters"
+FIRST_REQUEST=$(now_ms)
+
+# The Java process may be a child of the launch command
+JAVA_PID=$(pgrep -P "$APP_PID" java || true)
+APP_PID=${JAVA_PID:-$APP_PID}
+
+echo "Command:               $*"
+echo "Time to first request: $((FIRST_REQUEST - START)) ms"
+echo "After first request:   $(memory)"
+
+for _ in $(seq 1 "$WARMUP_REQUESTS"); do
+    curl -s -o /dev/null -H "Authorization: Bearer $TOKEN" "$API_URL/inventory/summary"
+done
+echo "After $WARMUP_REQUESTS requests:   $(memory)"
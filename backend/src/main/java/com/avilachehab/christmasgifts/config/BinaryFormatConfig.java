@@ -0,0 +1,42 @@
+package com.avilachehab.christmasgifts.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR and Smile alongside JSON. Only the encoding differs: controllers still build the whole
+ * response (the coffee list, the inventory summary) before the converter writes it.
+ */
+@Configuration
+public class BinaryFormatConfig {
+    
+    /**
+     * Built from Boot's builder so CBOR carries the same fields as JSON: field selection and ISO
+     * dates. These replace Spring MVC's default converter, which is built without them.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    /**
+     * Smile counterpart of {@link #cborHttpMessageConverter}. Back-references repeated field names
+     * and short string values (roaster names, origins), which pays off on long lists.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+    }
+    
+    public static SmileFactory smileFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+}
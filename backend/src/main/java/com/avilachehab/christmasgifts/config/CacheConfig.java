@@ -0,0 +1,25 @@
+package com.avilachehab.christmasgifts.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String ANALYTICS_CACHE = "analytics";
+    
+    /**
+     * Hibernate's second-level cache uses the JCache manager Spring built from ehcache.xml, so both
+     * share one set of bounded regions and statistics.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager cacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+}
@@ -0,0 +1,23 @@
+package com.avilachehab.christmasgifts.config;
+
+import com.avilachehab.christmasgifts.service.DurableStore;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DurabilityConfig {
+    
+    /**
+     * Recovery has to load the snapshot and log before migrations run and before anything reads
+     * the database; logging starts on the migrated schema.
+     */
+    @Bean
+    public FlywayMigrationStrategy durableMigrationStrategy(DurableStore durableStore) {
+        return flyway -> {
+            durableStore.recover();
+            flyway.migrate();
+            durableStore.start();
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.avilachehab.christmasgifts.controller;
+
+import com.avilachehab.christmasgifts.dto.AnalyticsRowDto;
+import com.avilachehab.christmasgifts.dto.InventoryAggregateDto;
+import com.avilachehab.christmasgifts.service.AnalyticsService;
+import com.avilachehab.christmasgifts.service.InventorySnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    
+    private final InventorySnapshot inventorySnapshot;
+    private final AnalyticsService analyticsService;
+    
+    @GetMapping("/inventory")
+    public ResponseEntity<List<InventoryAggregateDto>> getInventoryAggregates(
+            @RequestParam(defaultValue = "ROASTER") InventorySnapshot.Dimension groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(inventorySnapshot.aggregate(groupBy, from, to));
+    }
+    
+    @GetMapping("/spend")
+    public ResponseEntity<List<AnalyticsRowDto>> getSpend(
+            @RequestParam(defaultValue = "ROASTER") AnalyticsService.Dimension groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getSpend(groupBy, from, to));
+    }
+    
+    @GetMapping("/volume")
+    public ResponseEntity<List<AnalyticsRowDto>> getVolume(
+            @RequestParam(defaultValue = "ROASTER") AnalyticsService.Dimension groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getVolume(groupBy, from, to));
+    }
+}
@@ -1,12 +1,19 @@
 package com.avilachehab.christmasgifts.controller;
 
+import com.avilachehab.christmasgifts.dto.AllocationRequestDto;
+import com.avilachehab.christmasgifts.dto.AllocationResultDto;
+import com.avilachehab.christmasgifts.dto.BudgetAlertDto;
 import com.avilachehab.christmasgifts.dto.BudgetSummaryDto;
+import com.avilachehab.christmasgifts.dto.SeasonSummaryDto;
+import com.avilachehab.christmasgifts.service.BudgetCounters;
 import com.avilachehab.christmasgifts.service.BudgetService;
+import com.avilachehab.christmasgifts.service.GiftAllocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/budget")
@@ -14,11 +21,35 @@ import java.math.BigDecimal;
 public class BudgetController {
     
     private final BudgetService budgetService;
+    private final BudgetCounters budgetCounters;
+    private final GiftAllocationService giftAllocationService;
     
     @GetMapping("/summary")
     public ResponseEntity<BudgetSummaryDto> getBudgetSummary(
-            @RequestParam(defaultValue = "1000.00") BigDecimal totalBudget) {
-        return ResponseEntity.ok(budgetService.getBudgetSummary(totalBudget));
+            @RequestParam(required = false) Integer season,
+            @RequestParam(required = false) BigDecimal totalBudget,
+            @RequestParam(defaultValue = "false") boolean includeGifts) {
+        return ResponseEntity.ok(budgetService.getBudgetSummary(season, totalBudget, includeGifts));
+    }
+    
+    @GetMapping("/seasons")
+    public ResponseEntity<List<SeasonSummaryDto>> getSeasonSummaries() {
+        return ResponseEntity.ok(budgetService.getSeasonSummaries());
+    }
+    
+    @PutMapping("/seasons/{season}")
+    public ResponseEntity<SeasonSummaryDto> setSeasonBudget(@PathVariable int season,
+                                                            @RequestParam BigDecimal totalBudget) {
+        return ResponseEntity.ok(budgetService.setSeasonBudget(season, totalBudget));
+    }
+    
+    @GetMapping("/alerts")
+    public ResponseEntity<List<BudgetAlertDto>> getRecentAlerts() {
+        return ResponseEntity.ok(budgetCounters.getRecentAlerts());
+    }
+    
+    @PostMapping("/optimize")
+    public ResponseEntity<AllocationResultDto> optimize(@RequestBody AllocationRequestDto request) {
+        return ResponseEntity.ok(giftAllocationService.allocate(request));
     }
 }
-
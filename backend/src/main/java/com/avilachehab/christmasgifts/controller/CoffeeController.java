@@ -1,11 +1,17 @@
 package com.avilachehab.christmasgifts.controller;
 
 import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.ConsumptionForecastDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
+import com.avilachehab.christmasgifts.service.CoffeeArchiver;
 import com.avilachehab.christmasgifts.service.CoffeeService;
+import com.avilachehab.christmasgifts.service.ConsumptionService;
+import com.avilachehab.christmasgifts.service.ConsumptionWriteBuffer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -17,20 +23,37 @@ import java.util.List;
 public class CoffeeController {
     
     private final CoffeeService coffeeService;
+    private final ConsumptionService consumptionService;
+    private final ConsumptionWriteBuffer consumptionWriteBuffer;
+    private final CoffeeArchiver coffeeArchiver;
     
     @GetMapping
-    public ResponseEntity<List<CoffeeDto>> getAllCoffees() {
-        return ResponseEntity.ok(coffeeService.getAllCoffees());
+    public ResponseEntity<MappingJacksonValue> getAllCoffees(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, CoffeeService.FIELDS);
+        return ResponseEntity.ok(selection.applyTo(coffeeService.getAllCoffees(selection)));
+    }
+    
+    /**
+     * Finished bags moved out of the active inventory, most recently finished first.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<List<CoffeeDto>> getArchivedCoffees(@RequestParam(required = false) Long roasterId,
+                                                              @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(coffeeArchiver.getArchived(roasterId, limit));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<CoffeeDto> getCoffeeById(@PathVariable Long id) {
-        return ResponseEntity.ok(coffeeService.getCoffeeById(id));
+    public ResponseEntity<MappingJacksonValue> getCoffeeById(@PathVariable Long id,
+                                                             @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, CoffeeService.FIELDS);
+        return ResponseEntity.ok(selection.applyTo(coffeeService.getCoffeeById(id, selection)));
     }
     
     @GetMapping("/roaster/{roasterId}")
-    public ResponseEntity<List<CoffeeDto>> getCoffeesByRoasterId(@PathVariable Long roasterId) {
-        return ResponseEntity.ok(coffeeService.getCoffeesByRoasterId(roasterId));
+    public ResponseEntity<MappingJacksonValue> getCoffeesByRoasterId(@PathVariable Long roasterId,
+                                                                     @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, CoffeeService.FIELDS);
+        return ResponseEntity.ok(selection.applyTo(coffeeService.getCoffeesByRoasterId(roasterId, selection)));
     }
     
     @PostMapping
@@ -48,9 +71,17 @@ public class CoffeeController {
     @PostMapping("/{id}/consume")
     public ResponseEntity<CoffeeDto> consumeCoffee(@PathVariable Long id, 
                                                     @RequestParam BigDecimal amount) {
+        if (consumptionWriteBuffer.isEnabled()) {
+            return ResponseEntity.accepted().body(consumptionWriteBuffer.accept(id, amount));
+        }
         return ResponseEntity.ok(coffeeService.consumeCoffee(id, amount));
     }
     
+    @GetMapping("/{id}/forecast")
+    public ResponseEntity<ConsumptionForecastDto> getForecast(@PathVariable Long id) {
+        return ResponseEntity.ok(consumptionService.getForecast(id));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCoffee(@PathVariable Long id) {
         coffeeService.deleteCoffee(id);
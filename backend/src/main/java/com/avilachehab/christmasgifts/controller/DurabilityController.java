@@ -0,0 +1,28 @@
+package com.avilachehab.christmasgifts.controller;
+
+import com.avilachehab.christmasgifts.dto.DurabilityStatsDto;
+import com.avilachehab.christmasgifts.service.DurableStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/durability")
+@RequiredArgsConstructor
+public class DurabilityController {
+    
+    private final DurableStore durableStore;
+    
+    @GetMapping
+    public ResponseEntity<DurabilityStatsDto> getStats() {
+        return ResponseEntity.ok(durableStore.getStats());
+    }
+    
+    @PostMapping("/checkpoint")
+    public ResponseEntity<DurabilityStatsDto> checkpoint() {
+        return ResponseEntity.ok(durableStore.checkpointNow());
+    }
+}
@@ -0,0 +1,22 @@
+package com.avilachehab.christmasgifts.controller;
+
+import com.avilachehab.christmasgifts.service.ChangeEventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventController {
+    
+    private final ChangeEventBroadcaster changeEventBroadcaster;
+    
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return changeEventBroadcaster.subscribe();
+    }
+}
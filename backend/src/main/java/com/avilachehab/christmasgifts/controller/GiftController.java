@@ -1,14 +1,19 @@
 package com.avilachehab.christmasgifts.controller;
 
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.GiftDto;
+import com.avilachehab.christmasgifts.dto.GiftPageDto;
+import com.avilachehab.christmasgifts.dto.GiftSort;
 import com.avilachehab.christmasgifts.service.GiftService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.math.BigDecimal;
 
 @RestController
 @RequestMapping("/api/gifts")
@@ -17,19 +22,40 @@ public class GiftController {
     
     private final GiftService giftService;
     
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     @GetMapping
-    public ResponseEntity<List<GiftDto>> getAllGifts() {
-        return ResponseEntity.ok(giftService.getAllGifts());
+    public ResponseEntity<MappingJacksonValue> getGifts(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Integer season,
+            @RequestParam(required = false) Long personId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "ID") GiftSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        FieldSelection selection = FieldSelection.parse(fields, GiftService.FIELDS);
+        GiftPageDto page = giftService.getGifts(season, personId, minPrice, maxPrice, sort, direction, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(selection.applyTo(page.getGifts()));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<GiftDto> getGiftById(@PathVariable Long id) {
-        return ResponseEntity.ok(giftService.getGiftById(id));
+    public ResponseEntity<MappingJacksonValue> getGiftById(@PathVariable Long id,
+                                                           @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, GiftService.FIELDS);
+        return ResponseEntity.ok(selection.applyTo(giftService.getGiftById(id, selection)));
     }
     
     @GetMapping("/person/{personId}")
-    public ResponseEntity<List<GiftDto>> getGiftsByPersonId(@PathVariable Long personId) {
-        return ResponseEntity.ok(giftService.getGiftsByPersonId(personId));
+    public ResponseEntity<MappingJacksonValue> getGiftsByPersonId(@PathVariable Long personId,
+                                                                  @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, GiftService.FIELDS);
+        return ResponseEntity.ok(selection.applyTo(giftService.getGiftsByPersonId(personId)));
     }
     
     @PostMapping
@@ -1,5 +1,6 @@
 package com.avilachehab.christmasgifts.controller;
 
+import com.avilachehab.christmasgifts.dto.CompactInventorySummaryDto;
 import com.avilachehab.christmasgifts.dto.InventorySummaryDto;
 import com.avilachehab.christmasgifts.service.InventoryService;
 import lombok.RequiredArgsConstructor;
@@ -13,11 +14,22 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class InventoryController {
     
+    public static final String COMPACT_MEDIA_TYPE = "application/vnd.coffeetracker.compact+json";
+    
     private final InventoryService inventoryService;
     
     @GetMapping("/summary")
     public ResponseEntity<InventorySummaryDto> getInventorySummary() {
         return ResponseEntity.ok(inventoryService.getInventorySummary());
     }
+    
+    @GetMapping(value = "/summary", params = "format=compact")
+    public ResponseEntity<CompactInventorySummaryDto> getCompactInventorySummary() {
+        return ResponseEntity.ok(inventoryService.getCompactInventorySummary());
+    }
+    
+    @GetMapping(value = "/summary", produces = COMPACT_MEDIA_TYPE)
+    public ResponseEntity<CompactInventorySummaryDto> getCompactInventorySummaryByMediaType() {
+        return ResponseEntity.ok(inventoryService.getCompactInventorySummary());
+    }
 }
-
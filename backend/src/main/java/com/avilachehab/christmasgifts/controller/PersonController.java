@@ -1,6 +1,7 @@
 package com.avilachehab.christmasgifts.controller;
 
 import com.avilachehab.christmasgifts.dto.PersonDto;
+import com.avilachehab.christmasgifts.dto.PersonUpsertResultDto;
 import com.avilachehab.christmasgifts.service.PersonService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,11 @@ public class PersonController {
                 .body(personService.createPerson(personDto));
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<List<PersonUpsertResultDto>> upsertPersons(@RequestBody List<PersonDto> persons) {
+        return ResponseEntity.ok(personService.upsertPersons(persons));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<PersonDto> updatePerson(@PathVariable Long id, 
                                                    @Valid @RequestBody PersonDto personDto) {
@@ -1,14 +1,20 @@
 package com.avilachehab.christmasgifts.controller;
 
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.RoasterDto;
+import com.avilachehab.christmasgifts.dto.RoasterScoreDto;
+import com.avilachehab.christmasgifts.service.CoffeeService;
+import com.avilachehab.christmasgifts.service.RoasterScoreboard;
 import com.avilachehab.christmasgifts.service.RoasterService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/roasters")
@@ -16,15 +22,26 @@ import java.util.List;
 public class RoasterController {
     
     private final RoasterService roasterService;
+    private final RoasterScoreboard roasterScoreboard;
     
     @GetMapping
-    public ResponseEntity<List<RoasterDto>> getAllRoasters() {
-        return ResponseEntity.ok(roasterService.getAllRoasters());
+    public ResponseEntity<MappingJacksonValue> getAllRoasters(@RequestParam(required = false) String fields) {
+        FieldSelection selection = parseFields(fields);
+        return ResponseEntity.ok(selection.applyTo(roasterService.getAllRoasters(selection)));
+    }
+    
+    @GetMapping("/scoreboard")
+    public ResponseEntity<List<RoasterScoreDto>> getScoreboard(
+            @RequestParam(defaultValue = "FRESHNESS") RoasterScoreboard.Metric metric,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(roasterScoreboard.getTop(metric, limit));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<RoasterDto> getRoasterById(@PathVariable Long id) {
-        return ResponseEntity.ok(roasterService.getRoasterById(id));
+    public ResponseEntity<MappingJacksonValue> getRoasterById(@PathVariable Long id,
+                                                              @RequestParam(required = false) String fields) {
+        FieldSelection selection = parseFields(fields);
+        return ResponseEntity.ok(selection.applyTo(roasterService.getRoasterById(id, selection)));
     }
     
     @PostMapping
@@ -44,5 +61,8 @@ public class RoasterController {
         roasterService.deleteRoaster(id);
         return ResponseEntity.noContent().build();
     }
+    
+    private static FieldSelection parseFields(String fields) {
+        return FieldSelection.parse(fields, RoasterService.FIELDS, Map.of("coffees", CoffeeService.FIELDS));
+    }
 }
-
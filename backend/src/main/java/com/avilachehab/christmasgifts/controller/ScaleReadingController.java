@@ -0,0 +1,45 @@
+package com.avilachehab.christmasgifts.controller;
+
+import com.avilachehab.christmasgifts.dto.ScaleIngestionResultDto;
+import com.avilachehab.christmasgifts.dto.ScaleReadingDto;
+import com.avilachehab.christmasgifts.service.ScaleIngestionService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/coffees/{coffeeId}/readings")
+@RequiredArgsConstructor
+public class ScaleReadingController {
+    
+    private final ScaleIngestionService scaleIngestionService;
+    private final ObjectMapper objectMapper;
+    
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ScaleIngestionResultDto> ingestReadings(@PathVariable Long coffeeId,
+                                                                  @RequestBody List<ScaleReadingDto> readings) {
+        return ResponseEntity.ok(scaleIngestionService.ingest(coffeeId, readings));
+    }
+    
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ScaleIngestionResultDto> ingestReadingStream(@PathVariable Long coffeeId,
+                                                                       InputStream body) throws IOException {
+        try (MappingIterator<ScaleReadingDto> readings =
+                     objectMapper.readerFor(ScaleReadingDto.class).readValues(body)) {
+            return ResponseEntity.ok(scaleIngestionService.ingestStream(coffeeId, readings));
+        }
+    }
+    
+    @DeleteMapping
+    public ResponseEntity<Void> resetScale(@PathVariable Long coffeeId) {
+        scaleIngestionService.reset(coffeeId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.avilachehab.christmasgifts.controller;
+
+import com.avilachehab.christmasgifts.dto.SyncDto;
+import com.avilachehab.christmasgifts.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+    
+    private final SyncService syncService;
+    
+    @GetMapping
+    public ResponseEntity<SyncDto> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(syncService.getChangesSince(since, limit));
+    }
+}
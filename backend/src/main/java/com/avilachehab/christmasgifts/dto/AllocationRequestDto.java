@@ -0,0 +1,19 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationRequestDto {
+    private Integer season; // null for the current season
+    private BigDecimal totalBudget; // null for the season's budget
+    private Long timeLimitMs; // null for app.optimizer.default-time-limit-ms
+    private List<WishlistDto> wishlists = new ArrayList<>();
+}
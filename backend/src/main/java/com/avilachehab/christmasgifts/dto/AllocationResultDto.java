@@ -0,0 +1,24 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationResultDto {
+    private BigDecimal totalBudget;
+    private BigDecimal totalSpent;
+    private long totalPriority;
+    private double upperBound; // no allocation can score higher
+    private double gap; // (upperBound - totalPriority) / upperBound; 0 when proven optimal
+    private boolean optimal; // false when the deadline stopped the search
+    private long solveTimeMs;
+    private long nodesExplored;
+    private List<PersonAllocationDto> allocations = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRowDto {
+    private String key; // group value; null when the coffee has none
+    private long bags;
+    private BigDecimal total; // spend, or grams purchased for volume
+}
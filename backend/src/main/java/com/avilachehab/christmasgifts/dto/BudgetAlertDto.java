@@ -0,0 +1,20 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetAlertDto {
+    private Long personId;
+    private Integer season;
+    private BigDecimal threshold; // fraction of the allowance that was reached
+    private BigDecimal spent;
+    private BigDecimal allowance;
+    private LocalDateTime raisedAt;
+}
@@ -11,6 +11,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BudgetSummaryDto {
+    private Integer season;
     private BigDecimal totalBudget;
     private BigDecimal totalSpent;
     private BigDecimal remaining;
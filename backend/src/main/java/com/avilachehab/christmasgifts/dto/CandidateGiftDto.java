@@ -0,0 +1,16 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidateGiftDto {
+    private String description;
+    private BigDecimal price;
+    private int priority; // higher is more wanted
+}
@@ -0,0 +1,19 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of a {@code change} event on {@code /api/events}. {@code changeSeq} is also the SSE event
+ * id and can be passed to {@code /api/sync?since=} to fetch the changed rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEventDto {
+    private String type; // coffee, roaster, person or gift
+    private Long id;
+    private long changeSeq;
+    private boolean deleted;
+}
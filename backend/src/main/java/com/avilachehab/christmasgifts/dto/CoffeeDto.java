@@ -1,6 +1,7 @@
 package com.avilachehab.christmasgifts.dto;
 
 import com.avilachehab.christmasgifts.model.RoastLevel;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +12,7 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class CoffeeDto {
     private Long id;
     private String coffeeName;
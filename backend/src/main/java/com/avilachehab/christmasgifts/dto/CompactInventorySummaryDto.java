@@ -0,0 +1,27 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalized form of {@link InventorySummaryDto}: every coffee and roaster appears once in an
+ * id-keyed table and the other sections refer to them by id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactInventorySummaryDto {
+    private BigDecimal totalWeight; // total grams of coffee
+    private Integer totalBags;
+    private BigDecimal averagePricePerGram;
+    private BigDecimal totalSpent;
+    private Map<Long, CoffeeDto> coffees;
+    private Map<Long, CompactRoasterDto> roasters;
+    private List<Long> lowStockCoffeeIds; // coffees with < 20% remaining
+    private List<Long> agingCoffeeIds; // coffees older than 30 days since roast
+}
@@ -0,0 +1,23 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactRoasterDto {
+    private Long id;
+    private String name;
+    private String location;
+    private String website;
+    private String notes;
+    private List<Long> coffeeIds = new ArrayList<>(); // keys into CompactInventorySummaryDto.coffees
+    private BigDecimal totalSpent;
+    private Integer coffeeCount;
+}
@@ -0,0 +1,20 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionForecastDto {
+    private Long coffeeId;
+    private BigDecimal currentWeight;
+    private BigDecimal dailyConsumptionRate; // grams per day over the forecast window
+    private Integer windowDays;
+    private Long daysRemaining; // null when nothing was consumed in the window
+    private LocalDate projectedEmptyDate;
+}
@@ -0,0 +1,28 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DurabilityStatsDto {
+    private boolean enabled;
+    private String fsyncPolicy; // COMMIT, INTERVAL or NONE; null when disabled
+    private long walSegment; // segment being appended to
+    private long walBytesSinceCheckpoint; // log a recovery would replay now
+    private long appendedTransactions;
+    private long appendedChanges;
+    private long appendFailures; // committed transactions missing from the log
+    private long fsyncs;
+    private double averageFsyncMicros;
+    private long checkpoints;
+    private long lastCheckpointMillis;
+    private long lastCheckpointPauseMillis; // commits were blocked this long
+    private long snapshotBytes;
+    private long recoveryMillis; // restore plus replay at startup
+    private long restoreMillis;
+    private long replayMillis;
+    private long replayedChanges;
+}
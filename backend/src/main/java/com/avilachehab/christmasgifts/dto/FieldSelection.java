@@ -0,0 +1,164 @@
+package com.avilachehab.christmasgifts.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields requested through {@code ?fields=}, e.g. {@code id,name,coffees.currentWeight}.
+ * <p>
+ * A dotted path selects fields of a nested object; naming the nested object alone selects all of
+ * its fields. Services use the selection to narrow the select list; the Jackson filter installed by
+ * {@link #applyTo(Object)} omits the other fields of every {@code @JsonFilter(FILTER_ID)} DTO.
+ */
+public final class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    public static final String FILTER_ID = "fieldSelection";
+
+    private final Map<String, FieldSelection> fields; // null selects everything
+
+    private FieldSelection(Map<String, FieldSelection> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection parse(String spec, Set<String> allowed) {
+        return parse(spec, allowed, Map.of());
+    }
+
+    /**
+     * Parses a comma-separated field list; {@code nestedAllowed} maps each nested object field to
+     * the fields that may be selected inside it. Unknown fields are rejected with 400.
+     */
+    public static FieldSelection parse(String spec, Set<String> allowed, Map<String, Set<String>> nestedAllowed) {
+        if (spec == null || spec.isBlank()) {
+            return ALL;
+        }
+
+        Map<String, Set<String>> requested = new LinkedHashMap<>(); // null value selects the whole object
+        for (String token : spec.split(",")) {
+            String path = token.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            int dot = path.indexOf('.');
+            String field = dot < 0 ? path : path.substring(0, dot);
+            if (!allowed.contains(field)) {
+                throw unknownField(path);
+            }
+            if (dot < 0) {
+                requested.put(field, null);
+                continue;
+            }
+            String nestedField = path.substring(dot + 1);
+            if (!nestedAllowed.getOrDefault(field, Set.of()).contains(nestedField)) {
+                throw unknownField(path);
+            }
+            if (!requested.containsKey(field) || requested.get(field) != null) {
+                requested.computeIfAbsent(field, key -> new LinkedHashSet<>()).add(nestedField);
+            }
+        }
+        if (requested.isEmpty()) {
+            return ALL;
+        }
+
+        Map<String, FieldSelection> fields = new LinkedHashMap<>();
+        requested.forEach((field, nestedFields) -> fields.put(field, nestedFields == null ? ALL : of(nestedFields)));
+        return new FieldSelection(Collections.unmodifiableMap(fields));
+    }
+
+    public static FieldSelection of(Set<String> fieldNames) {
+        Map<String, FieldSelection> fields = new LinkedHashMap<>();
+        fieldNames.forEach(field -> fields.put(field, ALL));
+        return new FieldSelection(Collections.unmodifiableMap(fields));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.containsKey(field);
+    }
+
+    /**
+     * Returns the selection inside a nested object field, {@link #ALL} if it was named alone.
+     */
+    public FieldSelection nested(String field) {
+        return fields == null ? ALL : fields.getOrDefault(field, ALL);
+    }
+
+    /**
+     * Returns the selected top-level field names, or {@code allFields} when everything is selected.
+     */
+    public Set<String> fieldsOf(Set<String> allFields) {
+        return fields == null ? allFields : fields.keySet();
+    }
+
+    /**
+     * Wraps a response body so only the selected fields are written.
+     */
+    public MappingJacksonValue applyTo(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (!isAll()) {
+            value.setFilters(new SimpleFilterProvider().addFilter(FILTER_ID, new SelectionFilter(this)));
+        }
+        return value;
+    }
+
+    private static ResponseStatusException unknownField(String path) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + path);
+    }
+
+    /**
+     * Filters each DTO by the selection at its path: a coffee inside a roaster's {@code coffees}
+     * list is checked against {@code nested("coffees")}.
+     */
+    private static final class SelectionFilter extends SimpleBeanPropertyFilter {
+
+        private final FieldSelection selection;
+
+        private SelectionFilter(FieldSelection selection) {
+            this.selection = selection;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer)
+                throws Exception {
+            if (selectionAt(gen.getOutputContext()).includes(writer.getName())) {
+                writer.serializeAsField(pojo, gen, provider);
+            } else if (!gen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, gen, provider);
+            }
+        }
+
+        private FieldSelection selectionAt(JsonStreamContext context) {
+            Deque<String> path = new ArrayDeque<>();
+            for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+                if (parent.inObject() && parent.getCurrentName() != null) {
+                    path.push(parent.getCurrentName());
+                }
+            }
+            FieldSelection nested = selection;
+            for (String field : path) {
+                nested = nested.nested(field);
+            }
+            return nested;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.avilachehab.christmasgifts.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,11 +10,13 @@ import java.math.BigDecimal;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class GiftDto {
     private Long id;
     private String description;
     private BigDecimal price;
     private Long personId;
     private String personName;
+    private Integer season;
 }
 
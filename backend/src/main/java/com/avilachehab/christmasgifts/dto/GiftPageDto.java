@@ -0,0 +1,16 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GiftPageDto {
+    private List<GiftDto> gifts = new ArrayList<>();
+    private String nextCursor; // null on the last page
+}
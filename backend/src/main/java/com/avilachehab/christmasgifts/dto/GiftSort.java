@@ -0,0 +1,8 @@
+package com.avilachehab.christmasgifts.dto;
+
+/**
+ * Sort keys for the paginated gift listing; ties are broken by id.
+ */
+public enum GiftSort {
+    ID, PRICE, DESCRIPTION
+}
@@ -0,0 +1,19 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAggregateDto {
+    private String key; // roaster id, roast level or purchase month (yyyy-MM)
+    private long bags;
+    private BigDecimal totalSpent;
+    private BigDecimal initialWeight; // grams
+    private BigDecimal currentWeight; // grams
+    private BigDecimal averagePricePerGram; // over bags with a price
+}
@@ -0,0 +1,19 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonAllocationDto {
+    private Long personId;
+    private BigDecimal spend;
+    private long priority;
+    private List<CandidateGiftDto> gifts = new ArrayList<>();
+}
@@ -16,5 +16,7 @@ public class PersonDto {
     private String name;
     private List<GiftDto> gifts = new ArrayList<>();
     private BigDecimal totalSpent;
+    private Long giftCount;
+    private BigDecimal allowance;
 }
 
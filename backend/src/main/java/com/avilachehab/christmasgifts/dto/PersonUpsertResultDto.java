@@ -0,0 +1,18 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonUpsertResultDto {
+    private Long personId;
+    private String name;
+    private boolean created; // false when an existing person was matched by name
+    private List<Long> giftIds = new ArrayList<>();
+}
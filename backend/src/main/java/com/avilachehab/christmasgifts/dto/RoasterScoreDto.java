@@ -0,0 +1,19 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoasterScoreDto {
+    private Long roasterId;
+    private String roasterName;
+    private int bags;
+    private BigDecimal avgDaysToPurchase; // roast date to purchase date
+    private BigDecimal pricePerGram; // null when no bag has a price
+    private BigDecimal gramsPerDay; // grams consumed per day a bag has been owned
+}
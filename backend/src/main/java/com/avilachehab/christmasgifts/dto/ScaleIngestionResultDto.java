@@ -0,0 +1,18 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScaleIngestionResultDto {
+    private Long coffeeId;
+    private Integer readingsAccepted;
+    private Integer consumptionEvents;
+    private BigDecimal consumedWeight; // grams booked against the coffee for this batch
+    private BigDecimal settledWeight; // last settled scale value, null until the scale settles
+}
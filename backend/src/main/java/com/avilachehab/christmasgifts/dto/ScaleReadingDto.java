@@ -0,0 +1,18 @@
+package com.avilachehab.christmasgifts.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScaleReadingDto {
+    private Long timestamp; // epoch millis at the scale; receive time is used when missing
+    
+    @NotNull(message = "Weight is required")
+    private BigDecimal weight; // net grams, scale tared with the empty bag
+}
@@ -0,0 +1,19 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeasonSummaryDto {
+    private int season;
+    private BigDecimal totalBudget; // null when no budget was set for the season
+    private BigDecimal totalSpent;
+    private long giftCount;
+    private int personCount; // persons with at least one gift
+    private BigDecimal spentChange; // against the previous season; null when it has no data
+}
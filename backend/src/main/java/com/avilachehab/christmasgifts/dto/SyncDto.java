@@ -0,0 +1,28 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of {@code GET /api/sync}: rows created or updated after {@code since}, and the rows
+ * deleted since then. Roasters and persons come without their nested collections and totals;
+ * their coffees and gifts are synced as rows of their own.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDto {
+    private Long since;
+    private Long cursor; // pass as ?since= for the next page
+    private boolean hasMore;
+    private boolean reset; // tombstones after since were purged; resync from since=0
+    private List<CoffeeDto> coffees = new ArrayList<>();
+    private List<RoasterDto> roasters = new ArrayList<>();
+    private List<PersonDto> persons = new ArrayList<>();
+    private List<GiftDto> gifts = new ArrayList<>();
+    private List<TombstoneDto> deleted = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TombstoneDto {
+    private String type; // coffee, roaster, person or gift
+    private Long id;
+}
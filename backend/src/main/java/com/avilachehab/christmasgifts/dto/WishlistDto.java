@@ -0,0 +1,19 @@
+package com.avilachehab.christmasgifts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WishlistDto {
+    private Long personId;
+    private BigDecimal minSpend; // null means no minimum
+    private BigDecimal maxSpend; // null means up to the total budget
+    private List<CandidateGiftDto> candidates = new ArrayList<>();
+}
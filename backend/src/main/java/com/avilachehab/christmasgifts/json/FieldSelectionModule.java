@@ -0,0 +1,27 @@
+package com.avilachehab.christmasgifts.json;
+
+import com.avilachehab.christmasgifts.dto.FieldSelection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets {@code @JsonFilter(FieldSelection.FILTER_ID)} DTOs be written without a selection: unless
+ * {@link FieldSelection#applyTo(Object)} installs its filter, every field is written. Boot registers
+ * this module on its {@code ObjectMapper}, so the CBOR and Smile converters pick it up as well.
+ */
+@Component
+public class FieldSelectionModule extends SimpleModule {
+
+    public FieldSelectionModule() {
+        super("FieldSelectionModule");
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        ObjectMapper mapper = context.getOwner();
+        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
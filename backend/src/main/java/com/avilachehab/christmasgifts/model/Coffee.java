@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "coffees")
@@ -61,6 +62,12 @@ public class Coffee {
     @Column(length = 2000)
     private String notes; // Tasting notes, rating, etc.
     
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt; // when the current weight reached zero; archived after a grace period
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "roaster_id", nullable = false)
     private Roaster roaster;
@@ -0,0 +1,39 @@
+package com.avilachehab.christmasgifts.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a single consumption. Rows are never updated; they are rolled up
+ * into {@link ConsumptionRollup} and compacted once older than the retention window.
+ */
+@Entity
+@Table(name = "consumption_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consumption_event_seq")
+    @SequenceGenerator(name = "consumption_event_seq", sequenceName = "consumption_event_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "coffee_id", nullable = false)
+    private Long coffeeId;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount; // in grams
+    
+    @Column(nullable = false)
+    private LocalDate consumedOn; // day bucket used by the rollup job
+    
+    @Column(nullable = false)
+    private LocalDateTime consumedAt;
+}
@@ -0,0 +1,37 @@
+package com.avilachehab.christmasgifts.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated daily consumption per coffee, maintained by the rollup job.
+ */
+@Entity
+@Table(name = "consumption_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"coffee_id", "rollup_day"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "coffee_id", nullable = false)
+    private Long coffeeId;
+    
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+    
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount; // in grams
+    
+    @Column(nullable = false)
+    private Integer eventCount;
+}
@@ -30,6 +30,13 @@ public class Gift {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
     
+    @NotNull(message = "Season is required")
+    @Column(nullable = false)
+    private Integer season; // Christmas year the gift is for
+    
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "person_id", nullable = false)
     private Person person;
@@ -1,15 +1,21 @@
 package com.avilachehab.christmasgifts.model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "persons")
 @Data
 @NoArgsConstructor
@@ -24,6 +30,13 @@ public class Person {
     @Column(nullable = false)
     private String name;
     
+    @DecimalMin(value = "0.0", inclusive = true, message = "Allowance must be positive")
+    @Column(precision = 10, scale = 2)
+    private BigDecimal allowance; // null when the person has no allowance
+    
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
     @OneToMany(mappedBy = "person", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Gift> gifts = new ArrayList<>();
 }
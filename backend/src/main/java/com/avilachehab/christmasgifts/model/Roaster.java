@@ -3,6 +3,8 @@ package com.avilachehab.christmasgifts.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -10,6 +12,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "roasters")
 @Data
 @NoArgsConstructor
@@ -33,6 +37,9 @@ public class Roaster {
     @Column(length = 1000)
     private String notes;
     
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
     @OneToMany(mappedBy = "roaster", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Coffee> coffees = new ArrayList<>();
 }
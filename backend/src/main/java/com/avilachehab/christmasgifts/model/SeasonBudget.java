@@ -0,0 +1,26 @@
+package com.avilachehab.christmasgifts.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "season_budgets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeasonBudget {
+    
+    @Id
+    private Integer season;
+    
+    @NotNull(message = "Total budget is required")
+    @DecimalMin(value = "0.0", inclusive = true, message = "Total budget must be positive")
+    @Column(name = "total_budget", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalBudget;
+}
@@ -0,0 +1,35 @@
+package com.avilachehab.christmasgifts.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted row for delta sync until it is garbage-collected.
+ */
+@Entity
+@Table(name = "tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tombstone {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 32)
+    private String entityType; // coffee, roaster, person or gift
+    
+    @Column(nullable = false)
+    private Long entityId;
+    
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
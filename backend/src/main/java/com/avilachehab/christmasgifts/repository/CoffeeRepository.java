@@ -1,13 +1,41 @@
 package com.avilachehab.christmasgifts.repository;
 
 import com.avilachehab.christmasgifts.model.Coffee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CoffeeRepository extends JpaRepository<Coffee, Long> {
     List<Coffee> findByRoasterId(Long roasterId);
+    
+    @Query("select c.roaster.id as roasterId, count(c) as coffeeCount, coalesce(sum(c.price), 0) as totalSpent "
+            + "from Coffee c group by c.roaster.id")
+    List<RoasterTotals> summarizeByRoaster();
+    
+    @Query("select c from Coffee c join fetch c.roaster where c.id = :id")
+    Optional<Coffee> findWithRoasterById(Long id);
+    
+    @Query("select c.roaster.id from Coffee c where c.id = :id")
+    Optional<Long> findRoasterIdById(Long id);
+    
+    @Modifying
+    @Query("delete from Coffee c where c.roaster.id = :roasterId")
+    int bulkDeleteByRoasterId(Long roasterId);
+    
+    @Query("select c from Coffee c join fetch c.roaster "
+            + "where c.changeSeq > :since and c.changeSeq < :before order by c.changeSeq")
+    List<Coffee> findChangedBetween(long since, long before, Pageable page);
+    
+    interface RoasterTotals {
+        Long getRoasterId();
+        Long getCoffeeCount();
+        BigDecimal getTotalSpent();
+    }
 }
-
@@ -0,0 +1,33 @@
+package com.avilachehab.christmasgifts.repository;
+
+import com.avilachehab.christmasgifts.model.ConsumptionEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ConsumptionEventRepository extends JpaRepository<ConsumptionEvent, Long> {
+    
+    @Query("select min(e.consumedOn) from ConsumptionEvent e")
+    LocalDate findEarliestDay();
+    
+    @Query("select e.coffeeId as coffeeId, e.consumedOn as day, sum(e.amount) as totalAmount, count(e) as eventCount "
+            + "from ConsumptionEvent e where e.consumedOn >= :from group by e.coffeeId, e.consumedOn")
+    List<DailyTotal> aggregateDailyFrom(LocalDate from);
+    
+    @Modifying
+    @Query("delete from ConsumptionEvent e where e.consumedOn < :cutoff")
+    int deleteOlderThan(LocalDate cutoff);
+    
+    interface DailyTotal {
+        Long getCoffeeId();
+        LocalDate getDay();
+        BigDecimal getTotalAmount();
+        Long getEventCount();
+    }
+}
@@ -0,0 +1,25 @@
+package com.avilachehab.christmasgifts.repository;
+
+import com.avilachehab.christmasgifts.model.ConsumptionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface ConsumptionRollupRepository extends JpaRepository<ConsumptionRollup, Long> {
+    
+    @Query("select max(r.day) from ConsumptionRollup r")
+    LocalDate findLatestDay();
+    
+    @Query("select coalesce(sum(r.totalAmount), 0) from ConsumptionRollup r "
+            + "where r.coffeeId = :coffeeId and r.day >= :from")
+    BigDecimal sumConsumedSince(Long coffeeId, LocalDate from);
+    
+    @Modifying
+    @Query("delete from ConsumptionRollup r where r.day >= :from")
+    int deleteFromDay(LocalDate from);
+}
@@ -0,0 +1,23 @@
+package com.avilachehab.christmasgifts.repository;
+
+import com.avilachehab.christmasgifts.dto.GiftDto;
+import com.avilachehab.christmasgifts.dto.GiftSort;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Gift listing queries that are assembled at runtime; mixed into {@link GiftRepository}.
+ */
+public interface GiftQueries {
+
+    /**
+     * Selects gifts joined with their person as {@link GiftDto}s in one query, ordered by
+     * {@code sort} then id. Null filters are ignored. A non-null {@code after} is the last row of
+     * the previous page and only rows past it are returned (keyset pagination); a null
+     * {@code limit} returns every row.
+     */
+    List<GiftDto> findGiftRows(Integer season, Long personId, BigDecimal minPrice, BigDecimal maxPrice,
+                               GiftSort sort, Sort.Direction direction, GiftDto after, Integer limit);
+}
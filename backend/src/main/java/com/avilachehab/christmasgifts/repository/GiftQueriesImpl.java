@@ -0,0 +1,87 @@
+package com.avilachehab.christmasgifts.repository;
+
+import com.avilachehab.christmasgifts.dto.GiftDto;
+import com.avilachehab.christmasgifts.dto.GiftSort;
+import com.avilachehab.christmasgifts.model.Gift;
+import com.avilachehab.christmasgifts.model.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+class GiftQueriesImpl implements GiftQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<GiftDto> findGiftRows(Integer season, Long personId, BigDecimal minPrice, BigDecimal maxPrice,
+                                      GiftSort sort, Sort.Direction direction, GiftDto after, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<GiftDto> query = cb.createQuery(GiftDto.class);
+        Root<Gift> gift = query.from(Gift.class);
+        Join<Gift, Person> person = gift.join("person");
+        query.select(cb.construct(GiftDto.class, gift.get("id"), gift.get("description"), gift.get("price"),
+                person.get("id"), person.get("name"), gift.get("season")));
+
+        Path<Long> id = gift.get("id");
+        List<Predicate> where = new ArrayList<>();
+        if (season != null) {
+            where.add(cb.equal(gift.get("season"), season));
+        }
+        if (personId != null) {
+            where.add(cb.equal(gift.get("person").get("id"), personId));
+        }
+        if (minPrice != null) {
+            where.add(cb.greaterThanOrEqualTo(gift.get("price"), minPrice));
+        }
+        if (maxPrice != null) {
+            where.add(cb.lessThanOrEqualTo(gift.get("price"), maxPrice));
+        }
+        boolean descending = direction == Sort.Direction.DESC;
+        if (after != null) {
+            Predicate pastId = descending ? cb.lessThan(id, after.getId()) : cb.greaterThan(id, after.getId());
+            switch (sort) {
+                case PRICE -> where.add(past(cb, gift.get("price"), after.getPrice(), descending, pastId));
+                case DESCRIPTION -> where.add(past(cb, gift.get("description"), after.getDescription(), descending, pastId));
+                case ID -> where.add(pastId);
+            }
+        }
+        query.where(where.toArray(Predicate[]::new));
+
+        List<Order> order = new ArrayList<>(2);
+        if (sort == GiftSort.PRICE) {
+            order.add(descending ? cb.desc(gift.get("price")) : cb.asc(gift.get("price")));
+        } else if (sort == GiftSort.DESCRIPTION) {
+            order.add(descending ? cb.desc(gift.get("description")) : cb.asc(gift.get("description")));
+        }
+        order.add(descending ? cb.desc(id) : cb.asc(id));
+        query.orderBy(order);
+
+        TypedQuery<GiftDto> typed = entityManager.createQuery(query);
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        return typed.getResultList();
+    }
+
+    /**
+     * {@code (column, id)} strictly past {@code (value, lastId)} in the sort direction.
+     */
+    private static <T extends Comparable<? super T>> Predicate past(CriteriaBuilder cb, Path<T> column, T value,
+                                                                     boolean descending, Predicate pastId) {
+        Predicate beyond = descending ? cb.lessThan(column, value) : cb.greaterThan(column, value);
+        return cb.or(beyond, cb.and(cb.equal(column, value), pastId));
+    }
+}
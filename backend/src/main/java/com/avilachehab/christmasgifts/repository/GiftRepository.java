@@ -1,13 +1,29 @@
 package com.avilachehab.christmasgifts.repository;
 
 import com.avilachehab.christmasgifts.model.Gift;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface GiftRepository extends JpaRepository<Gift, Long> {
-    List<Gift> findByPersonId(Long personId);
+public interface GiftRepository extends JpaRepository<Gift, Long>, GiftQueries {
+    
+    @Query("select g from Gift g where g.season = :season order by g.person.id, g.id")
+    List<Gift> findBySeasonOrderByPerson(int season);
+    
+    @Modifying
+    @Query("delete from Gift g where g.person.id = :personId")
+    int bulkDeleteByPersonId(Long personId);
+    
+    @Query("select distinct g.season from Gift g where g.person.id = :personId")
+    List<Integer> findSeasonsByPersonId(Long personId);
+    
+    @Query("select g from Gift g join fetch g.person "
+            + "where g.changeSeq > :since and g.changeSeq < :before order by g.changeSeq")
+    List<Gift> findChangedBetween(long since, long before, Pageable page);
 }
 
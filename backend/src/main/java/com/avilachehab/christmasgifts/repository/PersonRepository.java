@@ -1,10 +1,48 @@
 package com.avilachehab.christmasgifts.repository;
 
 import com.avilachehab.christmasgifts.model.Person;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long> {
+    
+    @Query("select p from Person p where p.changeSeq > :since and p.changeSeq < :before order by p.changeSeq")
+    List<Person> findChangedBetween(long since, long before, Pageable page);
+    
+    /**
+     * Deletes the row without loading it or cascading to its children; returns 0 when it does not exist.
+     */
+    @Modifying
+    @Query("delete from Person p where p.id = :id")
+    int bulkDeleteById(Long id);
+    
+    List<Person> findByNameInOrderById(Collection<String> names);
+    
+    /**
+     * Gift count and total per person and season; a person without gifts has one row with a null
+     * season.
+     */
+    @Query("select p.id as personId, p.name as name, p.allowance as allowance, g.season as season, "
+            + "count(g) as giftCount, coalesce(sum(g.price), 0) as totalSpent "
+            + "from Person p left join p.gifts g group by p.id, p.name, p.allowance, g.season "
+            + "order by p.id, g.season")
+    List<PersonTotals> summarizeGifts();
+    
+    interface PersonTotals {
+        Long getPersonId();
+        String getName();
+        BigDecimal getAllowance();
+        Integer getSeason();
+        Long getGiftCount();
+        BigDecimal getTotalSpent();
+    }
 }
 
@@ -0,0 +1,69 @@
+package com.avilachehab.christmasgifts.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dynamic projections for sparse fieldsets: selects only the requested attribute paths of an
+ * entity instead of loading whole rows.
+ */
+@Repository
+public class ProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Selects the given attribute paths, e.g. {@code coffeeName} or {@code roaster.name}, and
+     * returns one map per row keyed by path. A non-null {@code filterValue} restricts the rows to
+     * {@code filterPath = filterValue}. Paths through a many-to-one are inner joins.
+     */
+    public List<Map<String, Object>> findColumns(Class<?> entityClass, Collection<String> paths,
+                                                 String filterPath, Object filterValue) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entityClass);
+
+        List<String> columns = new ArrayList<>(paths);
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            selections.add(path(root, column));
+        }
+        query.multiselect(selections);
+        if (filterValue != null) {
+            query.where(cb.equal(path(root, filterPath), filterValue));
+        }
+
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new HashMap<>(columns.size() * 2);
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Path<?> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
@@ -1,10 +1,25 @@
 package com.avilachehab.christmasgifts.repository;
 
 import com.avilachehab.christmasgifts.model.Roaster;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface RoasterRepository extends JpaRepository<Roaster, Long> {
+    
+    @Query("select r from Roaster r where r.changeSeq > :since and r.changeSeq < :before order by r.changeSeq")
+    List<Roaster> findChangedBetween(long since, long before, Pageable page);
+    
+    /**
+     * Deletes the row without loading it or cascading to its children; returns 0 when it does not exist.
+     */
+    @Modifying
+    @Query("delete from Roaster r where r.id = :id")
+    int bulkDeleteById(Long id);
 }
 
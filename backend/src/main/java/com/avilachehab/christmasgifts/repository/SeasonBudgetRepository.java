@@ -0,0 +1,9 @@
+package com.avilachehab.christmasgifts.repository;
+
+import com.avilachehab.christmasgifts.model.SeasonBudget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeasonBudgetRepository extends JpaRepository<SeasonBudget, Integer> {
+}
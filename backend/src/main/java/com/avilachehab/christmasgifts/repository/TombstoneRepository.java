@@ -0,0 +1,25 @@
+package com.avilachehab.christmasgifts.repository;
+
+import com.avilachehab.christmasgifts.model.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+    
+    @Query("select t from Tombstone t where t.changeSeq > :since and t.changeSeq < :before order by t.changeSeq")
+    List<Tombstone> findChangedBetween(long since, long before, Pageable page);
+    
+    @Query("select max(t.changeSeq) from Tombstone t where t.deletedAt < :cutoff")
+    Long findLatestChangeSeqBefore(LocalDateTime cutoff);
+    
+    @Modifying
+    @Query("delete from Tombstone t where t.changeSeq <= :changeSeq")
+    int deleteThrough(long changeSeq);
+}
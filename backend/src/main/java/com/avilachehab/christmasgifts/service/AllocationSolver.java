@@ -0,0 +1,557 @@
+package com.avilachehab.christmasgifts.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multiple-choice knapsack for gift allocation: one gift set per person, spend within the
+ * person's bounds, total within the budget, highest total priority.
+ * <p>
+ * Each person's candidates are first reduced to Pareto-optimal options (the gift sets no cheaper
+ * set beats on priority) with a 0/1 knapsack in cents, one person per pool task. One option per
+ * person is then chosen by depth-first branch and bound. The bound at each node is the LP
+ * relaxation over the remaining persons: their options' upper convex hulls, filled greedily by
+ * slope. The first levels of the search tree are forked across the pool, and all tasks share the
+ * incumbent. When the deadline passes the best allocation found is returned, with the root LP
+ * bound as its upper bound.
+ * <p>
+ * Options are only exact when prices stay in cents and the knapsack finishes before the deadline.
+ * Otherwise the search runs on the sets that were found, the result is not reported optimal, and
+ * the upper bound comes from a relaxation no feasible set can beat: prices rounded down, or every
+ * candidate's priority when the knapsack was cut short.
+ */
+final class AllocationSolver {
+
+    /**
+     * Knapsack cells allowed per person; beyond it prices are rounded up to a coarser unit.
+     */
+    static final long MAX_CELLS = 2_000_000;
+
+    private static final int FORK_DEPTH = 2;
+    private static final int DEADLINE_CHECK_MASK = 1023;
+
+    record Item(long cost, long value) {
+    }
+
+    record Group(long id, long minCost, long maxCost, List<Item> items) {
+    }
+
+    /**
+     * A gift set for one person: indices into the group's items.
+     */
+    record Option(long cost, long value, int[] items) {
+    }
+
+    /**
+     * A person's options: {@code sets} are real gift sets within the spend bounds, and every such
+     * set costs no less and is worth no more than some {@code relaxed} option. Both lists are the
+     * same when {@code exact}.
+     */
+    record Options(List<Option> sets, List<Option> relaxed, boolean exact, long unit) {
+    }
+
+    /**
+     * Knapsack table over rounded weights; {@code complete} is false when the deadline cut it short.
+     */
+    private record Table(int[] weights, long[] best, boolean[][] taken, boolean complete) {
+    }
+
+    record Solution(List<Option> choices, long cost, long value, double upperBound, boolean optimal, long nodes) {
+
+        double gap() {
+            return upperBound > 0 ? (upperBound - value) / upperBound : 0;
+        }
+    }
+
+    private AllocationSolver() {
+    }
+
+    /**
+     * Solves the allocation, returning one option per group in input order.
+     *
+     * @throws IllegalArgumentException when no allocation satisfies the spend bounds and budget
+     */
+    static Solution solve(List<Group> groups, long budget, long deadlineNanos, ForkJoinPool pool) {
+        List<Callable<Options>> builds = groups.stream()
+                .map(group -> (Callable<Options>) () -> options(group, budget, deadlineNanos))
+                .toList();
+        List<List<Option>> options = new ArrayList<>(groups.size());
+        List<List<Option>> relaxed = new ArrayList<>(groups.size());
+        boolean exact = true;
+        for (Future<Options> built : pool.invokeAll(builds)) {
+            Options groupOptions = join(built);
+            options.add(groupOptions.sets());
+            relaxed.add(groupOptions.relaxed());
+            exact &= groupOptions.exact();
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            if (relaxed.get(g).isEmpty()) {
+                throw new IllegalArgumentException("Person " + groups.get(g).id()
+                        + " has no gift set within its minimum and maximum spend");
+            }
+            if (options.get(g).isEmpty()) {
+                throw new IllegalArgumentException("No gift set within the minimum and maximum spend of person "
+                        + groups.get(g).id() + " was found in time; raise the time limit or narrow the bounds");
+            }
+        }
+        long minimum = options.stream().mapToLong(groupOptions -> groupOptions.get(0).cost()).sum();
+        if (minimum > budget) {
+            throw new IllegalArgumentException("Minimum spends exceed the total budget");
+        }
+
+        Search search = new Search(options, budget, deadlineNanos);
+        search.offerGreedy();
+        double rootBound = exact ? search.bound(0, budget) : new Search(relaxed, budget, deadlineNanos).bound(0, budget);
+        pool.invoke(search.new Task(0, budget, 0, new int[options.size()]));
+
+        List<Option> choices = new ArrayList<>(groups.size());
+        for (int g = 0; g < groups.size(); g++) {
+            choices.add(null);
+        }
+        long cost = 0;
+        for (int d = 0; d < search.order.length; d++) {
+            Option option = search.options[d].get(search.bestChoice[d]);
+            choices.set(search.order[d], option);
+            cost += option.cost();
+        }
+        long value = search.best.get();
+        boolean optimal = exact && !search.timedOut;
+        return new Solution(choices, cost, value, optimal ? value : Math.max(rootBound, value), optimal,
+                search.nodes.sum());
+    }
+
+    /**
+     * Pareto-optimal gift sets for one person, cheapest first, each strictly better than the last.
+     * <p>
+     * Costs are rounded up to a coarser unit when the table would exceed {@link #MAX_CELLS}; sets
+     * whose rounded cost then no longer fits are looked for again with costs rounded down, which
+     * also gives the relaxed options. A table cut short by the deadline is topped up greedily.
+     */
+    static Options options(Group group, long budget, long deadlineNanos) {
+        long cap = Math.min(group.maxCost(), budget);
+        if (group.minCost() > cap) {
+            return new Options(List.of(), List.of(), true, 1);
+        }
+        int n = group.items().size();
+        long unit = Math.max(1, ((cap + 1) * Math.max(n, 1) + MAX_CELLS - 1) / MAX_CELLS);
+        int capacity = (int) (cap / unit);
+
+        List<Option> candidates = new ArrayList<>();
+        Table roundedUp = fill(group, unit, capacity, true, deadlineNanos);
+        collect(group, roundedUp, cap, candidates);
+        if (!roundedUp.complete()) {
+            fillGreedily(group, cap, candidates);
+            return new Options(pareto(candidates), List.of(upperLimit(group)), false, unit);
+        }
+        if (unit == 1) {
+            List<Option> sets = pareto(candidates);
+            return new Options(sets, sets, true, unit);
+        }
+
+        Table roundedDown = fill(group, unit, capacity, false, deadlineNanos);
+        collect(group, roundedDown, cap, candidates);
+        if (!roundedDown.complete()) {
+            fillGreedily(group, cap, candidates);
+            return new Options(pareto(candidates), List.of(upperLimit(group)), false, unit);
+        }
+        // A set costing c has rounded-down units above c / unit - its size, hence the lowest level
+        long lowest = Math.max(0, group.minCost() / unit - n + 1);
+        List<Option> relaxed = new ArrayList<>();
+        for (int level = (int) Math.min(lowest, capacity + 1L); level <= capacity; level++) {
+            if (roundedDown.best()[level] >= 0) {
+                relaxed.add(new Option(level * unit, roundedDown.best()[level], new int[0]));
+            }
+        }
+        return new Options(pareto(candidates), pareto(relaxed), false, unit);
+    }
+
+    /**
+     * 0/1 knapsack over costs in {@code unit}s, rounded up or down; stops between items once the
+     * deadline has passed.
+     */
+    private static Table fill(Group group, long unit, int capacity, boolean roundUp, long deadlineNanos) {
+        int n = group.items().size();
+        int[] weights = new int[n];
+        for (int i = 0; i < n; i++) {
+            long cost = group.items().get(i).cost();
+            long units = roundUp ? (cost + unit - 1) / unit : cost / unit;
+            weights[i] = (int) Math.min(units, capacity + 1L);
+        }
+
+        // best[s]: highest value of a set whose rounded cost is exactly s units, -1 if none
+        long[] best = new long[capacity + 1];
+        Arrays.fill(best, -1);
+        best[0] = 0;
+        boolean[][] taken = new boolean[n][capacity + 1];
+        for (int i = 0; i < n; i++) {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                return new Table(weights, best, taken, false);
+            }
+            int weight = weights[i];
+            long value = group.items().get(i).value();
+            for (int s = capacity; s >= weight; s--) {
+                if (best[s - weight] >= 0 && best[s - weight] + value > best[s]) {
+                    best[s] = best[s - weight] + value;
+                    taken[i][s] = true;
+                }
+            }
+        }
+        return new Table(weights, best, taken, true);
+    }
+
+    /**
+     * Adds the best set of each level of {@code table} whose real cost is within the spend bounds.
+     */
+    private static void collect(Group group, Table table, long cap, List<Option> into) {
+        long bestValue = -1;
+        for (int s = 0; s < table.best().length; s++) {
+            if (table.best()[s] <= bestValue) {
+                continue;
+            }
+            Option option = reconstruct(group, table.weights(), table.taken(), s, table.best()[s]);
+            if (option.cost() >= group.minCost() && option.cost() <= cap) {
+                into.add(option);
+                bestValue = table.best()[s];
+            }
+        }
+    }
+
+    /**
+     * Adds the sets met by taking candidates by priority per cent while they fit, for a table the
+     * deadline cut short.
+     */
+    private static void fillGreedily(Group group, long cap, List<Option> into) {
+        List<Item> items = group.items();
+        Integer[] byDensity = new Integer[items.size()];
+        for (int i = 0; i < byDensity.length; i++) {
+            byDensity[i] = i;
+        }
+        Arrays.sort(byDensity, (a, b) -> Double.compare((double) items.get(b).value() * items.get(a).cost(),
+                (double) items.get(a).value() * items.get(b).cost()));
+        int[] picked = new int[byDensity.length];
+        int count = 0;
+        long cost = 0;
+        long value = 0;
+        if (group.minCost() <= 0) {
+            into.add(new Option(0, 0, new int[0]));
+        }
+        for (int i : byDensity) {
+            if (cost + items.get(i).cost() > cap) {
+                continue;
+            }
+            picked[count++] = i;
+            cost += items.get(i).cost();
+            value += items.get(i).value();
+            if (cost >= group.minCost()) {
+                // Highest index first, as reconstruct() lists them
+                int[] set = Arrays.stream(picked, 0, count).boxed()
+                        .sorted(Comparator.reverseOrder()).mapToInt(Integer::intValue).toArray();
+                into.add(new Option(cost, value, set));
+            }
+        }
+    }
+
+    /**
+     * Cheapest first, dropping every option that something no dearer matches on priority.
+     */
+    private static List<Option> pareto(List<Option> options) {
+        // Rounded weights can reorder real costs; keep only options nothing cheaper dominates
+        List<Option> sorted = new ArrayList<>(options);
+        sorted.sort(Comparator.comparingLong(Option::cost).thenComparing(Option::value, Comparator.reverseOrder()));
+        List<Option> pareto = new ArrayList<>(sorted.size());
+        for (Option option : sorted) {
+            if (pareto.isEmpty() || option.value() > pareto.get(pareto.size() - 1).value()) {
+                pareto.add(option);
+            }
+        }
+        return pareto;
+    }
+
+    /**
+     * A relaxed option that beats every set of the group: its minimum spend for all priority.
+     */
+    private static Option upperLimit(Group group) {
+        return new Option(group.minCost(), group.items().stream().mapToLong(Item::value).sum(), new int[0]);
+    }
+
+    private static Option reconstruct(Group group, int[] weights, boolean[][] taken, int units, long value) {
+        int[] picked = new int[weights.length];
+        int count = 0;
+        long cost = 0;
+        int s = units;
+        for (int i = weights.length - 1; i >= 0; i--) {
+            if (taken[i][s]) {
+                picked[count++] = i;
+                cost += group.items().get(i).cost();
+                s -= weights[i];
+            }
+        }
+        return new Option(cost, value, Arrays.copyOf(picked, count));
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building gift options", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Branch-and-bound state shared by all tasks of one solve. Groups are searched in
+     * {@link #order}, most priority at stake first.
+     */
+    private static final class Search {
+
+        private final int[] order;
+        private final List<Option>[] options;
+        private final long budget;
+        private final long deadlineNanos;
+        private final long[] suffixMinCost;
+        private final long[] suffixMinValue;
+        // Hull increments of all groups by slope, best first
+        private final int[] incrementDepth;
+        private final int[] incrementOption;
+        private final long[] incrementCost;
+        private final long[] incrementValue;
+
+        private final AtomicLong best = new AtomicLong(-1);
+        private final int[] bestChoice;
+        private final LongAdder nodes = new LongAdder();
+        private volatile boolean timedOut;
+
+        @SuppressWarnings("unchecked")
+        Search(List<List<Option>> groupOptions, long budget, long deadlineNanos) {
+            int n = groupOptions.size();
+            this.budget = budget;
+            this.deadlineNanos = deadlineNanos;
+            this.order = new int[n];
+            Integer[] byStake = new Integer[n];
+            for (int g = 0; g < n; g++) {
+                byStake[g] = g;
+            }
+            Arrays.sort(byStake, Comparator.comparingLong((Integer g) -> stake(groupOptions.get(g))).reversed());
+            this.options = new List[n];
+            for (int d = 0; d < n; d++) {
+                order[d] = byStake[d];
+                options[d] = groupOptions.get(byStake[d]);
+            }
+            this.bestChoice = new int[n];
+
+            suffixMinCost = new long[n + 1];
+            suffixMinValue = new long[n + 1];
+            for (int d = n - 1; d >= 0; d--) {
+                suffixMinCost[d] = suffixMinCost[d + 1] + options[d].get(0).cost();
+                suffixMinValue[d] = suffixMinValue[d + 1] + options[d].get(0).value();
+            }
+
+            List<long[]> increments = new ArrayList<>();
+            for (int d = 0; d < n; d++) {
+                List<Integer> hull = upperHull(options[d]);
+                for (int h = 1; h < hull.size(); h++) {
+                    Option from = options[d].get(hull.get(h - 1));
+                    Option to = options[d].get(hull.get(h));
+                    increments.add(new long[]{d, hull.get(h), to.cost() - from.cost(), to.value() - from.value()});
+                }
+            }
+            // Steepest slope (value per cent) first: a.value / a.cost > b.value / b.cost
+            increments.sort((a, b) -> Double.compare((double) b[3] * a[2], (double) a[3] * b[2]));
+            int m = increments.size();
+            incrementDepth = new int[m];
+            incrementOption = new int[m];
+            incrementCost = new long[m];
+            incrementValue = new long[m];
+            for (int k = 0; k < m; k++) {
+                long[] increment = increments.get(k);
+                incrementDepth[k] = (int) increment[0];
+                incrementOption[k] = (int) increment[1];
+                incrementCost[k] = increment[2];
+                incrementValue[k] = increment[3];
+            }
+        }
+
+        private static long stake(List<Option> options) {
+            return options.get(options.size() - 1).value() - options.get(0).value();
+        }
+
+        /**
+         * Indices of the options on the upper convex hull, cheapest first.
+         */
+        private static List<Integer> upperHull(List<Option> options) {
+            List<Integer> hull = new ArrayList<>();
+            for (int i = 0; i < options.size(); i++) {
+                Option next = options.get(i);
+                while (hull.size() >= 2) {
+                    Option a = options.get(hull.get(hull.size() - 2));
+                    Option b = options.get(hull.get(hull.size() - 1));
+                    // Drop b when it lies on or below the segment from a to next
+                    double left = (double) (b.value() - a.value()) * (next.cost() - b.cost());
+                    double right = (double) (next.value() - b.value()) * (b.cost() - a.cost());
+                    if (left > right) {
+                        break;
+                    }
+                    hull.remove(hull.size() - 1);
+                }
+                hull.add(i);
+            }
+            return hull;
+        }
+
+        /**
+         * LP relaxation value of groups {@code depth..n-1} with {@code remaining} cents, or -1 when
+         * even their cheapest options do not fit.
+         */
+        double bound(int depth, long remaining) {
+            if (suffixMinCost[depth] > remaining) {
+                return -1;
+            }
+            double bound = suffixMinValue[depth];
+            long left = remaining - suffixMinCost[depth];
+            for (int k = 0; k < incrementDepth.length; k++) {
+                if (incrementDepth[k] < depth) {
+                    continue;
+                }
+                if (incrementCost[k] <= left) {
+                    bound += incrementValue[k];
+                    left -= incrementCost[k];
+                } else {
+                    bound += (double) incrementValue[k] * left / incrementCost[k];
+                    break;
+                }
+            }
+            return bound;
+        }
+
+        /**
+         * Seeds the incumbent with the LP solution rounded down, topped up with whatever still fits.
+         */
+        void offerGreedy() {
+            int n = order.length;
+            int[] choice = new int[n];
+            boolean[] blocked = new boolean[n];
+            long left = budget - suffixMinCost[0];
+            for (int k = 0; k < incrementDepth.length; k++) {
+                int d = incrementDepth[k];
+                if (blocked[d]) {
+                    continue;
+                }
+                if (incrementCost[k] <= left) {
+                    choice[d] = incrementOption[k];
+                    left -= incrementCost[k];
+                } else {
+                    blocked[d] = true;
+                }
+            }
+            long value = 0;
+            for (int d = 0; d < n; d++) {
+                Option current = options[d].get(choice[d]);
+                for (int j = options[d].size() - 1; j > choice[d]; j--) {
+                    long extra = options[d].get(j).cost() - current.cost();
+                    if (extra <= left) {
+                        choice[d] = j;
+                        left -= extra;
+                        break;
+                    }
+                }
+                value += options[d].get(choice[d]).value();
+            }
+            offer(value, choice);
+        }
+
+        synchronized void offer(long value, int[] choice) {
+            if (value > best.get()) {
+                System.arraycopy(choice, 0, bestChoice, 0, choice.length);
+                best.set(value);
+            }
+        }
+
+        boolean cannotImprove(int depth, long remaining, long value) {
+            double bound = bound(depth, remaining);
+            return bound < 0 || Math.floor(value + bound + 1e-9) <= best.get();
+        }
+
+        final class Task extends RecursiveAction {
+
+            private final int depth;
+            private final long remaining;
+            private final long value;
+            private final int[] choice;
+            private long visited;
+
+            Task(int depth, long remaining, long value, int[] choice) {
+                this.depth = depth;
+                this.remaining = remaining;
+                this.value = value;
+                this.choice = choice;
+            }
+
+            @Override
+            protected void compute() {
+                if (depth >= FORK_DEPTH || depth == order.length) {
+                    search(depth, remaining, value);
+                    nodes.add(visited);
+                    return;
+                }
+                nodes.increment();
+                if (System.nanoTime() - deadlineNanos > 0) {
+                    timedOut = true;
+                }
+                if (timedOut || cannotImprove(depth, remaining, value)) {
+                    return;
+                }
+                List<Task> children = new ArrayList<>();
+                long reserve = suffixMinCost[depth + 1];
+                for (int j = options[depth].size() - 1; j >= 0; j--) {
+                    Option option = options[depth].get(j);
+                    if (option.cost() + reserve <= remaining) {
+                        int[] childChoice = choice.clone();
+                        childChoice[depth] = j;
+                        children.add(new Task(depth + 1, remaining - option.cost(), value + option.value(),
+                                childChoice));
+                    }
+                }
+                invokeAll(children);
+            }
+
+            private void search(int d, long left, long total) {
+                if ((++visited & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() - deadlineNanos > 0) {
+                    timedOut = true;
+                }
+                if (timedOut) {
+                    return;
+                }
+                if (d == order.length) {
+                    offer(total, choice);
+                    return;
+                }
+                if (cannotImprove(d, left, total)) {
+                    return;
+                }
+                long reserve = suffixMinCost[d + 1];
+                // Most valuable options first, so good incumbents are found early
+                for (int j = options[d].size() - 1; j >= 0 && !timedOut; j--) {
+                    Option option = options[d].get(j);
+                    if (option.cost() + reserve <= left) {
+                        choice[d] = j;
+                        search(d + 1, left - option.cost(), total + option.value());
+                    }
+                }
+            }
+        }
+    }
+}
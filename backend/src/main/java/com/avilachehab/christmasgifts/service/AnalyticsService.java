@@ -0,0 +1,95 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.config.CacheConfig;
+import com.avilachehab.christmasgifts.dto.AnalyticsRowDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spend and volume per dimension, computed with GROUP BY in the database over the covering
+ * indexes from V4. Spend is history, so archived bags count too ({@code coffee_history}). Results
+ * are cached per parameter set until the next committed coffee change.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    public enum Dimension {
+        ROASTER("roaster_id"),
+        ORIGIN("origin"),
+        ROAST_LEVEL("roast_level"),
+        PROCESSING_METHOD("processing_method"),
+        PURCHASE_MONTH("EXTRACT(YEAR FROM purchase_date) * 100 + EXTRACT(MONTH FROM purchase_date)");
+
+        private final String expression;
+
+        Dimension(String expression) {
+            this.expression = expression;
+        }
+    }
+
+    private static final String SPEND = "COALESCE(SUM(price), 0)";
+    private static final String VOLUME = "COALESCE(SUM(initial_weight), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS_CACHE, key = "{'spend', #dimension, #from, #to}")
+    public List<AnalyticsRowDto> getSpend(Dimension dimension, LocalDate from, LocalDate to) {
+        return groupBy(dimension, SPEND, from, to);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS_CACHE, key = "{'volume', #dimension, #from, #to}")
+    public List<AnalyticsRowDto> getVolume(Dimension dimension, LocalDate from, LocalDate to) {
+        return groupBy(dimension, VOLUME, from, to);
+    }
+
+    /**
+     * Deleting a roaster deletes its bags without an event per bag, so it evicts too.
+     */
+    @TransactionalEventListener
+    @CacheEvict(cacheNames = CacheConfig.ANALYTICS_CACHE, allEntries = true,
+            condition = "#event.entityType == T(com.avilachehab.christmasgifts.service.ChangeTracker).COFFEE"
+                    + " or (#event.entityType == T(com.avilachehab.christmasgifts.service.ChangeTracker).ROASTER"
+                    + " and #event.deleted)")
+    public void onEntityChanged(EntityChangedEvent event) {
+    }
+
+    private List<AnalyticsRowDto> groupBy(Dimension dimension, String aggregate, LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(dimension.expression).append(" AS group_key, COUNT(*) AS bags, ")
+                .append(aggregate).append(" AS total FROM coffee_history");
+        List<Object> args = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(" WHERE purchase_date >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(from != null ? " AND" : " WHERE").append(" purchase_date <= ?");
+            args.add(Date.valueOf(to));
+        }
+        sql.append(" GROUP BY ").append(dimension.expression).append(" ORDER BY group_key");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Object key = rs.getObject("group_key");
+            return new AnalyticsRowDto(key != null ? formatKey(dimension, key) : null,
+                    rs.getLong("bags"), rs.getBigDecimal("total"));
+        }, args.toArray());
+    }
+
+    private static String formatKey(Dimension dimension, Object key) {
+        if (dimension == Dimension.PURCHASE_MONTH) {
+            int yearMonth = ((Number) key).intValue();
+            return String.format("%d-%02d", yearMonth / 100, yearMonth % 100);
+        }
+        return key.toString();
+    }
+}
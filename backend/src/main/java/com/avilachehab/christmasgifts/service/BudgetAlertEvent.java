@@ -0,0 +1,20 @@
+package com.avilachehab.christmasgifts.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by {@link BudgetCounters} after a committed write takes a person's spending across an
+ * allowance threshold within a season.
+ */
+@Getter
+@AllArgsConstructor
+public class BudgetAlertEvent {
+    private final Long personId;
+    private final int season;
+    private final BigDecimal threshold; // fraction of the allowance, e.g. 0.8
+    private final BigDecimal spent;
+    private final BigDecimal allowance;
+}
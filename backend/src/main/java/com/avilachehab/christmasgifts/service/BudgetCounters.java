@@ -0,0 +1,260 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.BudgetAlertDto;
+import com.avilachehab.christmasgifts.repository.PersonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running gift totals and counts per person and season, so budget figures never re-sum gifts.
+ * <p>
+ * Counters are loaded once from an aggregate query and then adjusted by gift and person writes.
+ * Adjustments are applied after the writing transaction commits, so rolled-back writes never
+ * count. Spending is held in cents in {@link LongAdder}s, which stay cheap under concurrent
+ * updates. A person's allowance applies to each season separately. Each counter remembers the
+ * highest allowance threshold ({@code app.budget.alert-thresholds}) already reported; crossing a
+ * higher one publishes a {@link BudgetAlertEvent} once, and dropping back below re-arms it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BudgetCounters {
+
+    static final long NO_ALLOWANCE = -1;
+
+    private static final int MAX_RECENT_ALERTS = 100;
+
+    private final PersonRepository personRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.budget.alert-thresholds:0.8,1.0}")
+    private String alertThresholds;
+
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Long> allowanceCents = new ConcurrentHashMap<>();
+    private final Deque<BudgetAlertDto> recentAlerts = new ConcurrentLinkedDeque<>();
+    private volatile BigDecimal[] thresholds;
+
+    /**
+     * Spending totals for one person and season as of the last committed write.
+     */
+    public record Totals(BigDecimal spent, long giftCount, BigDecimal allowance) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        counters.clear();
+        allowanceCents.clear();
+        for (PersonRepository.PersonTotals totals : personRepository.summarizeGifts()) {
+            if (totals.getAllowance() != null) {
+                allowanceCents.put(totals.getPersonId(), toCents(totals.getAllowance()));
+            }
+            if (totals.getSeason() == null) {
+                continue;
+            }
+            Key key = new Key(totals.getPersonId(), totals.getSeason());
+            Counter counter = counter(key);
+            counter.spentCents.add(toCents(totals.getTotalSpent()));
+            counter.gifts.add(totals.getGiftCount());
+            counter.alertLevel.set(level(key, counter));
+        }
+        log.info("Loaded {} budget counters for {} persons with allowances", counters.size(), allowanceCents.size());
+    }
+
+    public Totals getTotals(Long personId, int season) {
+        Long allowance = allowanceCents.get(personId);
+        BigDecimal allowanceAmount = allowance != null ? fromCents(allowance) : null;
+        Counter counter = counters.get(new Key(personId, season));
+        if (counter == null) {
+            return new Totals(BigDecimal.ZERO.setScale(2), 0, allowanceAmount);
+        }
+        return new Totals(fromCents(counter.spentCents.sum()), counter.gifts.sum(), allowanceAmount);
+    }
+
+    public List<BudgetAlertDto> getRecentAlerts() {
+        return new ArrayList<>(recentAlerts);
+    }
+
+    public void giftAdded(Long personId, int season, BigDecimal price) {
+        giftsAdded(personId, season, price, 1);
+    }
+
+    public void giftsAdded(Long personId, int season, BigDecimal total, int count) {
+        long cents = toCents(total);
+        afterCommit(() -> adjust(new Key(personId, season), cents, count));
+    }
+
+    /**
+     * Applies an edited gift as one adjustment per person and season, so an unchanged price never
+     * dips below a threshold and re-alerts.
+     */
+    public void giftChanged(Long oldPersonId, int oldSeason, BigDecimal oldPrice,
+                            Long newPersonId, int newSeason, BigDecimal newPrice) {
+        Key oldKey = new Key(oldPersonId, oldSeason);
+        Key newKey = new Key(newPersonId, newSeason);
+        long oldCents = toCents(oldPrice);
+        long newCents = toCents(newPrice);
+        afterCommit(() -> {
+            if (oldKey.equals(newKey)) {
+                adjust(newKey, newCents - oldCents, 0);
+            } else {
+                adjust(oldKey, -oldCents, -1);
+                adjust(newKey, newCents, 1);
+            }
+        });
+    }
+
+    public void giftRemoved(Long personId, int season, BigDecimal price) {
+        long cents = toCents(price);
+        afterCommit(() -> adjust(new Key(personId, season), -cents, -1));
+    }
+
+    /**
+     * Re-evaluates the person's seasons against the new allowance. Only the current season
+     * raises alerts; past seasons take their new level silently.
+     */
+    public void allowanceChanged(Long personId, BigDecimal allowance) {
+        long cents = allowance != null ? toCents(allowance) : NO_ALLOWANCE;
+        int currentSeason = SeasonTotals.currentSeason();
+        afterCommit(() -> {
+            if (cents == NO_ALLOWANCE) {
+                allowanceCents.remove(personId);
+            } else {
+                allowanceCents.put(personId, cents);
+            }
+            counters.forEach((key, counter) -> {
+                if (key.personId().equals(personId)) {
+                    checkThresholds(key, counter, key.season() == currentSeason);
+                }
+            });
+        });
+    }
+
+    public void personRemoved(Long personId) {
+        afterCommit(() -> {
+            allowanceCents.remove(personId);
+            counters.keySet().removeIf(key -> key.personId().equals(personId));
+        });
+    }
+
+    private void adjust(Key key, long cents, int gifts) {
+        Counter counter = counter(key);
+        counter.spentCents.add(cents);
+        counter.gifts.add(gifts);
+        checkThresholds(key, counter, true);
+    }
+
+    private void checkThresholds(Key key, Counter counter, boolean alert) {
+        while (true) {
+            int previous = counter.alertLevel.get();
+            int level = level(key, counter);
+            if (level == previous) {
+                return;
+            }
+            if (counter.alertLevel.compareAndSet(previous, level)) {
+                if (alert && level > previous) {
+                    raise(key, counter, thresholds()[level - 1]);
+                }
+                return;
+            }
+        }
+    }
+
+    private void raise(Key key, Counter counter, BigDecimal threshold) {
+        BigDecimal spent = fromCents(counter.spentCents.sum());
+        BigDecimal allowance = fromCents(allowanceCents.getOrDefault(key.personId(), 0L));
+        log.warn("Person {} has spent {} of a {} allowance in season {} (threshold {})",
+                key.personId(), spent, allowance, key.season(), threshold);
+        recentAlerts.addFirst(new BudgetAlertDto(key.personId(), key.season(), threshold, spent, allowance,
+                LocalDateTime.now()));
+        while (recentAlerts.size() > MAX_RECENT_ALERTS) {
+            recentAlerts.pollLast();
+        }
+        eventPublisher.publishEvent(new BudgetAlertEvent(key.personId(), key.season(), threshold, spent, allowance));
+    }
+
+    /**
+     * Number of thresholds the season's spending has reached; 0 without an allowance.
+     */
+    private int level(Key key, Counter counter) {
+        long allowance = allowanceCents.getOrDefault(key.personId(), NO_ALLOWANCE);
+        if (allowance == NO_ALLOWANCE) {
+            return 0;
+        }
+        long spent = counter.spentCents.sum();
+        int level = 0;
+        for (BigDecimal threshold : thresholds()) {
+            if (spent >= threshold.multiply(BigDecimal.valueOf(allowance)).setScale(0, RoundingMode.CEILING).longValue()) {
+                level++;
+            }
+        }
+        return level;
+    }
+
+    private BigDecimal[] thresholds() {
+        BigDecimal[] parsed = thresholds;
+        if (parsed == null) {
+            parsed = Arrays.stream(alertThresholds.split(","))
+                    .map(String::trim)
+                    .map(BigDecimal::new)
+                    .sorted()
+                    .toArray(BigDecimal[]::new);
+            thresholds = parsed;
+        }
+        return parsed;
+    }
+
+    private Counter counter(Key key) {
+        return counters.computeIfAbsent(key, k -> new Counter());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private record Key(Long personId, int season) {
+    }
+
+    private static final class Counter {
+        private final LongAdder spentCents = new LongAdder();
+        private final LongAdder gifts = new LongAdder();
+        private final AtomicInteger alertLevel = new AtomicInteger();
+    }
+}
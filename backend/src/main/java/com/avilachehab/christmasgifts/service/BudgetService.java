@@ -1,35 +1,108 @@
 package com.avilachehab.christmasgifts.service;
 
 import com.avilachehab.christmasgifts.dto.BudgetSummaryDto;
+import com.avilachehab.christmasgifts.dto.GiftDto;
 import com.avilachehab.christmasgifts.dto.PersonDto;
+import com.avilachehab.christmasgifts.dto.SeasonSummaryDto;
+import com.avilachehab.christmasgifts.model.Gift;
+import com.avilachehab.christmasgifts.model.Person;
+import com.avilachehab.christmasgifts.model.SeasonBudget;
+import com.avilachehab.christmasgifts.repository.GiftRepository;
+import com.avilachehab.christmasgifts.repository.PersonRepository;
+import com.avilachehab.christmasgifts.repository.SeasonBudgetRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class BudgetService {
-    
-    private final PersonService personService;
-    
-    public BudgetSummaryDto getBudgetSummary(BigDecimal totalBudget) {
-        List<PersonDto> persons = personService.getAllPersons();
-        
-        BigDecimal totalSpent = persons.stream()
-                .map(PersonDto::getTotalSpent)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal remaining = totalBudget.subtract(totalSpent);
-        
+
+    private final PersonRepository personRepository;
+    private final GiftRepository giftRepository;
+    private final BudgetCounters budgetCounters;
+    private final SeasonBudgetRepository seasonBudgetRepository;
+    private final SeasonTotals seasonTotals;
+
+    @Value("${app.budget.default-total:1000.00}")
+    private BigDecimal defaultTotalBudget;
+
+    /**
+     * Per-person totals, gift counts and allowances for the season come from
+     * {@link BudgetCounters}, so the summary costs one read of the persons table however many gifts
+     * there are. Gift rows are only loaded when {@code includeGifts} is set, and only the season's.
+     * Without an explicit {@code totalBudget} the season's stored budget is used.
+     */
+    @Transactional(readOnly = true)
+    public BudgetSummaryDto getBudgetSummary(Integer season, BigDecimal totalBudget, boolean includeGifts) {
+        int summarySeason = season != null ? season : SeasonTotals.currentSeason();
+        BigDecimal budget = totalBudget != null ? totalBudget : getTotalBudget(summarySeason);
+
+        Map<Long, PersonDto> persons = new LinkedHashMap<>();
+        BigDecimal totalSpent = BigDecimal.ZERO;
+        for (Person person : personRepository.findAll(Sort.by("id"))) {
+            BudgetCounters.Totals totals = budgetCounters.getTotals(person.getId(), summarySeason);
+            persons.put(person.getId(), new PersonDto(person.getId(), person.getName(),
+                    includeGifts ? new ArrayList<>() : null, totals.spent(), totals.giftCount(), totals.allowance()));
+            totalSpent = totalSpent.add(totals.spent());
+        }
+
+        if (includeGifts) {
+            for (Gift gift : giftRepository.findBySeasonOrderByPerson(summarySeason)) {
+                PersonDto person = persons.get(gift.getPerson().getId());
+                if (person != null) {
+                    person.getGifts().add(new GiftDto(gift.getId(), gift.getDescription(), gift.getPrice(),
+                            person.getId(), person.getName(), gift.getSeason()));
+                }
+            }
+        }
+
         BudgetSummaryDto summary = new BudgetSummaryDto();
-        summary.setTotalBudget(totalBudget);
+        summary.setSeason(summarySeason);
+        summary.setTotalBudget(budget);
         summary.setTotalSpent(totalSpent);
-        summary.setRemaining(remaining);
-        summary.setPersons(persons);
-        
+        summary.setRemaining(budget.subtract(totalSpent));
+        summary.setPersons(new ArrayList<>(persons.values()));
+
         return summary;
     }
-}
 
+    /**
+     * The season's stored budget, or {@code app.budget.default-total} when none was set.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalBudget(int season) {
+        return seasonBudgetRepository.findById(season)
+                .map(SeasonBudget::getTotalBudget)
+                .orElse(defaultTotalBudget);
+    }
+
+    /**
+     * Year-over-year comparison, read from the pre-aggregated season totals.
+     */
+    public List<SeasonSummaryDto> getSeasonSummaries() {
+        return seasonTotals.getSummaries();
+    }
+
+    @Transactional
+    public SeasonSummaryDto setSeasonBudget(int season, BigDecimal totalBudget) {
+        if (totalBudget == null || totalBudget.signum() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Total budget must be zero or more");
+        }
+        seasonBudgetRepository.saveAndFlush(new SeasonBudget(season, totalBudget));
+        return seasonTotals.getSummaries().stream()
+                .filter(summary -> summary.getSeason() == season)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Season not found: " + season));
+    }
+}
@@ -0,0 +1,255 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.ChangeEventDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed changes to {@code /api/events} subscribers.
+ * <p>
+ * Connections are async servlet requests, so an idle subscriber holds no thread. Each subscriber
+ * has a bounded buffer keyed by entity: a newer change to the same row replaces the older one, and
+ * a subscriber that falls more than {@code app.events.buffer-size} rows behind gets a single
+ * {@code resync} event instead. A small fixed pool ({@code app.events.dispatch-threads}) writes
+ * the buffers out, at most one task per subscriber.
+ * <p>
+ * A servlet write blocks while the client's socket buffer is full, until Tomcat's write timeout
+ * ({@code server.tomcat.connection-timeout}) fails it. A subscriber whose buffer overflows while
+ * one of its writes is blocked is dropped at once, so changes stop queuing for it; the dispatch
+ * thread is released when the write times out.
+ */
+@Slf4j
+@Service
+public class ChangeEventBroadcaster {
+
+    static final String CHANGE_EVENT = "change";
+    static final String RESYNC_EVENT = "resync";
+
+    @Value("${app.events.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.events.dispatch-threads:2}")
+    private int dispatchThreads;
+
+    @Value("${app.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        broadcast(List.of(new ChangeEventDto(event.getEntityType(), event.getEntityId(),
+                event.getChangeSeq(), event.isDeleted())));
+    }
+
+    @TransactionalEventListener
+    public void onEntitiesChanged(EntitiesChangedEvent event) {
+        List<ChangeEventDto> changes = new ArrayList<>(event.getEntityIds().size());
+        for (int i = 0; i < event.getEntityIds().size(); i++) {
+            changes.add(new ChangeEventDto(event.getEntityType(), event.getEntityIds().get(i),
+                    event.getChangeSeqs().get(i), event.isDeleted()));
+        }
+        broadcast(changes);
+    }
+
+    /**
+     * Sends a comment to every subscriber not already being written to, so proxies keep the
+     * connection open and dead clients are noticed.
+     */
+    @Scheduled(fixedRateString = "${app.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.draining.compareAndSet(false, true)) {
+                dispatcher.execute(() -> drain(subscriber, true));
+            }
+        }
+    }
+
+    private void broadcast(List<ChangeEventDto> changes) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(changes);
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber, false));
+        }
+    }
+
+    /**
+     * Writes out everything buffered for one subscriber; runs with its {@code draining} flag set.
+     */
+    private void drain(Subscriber subscriber, boolean keepAlive) {
+        try {
+            if (keepAlive) {
+                subscriber.send(SseEmitter.event().comment("keep-alive"));
+            }
+            Batch batch;
+            while ((batch = subscriber.take()) != null) {
+                if (batch.resync()) {
+                    subscriber.send(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+                }
+                for (ChangeEventDto change : batch.changes()) {
+                    subscriber.send(SseEmitter.event()
+                            .id(Long.toString(change.getChangeSeq()))
+                            .name(CHANGE_EVENT)
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An offer may have landed between the last take() and the reset above
+        if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    private record Batch(List<ChangeEventDto> changes, boolean resync) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private boolean writing; // guarded by this
+        private final Map<String, ChangeEventDto> pending = new LinkedHashMap<>(); // guarded by this
+        private boolean overflowed; // guarded by this
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(List<ChangeEventDto> changes) {
+            for (ChangeEventDto change : changes) {
+                if (closed || overflowed) {
+                    return;
+                }
+                String key = change.getType() + ':' + change.getId();
+                pending.remove(key); // re-insert so the buffer stays in change order
+                pending.put(key, change);
+                if (pending.size() > bufferSize) {
+                    pending.clear();
+                    if (writing) {
+                        // Still blocked on an earlier write: the client is not reading, so stop buffering
+                        log.debug("Dropping event subscriber: buffer overflowed during a blocked write");
+                        closed = true;
+                        subscribers.remove(this);
+                    } else {
+                        overflowed = true;
+                    }
+                }
+            }
+        }
+
+        private synchronized Batch take() {
+            if (pending.isEmpty() && !overflowed) {
+                return null;
+            }
+            Batch batch = new Batch(new ArrayList<>(pending.values()), overflowed);
+            pending.clear();
+            overflowed = false;
+            return batch;
+        }
+
+        private synchronized boolean hasPending() {
+            return !closed && (overflowed || !pending.isEmpty());
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                writing = true;
+            }
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                finishWrite();
+                log.debug("Dropping event subscriber: {}", e.getMessage());
+                close();
+                return;
+            }
+            if (finishWrite()) {
+                // Dropped on overflow while this write was blocked
+                emitter.completeWithError(new IOException("subscriber fell behind"));
+            }
+        }
+
+        /**
+         * Returns whether the subscriber was dropped while the write was in progress.
+         */
+        private synchronized boolean finishWrite() {
+            writing = false;
+            return closed;
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            synchronized (this) {
+                pending.clear();
+            }
+            emitter.completeWithError(new IOException("subscriber disconnected"));
+        }
+    }
+}
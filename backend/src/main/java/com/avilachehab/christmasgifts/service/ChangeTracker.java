@@ -0,0 +1,174 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.model.Tombstone;
+import com.avilachehab.christmasgifts.repository.TombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Hands out change sequence numbers for delta sync, records deletions as tombstones and publishes
+ * an {@link EntityChangedEvent} for every write, or one {@link EntitiesChangedEvent} per bulk write.
+ * Rows deleted by cascade from a parent get tombstones but no events of their own; listeners derive
+ * them from the parent's deletion.
+ * <p>
+ * A sequence number is allocated before its transaction commits, so a smaller number can become
+ * visible after a larger one. The tracker remembers the numbers of transactions still in flight;
+ * {@link #stableHorizon()} is the first number that may not be visible yet, and sync never hands
+ * out a cursor at or past it. This assumes a single application instance.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeTracker {
+
+    public static final String COFFEE = "coffee";
+    public static final String ROASTER = "roaster";
+    public static final String PERSON = "person";
+    public static final String GIFT = "gift";
+
+    private static final String NEXT_VALUE_SQL = "SELECT NEXT VALUE FOR change_seq";
+    private static final String NEXT_VALUES_SQL = "SELECT NEXT VALUE FOR change_seq FROM SYSTEM_RANGE(1, ?)";
+    private static final String CURRENT_VALUE_SQL = "SELECT CURRENT VALUE FOR change_seq";
+    private static final String INSERT_TOMBSTONE_SQL =
+            "INSERT INTO tombstones (entity_type, entity_id, change_seq, deleted_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_CHILD_TOMBSTONES_SQL = "INSERT INTO tombstones "
+            + "(entity_type, entity_id, change_seq, deleted_at) SELECT ?, id, NEXT VALUE FOR change_seq, ? FROM %s WHERE %s = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TombstoneRepository tombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final NavigableSet<Long> inFlight = new TreeSet<>(); // guarded by this
+    private long lastAllocated; // guarded by this
+
+    /**
+     * Allocates the next sequence number. Must be called inside the transaction that writes it.
+     */
+    public synchronized long nextChangeSeq() {
+        long seq = allocate();
+        track(List.of(seq));
+        return seq;
+    }
+    
+    /**
+     * Allocates {@code count} sequence numbers in one round trip, in ascending order, for bulk writes.
+     */
+    public synchronized List<Long> nextChangeSeqs(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        List<Long> seqs = jdbcTemplate.queryForList(NEXT_VALUES_SQL, Long.class, count);
+        lastAllocated = Math.max(lastAllocated, seqs.get(seqs.size() - 1));
+        track(seqs);
+        return seqs;
+    }
+
+    /**
+     * Announces a saved row; listeners see the event once the transaction commits.
+     */
+    public void recordChange(String entityType, Long entityId, long changeSeq) {
+        eventPublisher.publishEvent(new EntityChangedEvent(entityType, entityId, changeSeq, false));
+    }
+    
+    /**
+     * Announces rows saved by a bulk write with one event; {@code changeSeqs} is parallel to
+     * {@code entityIds}.
+     */
+    public void recordChanges(String entityType, List<Long> entityIds, List<Long> changeSeqs) {
+        if (!entityIds.isEmpty()) {
+            eventPublisher.publishEvent(new EntitiesChangedEvent(entityType, entityIds, changeSeqs, false, false));
+        }
+    }
+    
+    public void recordDeletion(String entityType, Long entityId) {
+        long changeSeq = nextChangeSeq();
+        tombstoneRepository.save(new Tombstone(null, entityType, entityId, changeSeq, LocalDateTime.now()));
+        eventPublisher.publishEvent(new EntityChangedEvent(entityType, entityId, changeSeq, true));
+    }
+
+    /**
+     * Records the deletion of a parent row and of its children in {@code childTable}, which must
+     * still exist: call this before deleting them. The children's tombstones are written by one
+     * {@code INSERT ... SELECT}, each with its own sequence number, and only the parent's deletion
+     * is published.
+     * <p>
+     * The parent's number is allocated first and stays in flight until the transaction completes,
+     * so the children's numbers, drawn by the database after it, stay above the stable horizon
+     * until then.
+     */
+    public synchronized void recordDeletion(String entityType, Long entityId,
+                                            String childType, String childTable, String parentColumn) {
+        long changeSeq = nextChangeSeq();
+        Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(String.format(INSERT_CHILD_TOMBSTONES_SQL, childTable, parentColumn),
+                childType, deletedAt, entityId);
+        Long lastChildSeq = jdbcTemplate.queryForObject(CURRENT_VALUE_SQL, Long.class);
+        lastAllocated = Math.max(lastAllocated, lastChildSeq != null ? lastChildSeq : 0);
+        jdbcTemplate.update(INSERT_TOMBSTONE_SQL, entityType, entityId, changeSeq, deletedAt);
+        eventPublisher.publishEvent(new EntityChangedEvent(entityType, entityId, changeSeq, true));
+    }
+
+    /**
+     * Records rows moved to an archive table as deleted: one sequence round trip and one JDBC batch
+     * of tombstones, then a single archived {@link EntitiesChangedEvent}.
+     */
+    public void recordArchival(String entityType, List<Long> entityIds) {
+        List<Long> changeSeqs = nextChangeSeqs(entityIds.size());
+        if (changeSeqs.isEmpty()) {
+            return;
+        }
+        Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entityIds.size());
+        for (int i = 0; i < entityIds.size(); i++) {
+            rows.add(new Object[] {entityType, entityIds.get(i), changeSeqs.get(i), deletedAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TOMBSTONE_SQL, rows);
+        eventPublisher.publishEvent(new EntitiesChangedEvent(entityType, entityIds, changeSeqs, true, true));
+    }
+
+    /**
+     * Returns the lowest sequence number whose write may still be uncommitted; every change below
+     * it is committed or rolled back.
+     */
+    public synchronized long stableHorizon() {
+        if (!inFlight.isEmpty()) {
+            return inFlight.first();
+        }
+        if (lastAllocated == 0) {
+            allocate();
+        }
+        return lastAllocated + 1;
+    }
+
+    private long allocate() {
+        Long seq = jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class);
+        lastAllocated = seq != null ? seq : 0;
+        return lastAllocated;
+    }
+
+    private void track(List<Long> seqs) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.addAll(seqs);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(seqs);
+                }
+            });
+        }
+    }
+    
+    private synchronized void release(List<Long> seqs) {
+        seqs.forEach(inFlight::remove);
+    }
+}
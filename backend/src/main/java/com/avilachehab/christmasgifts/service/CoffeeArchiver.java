@@ -0,0 +1,127 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.model.RoastLevel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves finished bags from {@code coffees} into {@code coffee_archive} once they have been empty
+ * for the grace period, so listings, summaries and roaster totals only ever read bags in use.
+ * <p>
+ * For delta sync an archived bag is deleted: it gets a tombstone, while the inventory snapshot,
+ * which reads {@code coffee_history}, keeps counting it. History reads the archive here, or both
+ * tables through the {@code coffee_history} view. Each batch runs in its own transaction with the
+ * rows locked, so a bag re-weighed meanwhile is either archived before the write or left alone
+ * after it.
+ */
+@Slf4j
+@Service
+public class CoffeeArchiver {
+
+    public static final int MAX_LIMIT = 500;
+
+    private static final String COLUMNS = "id, coffee_name, roast_date, purchase_date, initial_weight, "
+            + "current_weight, origin, roast_level, processing_method, price, notes, roaster_id, change_seq, finished_at";
+    private static final String SELECT_FINISHED_SQL =
+            "SELECT id FROM coffees WHERE finished_at < ? ORDER BY finished_at, id LIMIT ? FOR UPDATE";
+    private static final String ARCHIVE_SQL = "INSERT INTO coffee_archive (" + COLUMNS + ", archived_at) SELECT "
+            + COLUMNS + ", CURRENT_TIMESTAMP FROM coffees WHERE id IN (%s)";
+    private static final String DELETE_SQL = "DELETE FROM coffees WHERE id IN (%s)";
+    private static final String LIST_SQL = "SELECT a.id, a.coffee_name, a.roast_date, a.purchase_date, "
+            + "a.initial_weight, a.current_weight, a.origin, a.roast_level, a.processing_method, a.price, a.notes, "
+            + "a.roaster_id, r.name FROM coffee_archive a JOIN roasters r ON r.id = a.roaster_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeTracker changeTracker;
+    private final ConsumptionWriteBuffer consumptionWriteBuffer;
+
+    @Value("${app.archive.grace-days:14}")
+    private int graceDays;
+
+    @Value("${app.archive.batch-size:1000}")
+    private int batchSize;
+
+    public CoffeeArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          ChangeTracker changeTracker, ConsumptionWriteBuffer consumptionWriteBuffer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeTracker = changeTracker;
+        this.consumptionWriteBuffer = consumptionWriteBuffer;
+    }
+
+    /**
+     * Archives every bag finished before the grace period, a batch per transaction, and returns how
+     * many were moved.
+     */
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}",
+            initialDelayString = "${app.archive.interval-ms:3600000}")
+    public int archiveFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(graceDays);
+        int total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += archived;
+        } while (archived == batchSize);
+        if (total > 0) {
+            log.info("Archived {} finished coffees", total);
+        }
+        return total;
+    }
+
+    /**
+     * Archived bags, most recently finished first, optionally for one roaster.
+     */
+    public List<CoffeeDto> getArchived(Long roasterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String sql = LIST_SQL + (roasterId != null ? " WHERE a.roaster_id = ?" : "")
+                + " ORDER BY a.finished_at DESC, a.id DESC LIMIT ?";
+        Object[] args = roasterId != null ? new Object[]{roasterId, pageSize} : new Object[]{pageSize};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            CoffeeDto dto = new CoffeeDto();
+            dto.setId(rs.getLong(1));
+            dto.setCoffeeName(rs.getString(2));
+            dto.setRoastDate(rs.getDate(3).toLocalDate());
+            dto.setPurchaseDate(rs.getDate(4).toLocalDate());
+            dto.setInitialWeight(rs.getBigDecimal(5));
+            dto.setCurrentWeight(rs.getBigDecimal(6));
+            dto.setOrigin(rs.getString(7));
+            dto.setRoastLevel(rs.getString(8) != null ? RoastLevel.valueOf(rs.getString(8)) : null);
+            dto.setProcessingMethod(rs.getString(9));
+            dto.setPrice(rs.getBigDecimal(10));
+            dto.setNotes(rs.getString(11));
+            dto.setRoasterId(rs.getLong(12));
+            dto.setRoasterName(rs.getString(13));
+            dto.setDaysSinceRoast(CoffeeService.daysSinceRoast(dto.getRoastDate()));
+            dto.setPercentageRemaining(CoffeeService.percentageRemaining(dto.getInitialWeight(), dto.getCurrentWeight()));
+            return dto;
+        }, args);
+    }
+
+    int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList(SELECT_FINISHED_SQL, Long.class,
+                Timestamp.valueOf(cutoff), batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+        jdbcTemplate.update(String.format(ARCHIVE_SQL, placeholders), ids.toArray());
+        jdbcTemplate.update(String.format(DELETE_SQL, placeholders), ids.toArray());
+        changeTracker.recordArchival(ChangeTracker.COFFEE, ids);
+        ids.forEach(consumptionWriteBuffer::discard);
+        return ids.size();
+    }
+}
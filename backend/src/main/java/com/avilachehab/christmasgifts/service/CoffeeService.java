@@ -1,9 +1,12 @@
 package com.avilachehab.christmasgifts.service;
 
 import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.model.Coffee;
+import com.avilachehab.christmasgifts.model.RoastLevel;
 import com.avilachehab.christmasgifts.model.Roaster;
 import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.ProjectionRepository;
 import com.avilachehab.christmasgifts.repository.RoasterRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -11,34 +14,95 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CoffeeService {
     
+    /**
+     * Entity attributes each {@link CoffeeDto} field is read from, used to narrow the select list
+     * for {@code ?fields=}. Notes are only read when requested.
+     */
+    private static final Map<String, List<String>> FIELD_COLUMNS = fieldColumns();
+    
+    public static final Set<String> FIELDS = FIELD_COLUMNS.keySet();
+    
     private final CoffeeRepository coffeeRepository;
     private final RoasterRepository roasterRepository;
+    private final ConsumptionService consumptionService;
+    private final ConsumptionWriteBuffer consumptionWriteBuffer;
+    private final ProjectionRepository projectionRepository;
+    private final ChangeTracker changeTracker;
+    private final RoasterScoreboard roasterScoreboard;
     
+    @Transactional(readOnly = true)
     public List<CoffeeDto> getAllCoffees() {
         return coffeeRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<CoffeeDto> getAllCoffees(FieldSelection selection) {
+        if (selection.isAll()) {
+            return getAllCoffees();
+        }
+        return findProjected(selection, null, null);
+    }
+    
+    @Transactional(readOnly = true)
     public CoffeeDto getCoffeeById(Long id) {
         Coffee coffee = coffeeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Coffee not found with id: " + id));
         return convertToDto(coffee);
     }
     
+    @Transactional(readOnly = true)
+    public CoffeeDto getCoffeeById(Long id, FieldSelection selection) {
+        if (selection.isAll()) {
+            return getCoffeeById(id);
+        }
+        return findProjected(selection, "id", id).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Coffee not found with id: " + id));
+    }
+    
+    @Transactional(readOnly = true)
     public List<CoffeeDto> getCoffeesByRoasterId(Long roasterId) {
         return coffeeRepository.findByRoasterId(roasterId).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<CoffeeDto> getCoffeesByRoasterId(Long roasterId, FieldSelection selection) {
+        if (selection.isAll()) {
+            return getCoffeesByRoasterId(roasterId);
+        }
+        return findProjected(selection, "roaster.id", roasterId);
+    }
+    
+    /**
+     * Loads the selected fields of every coffee, or of one roaster's coffees, in a single query
+     * and groups them by roaster.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<CoffeeDto>> getCoffeesGroupedByRoaster(FieldSelection selection, Long roasterId) {
+        Set<String> columns = columnsFor(selection);
+        columns.add("roaster.id");
+        return projectionRepository.findColumns(Coffee.class, columns, "roaster.id", roasterId).stream()
+                .collect(Collectors.groupingBy(row -> (Long) row.get("roaster.id"), LinkedHashMap::new,
+                        Collectors.mapping(row -> convertToDto(row, selection), Collectors.toList())));
+    }
+    
     @Transactional
     public CoffeeDto createCoffee(CoffeeDto coffeeDto) {
         Roaster roaster = roasterRepository.findById(coffeeDto.getRoasterId())
@@ -56,13 +120,18 @@ public class CoffeeService {
         coffee.setPrice(coffeeDto.getPrice());
         coffee.setNotes(coffeeDto.getNotes());
         coffee.setRoaster(roaster);
+        markFinished(coffee);
+        coffee.setChangeSeq(changeTracker.nextChangeSeq());
         
         Coffee saved = coffeeRepository.save(coffee);
+        changeTracker.recordChange(ChangeTracker.COFFEE, saved.getId(), saved.getChangeSeq());
+        roasterScoreboard.markDirty(roaster.getId());
         return convertToDto(saved);
     }
     
     @Transactional
     public CoffeeDto updateCoffee(Long id, CoffeeDto coffeeDto) {
+        consumptionWriteBuffer.flushCoffee(id);
         Coffee coffee = coffeeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Coffee not found with id: " + id));
         
@@ -77,18 +146,26 @@ public class CoffeeService {
         coffee.setPrice(coffeeDto.getPrice());
         coffee.setNotes(coffeeDto.getNotes());
         
+        roasterScoreboard.markDirty(coffee.getRoaster().getId());
         if (!coffee.getRoaster().getId().equals(coffeeDto.getRoasterId())) {
             Roaster roaster = roasterRepository.findById(coffeeDto.getRoasterId())
                     .orElseThrow(() -> new RuntimeException("Roaster not found with id: " + coffeeDto.getRoasterId()));
             coffee.setRoaster(roaster);
+            roasterScoreboard.markDirty(roaster.getId());
         }
+        markFinished(coffee);
+        coffee.setChangeSeq(changeTracker.nextChangeSeq());
         
         Coffee saved = coffeeRepository.save(coffee);
-        return convertToDto(saved);
+        changeTracker.recordChange(ChangeTracker.COFFEE, saved.getId(), saved.getChangeSeq());
+        CoffeeDto result = convertToDto(saved);
+        consumptionWriteBuffer.rebase(result);
+        return result;
     }
     
     @Transactional
     public CoffeeDto consumeCoffee(Long id, BigDecimal amount) {
+        consumptionWriteBuffer.flushCoffee(id);
         Coffee coffee = coffeeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Coffee not found with id: " + id));
         
@@ -97,20 +174,36 @@ public class CoffeeService {
             throw new RuntimeException("Cannot consume more coffee than available");
         }
         coffee.setCurrentWeight(newWeight);
+        markFinished(coffee);
+        coffee.setChangeSeq(changeTracker.nextChangeSeq());
         
         Coffee saved = coffeeRepository.save(coffee);
-        return convertToDto(saved);
+        changeTracker.recordChange(ChangeTracker.COFFEE, saved.getId(), saved.getChangeSeq());
+        roasterScoreboard.markDirty(coffee.getRoaster().getId());
+        consumptionService.recordConsumption(id, amount);
+        CoffeeDto result = convertToDto(saved);
+        consumptionWriteBuffer.rebase(result);
+        return result;
     }
     
     @Transactional
     public void deleteCoffee(Long id) {
-        if (!coffeeRepository.existsById(id)) {
-            throw new RuntimeException("Coffee not found with id: " + id);
-        }
+        Long roasterId = coffeeRepository.findRoasterIdById(id)
+                .orElseThrow(() -> new RuntimeException("Coffee not found with id: " + id));
         coffeeRepository.deleteById(id);
+        changeTracker.recordDeletion(ChangeTracker.COFFEE, id);
+        roasterScoreboard.markDirty(roasterId);
+        consumptionWriteBuffer.discard(id);
+    }
+    
+    CoffeeDto convertToDto(Coffee coffee) {
+        return toDto(coffee);
     }
     
-    private CoffeeDto convertToDto(Coffee coffee) {
+    /**
+     * For {@link ConsumptionWriteBuffer}, which acknowledges consumes without this service.
+     */
+    static CoffeeDto toDto(Coffee coffee) {
         CoffeeDto dto = new CoffeeDto();
         dto.setId(coffee.getId());
         dto.setCoffeeName(coffee.getCoffeeName());
@@ -125,27 +218,93 @@ public class CoffeeService {
         dto.setNotes(coffee.getNotes());
         dto.setRoasterId(coffee.getRoaster().getId());
         dto.setRoasterName(coffee.getRoaster().getName());
-        
-        // Calculate days since roast
-        if (coffee.getRoastDate() != null) {
-            dto.setDaysSinceRoast(
-                java.time.temporal.ChronoUnit.DAYS.between(
-                    coffee.getRoastDate(), 
-                    LocalDate.now()
-                )
-            );
+        dto.setDaysSinceRoast(daysSinceRoast(coffee.getRoastDate()));
+        dto.setPercentageRemaining(percentageRemaining(coffee.getInitialWeight(), coffee.getCurrentWeight()));
+        return dto;
+    }
+    
+    private List<CoffeeDto> findProjected(FieldSelection selection, String filterPath, Object filterValue) {
+        return projectionRepository.findColumns(Coffee.class, columnsFor(selection), filterPath, filterValue).stream()
+                .map(row -> convertToDto(row, selection))
+                .collect(Collectors.toList());
+    }
+    
+    private static Set<String> columnsFor(FieldSelection selection) {
+        Set<String> columns = new LinkedHashSet<>();
+        selection.fieldsOf(FIELDS).forEach(field -> columns.addAll(FIELD_COLUMNS.get(field)));
+        return columns;
+    }
+    
+    private CoffeeDto convertToDto(Map<String, Object> row, FieldSelection selection) {
+        CoffeeDto dto = new CoffeeDto();
+        dto.setId((Long) row.get("id"));
+        dto.setCoffeeName((String) row.get("coffeeName"));
+        dto.setRoastDate((LocalDate) row.get("roastDate"));
+        dto.setPurchaseDate((LocalDate) row.get("purchaseDate"));
+        dto.setInitialWeight((BigDecimal) row.get("initialWeight"));
+        dto.setCurrentWeight((BigDecimal) row.get("currentWeight"));
+        dto.setOrigin((String) row.get("origin"));
+        dto.setRoastLevel((RoastLevel) row.get("roastLevel"));
+        dto.setProcessingMethod((String) row.get("processingMethod"));
+        dto.setPrice((BigDecimal) row.get("price"));
+        dto.setNotes((String) row.get("notes"));
+        dto.setRoasterId((Long) row.get("roaster.id"));
+        dto.setRoasterName((String) row.get("roaster.name"));
+        if (selection.includes("daysSinceRoast")) {
+            dto.setDaysSinceRoast(daysSinceRoast(dto.getRoastDate()));
         }
-        
-        // Calculate percentage remaining
-        if (coffee.getInitialWeight() != null && coffee.getCurrentWeight() != null 
-            && coffee.getInitialWeight().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal percentage = coffee.getCurrentWeight()
-                .divide(coffee.getInitialWeight(), 4, java.math.RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
-            dto.setPercentageRemaining(percentage);
+        if (selection.includes("percentageRemaining")) {
+            dto.setPercentageRemaining(percentageRemaining(dto.getInitialWeight(), dto.getCurrentWeight()));
         }
-        
         return dto;
     }
+    
+    /**
+     * Stamps when the bag ran out, keeping the first time if it stays empty; {@link CoffeeArchiver}
+     * moves it out of the active set once the grace period has passed.
+     */
+    private static void markFinished(Coffee coffee) {
+        if (coffee.getCurrentWeight().signum() > 0) {
+            coffee.setFinishedAt(null);
+        } else if (coffee.getFinishedAt() == null) {
+            coffee.setFinishedAt(LocalDateTime.now());
+        }
+    }
+    
+    static Long daysSinceRoast(LocalDate roastDate) {
+        if (roastDate == null) {
+            return null;
+        }
+        return java.time.temporal.ChronoUnit.DAYS.between(roastDate, LocalDate.now());
+    }
+    
+    static BigDecimal percentageRemaining(BigDecimal initialWeight, BigDecimal currentWeight) {
+        if (initialWeight == null || currentWeight == null || initialWeight.compareTo(BigDecimal.ZERO) <= 0) {
+            return null;
+        }
+        return currentWeight
+            .divide(initialWeight, 4, java.math.RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100));
+    }
+    
+    private static Map<String, List<String>> fieldColumns() {
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        columns.put("id", List.of("id"));
+        columns.put("coffeeName", List.of("coffeeName"));
+        columns.put("roastDate", List.of("roastDate"));
+        columns.put("purchaseDate", List.of("purchaseDate"));
+        columns.put("initialWeight", List.of("initialWeight"));
+        columns.put("currentWeight", List.of("currentWeight"));
+        columns.put("origin", List.of("origin"));
+        columns.put("roastLevel", List.of("roastLevel"));
+        columns.put("processingMethod", List.of("processingMethod"));
+        columns.put("price", List.of("price"));
+        columns.put("notes", List.of("notes"));
+        columns.put("roasterId", List.of("roaster.id"));
+        columns.put("roasterName", List.of("roaster.name"));
+        columns.put("daysSinceRoast", List.of("roastDate"));
+        columns.put("percentageRemaining", List.of("initialWeight", "currentWeight"));
+        return Collections.unmodifiableMap(columns);
+    }
 }
 
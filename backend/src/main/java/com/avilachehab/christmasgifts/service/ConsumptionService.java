@@ -0,0 +1,126 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.ConsumptionForecastDto;
+import com.avilachehab.christmasgifts.model.Coffee;
+import com.avilachehab.christmasgifts.model.ConsumptionEvent;
+import com.avilachehab.christmasgifts.model.ConsumptionRollup;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.ConsumptionEventRepository;
+import com.avilachehab.christmasgifts.repository.ConsumptionRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConsumptionService {
+
+    private final ConsumptionEventRepository consumptionEventRepository;
+    private final ConsumptionRollupRepository consumptionRollupRepository;
+    private final CoffeeRepository coffeeRepository;
+
+    @Value("${app.consumption.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.consumption.forecast-window-days:14}")
+    private int forecastWindowDays;
+
+    @Transactional
+    public void recordConsumption(Long coffeeId, BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        consumptionEventRepository.save(new ConsumptionEvent(null, coffeeId, amount, now.toLocalDate(), now));
+    }
+
+    @Transactional
+    public void recordConsumptions(Map<Long, BigDecimal> amountsByCoffeeId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ConsumptionEvent> events = amountsByCoffeeId.entrySet().stream()
+                .map(entry -> new ConsumptionEvent(null, entry.getKey(), entry.getValue(), now.toLocalDate(), now))
+                .collect(Collectors.toList());
+        consumptionEventRepository.saveAll(events);
+    }
+
+    /**
+     * Forecasts when a coffee runs out from the daily rollups only; raw events are never scanned.
+     * Consumption since the last rollup run is not yet reflected.
+     */
+    @Transactional(readOnly = true)
+    public ConsumptionForecastDto getForecast(Long coffeeId) {
+        Coffee coffee = coffeeRepository.findById(coffeeId)
+                .orElseThrow(() -> new RuntimeException("Coffee not found with id: " + coffeeId));
+
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = today.minusDays(forecastWindowDays - 1L);
+        if (coffee.getPurchaseDate() != null && coffee.getPurchaseDate().isAfter(windowStart)) {
+            windowStart = coffee.getPurchaseDate().isAfter(today) ? today : coffee.getPurchaseDate();
+        }
+        int windowDays = (int) ChronoUnit.DAYS.between(windowStart, today) + 1;
+
+        BigDecimal consumed = consumptionRollupRepository.sumConsumedSince(coffeeId, windowStart);
+        BigDecimal rate = consumed.divide(BigDecimal.valueOf(windowDays), 2, RoundingMode.HALF_UP);
+
+        ConsumptionForecastDto forecast = new ConsumptionForecastDto();
+        forecast.setCoffeeId(coffeeId);
+        forecast.setCurrentWeight(coffee.getCurrentWeight());
+        forecast.setDailyConsumptionRate(rate);
+        forecast.setWindowDays(windowDays);
+
+        if (rate.compareTo(BigDecimal.ZERO) > 0) {
+            long daysRemaining = coffee.getCurrentWeight()
+                    .divide(rate, 0, RoundingMode.CEILING)
+                    .longValue();
+            forecast.setDaysRemaining(daysRemaining);
+            forecast.setProjectedEmptyDate(today.plusDays(daysRemaining));
+        }
+
+        return forecast;
+    }
+
+    /**
+     * Rebuilds the rollups for every day that may still change, then drops raw events that
+     * fell out of the retention window. Days before the latest rollup are final and are not
+     * recomputed.
+     */
+    @Scheduled(fixedDelayString = "${app.consumption.rollup-interval-ms:900000}",
+            initialDelayString = "${app.consumption.rollup-interval-ms:900000}")
+    @Transactional
+    public void rollupAndCompact() {
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        LocalDate latest = consumptionRollupRepository.findLatestDay();
+        LocalDate from;
+        if (latest == null) {
+            from = consumptionEventRepository.findEarliestDay();
+        } else {
+            // The latest day's raw events may already be compacted; its rollup is final then
+            from = latest.isBefore(cutoff) ? latest.plusDays(1) : latest;
+        }
+
+        if (from != null) {
+            consumptionRollupRepository.deleteFromDay(from);
+            List<ConsumptionRollup> rollups = consumptionEventRepository.aggregateDailyFrom(from).stream()
+                    .map(total -> new ConsumptionRollup(null, total.getCoffeeId(), total.getDay(),
+                            total.getTotalAmount(), total.getEventCount().intValue()))
+                    .collect(Collectors.toList());
+            consumptionRollupRepository.saveAll(rollups);
+            log.debug("Rolled up {} coffee-days of consumption from {}", rollups.size(), from);
+        }
+
+        int compacted = consumptionEventRepository.deleteOlderThan(cutoff);
+        if (compacted > 0) {
+            log.info("Compacted {} consumption events older than {}", compacted, cutoff);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.model.Coffee;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind path for {@code POST /api/coffees/{id}/consume}.
+ * <p>
+ * Consumes are reserved with a compare-and-set on a per-coffee in-memory accumulator and
+ * acknowledged with the coffee as last read or written, at its provisional remaining weight. No
+ * consume waits on the database or on another coffee; the one shared lock is the read side of the
+ * shutdown guard, which only {@link #stop()} ever holds exclusively. A single background thread drains the
+ * accumulators and applies the coalesced amounts as one JDBC batch, either every
+ * {@code app.consumption.flush-interval-ms} or as soon as {@code app.consumption.flush-threshold}
+ * consumes are pending. With {@code app.consumption.write-mode=sync} (the default) the buffer is
+ * disabled and every consume is written synchronously by {@link CoffeeService}.
+ * <p>
+ * Drained amounts go back to their accumulator if the write fails or its transaction rolls back,
+ * so an acknowledged consume is retried by the next flush rather than lost. The buffer depends on
+ * {@link DurableStore} so it is destroyed first: the final flush on shutdown still reaches the
+ * write-ahead log.
+ */
+@Slf4j
+@Service
+@DependsOn("durableStore")
+@RequiredArgsConstructor
+public class ConsumptionWriteBuffer {
+
+    private static final String WRITE_BEHIND = "write-behind";
+
+    private static final String DECREMENT_SQL =
+            "UPDATE coffees SET current_weight = current_weight - ?, change_seq = ?, "
+            + "finished_at = CASE WHEN current_weight = ? THEN CURRENT_TIMESTAMP END WHERE id = ? AND current_weight >= ?";
+
+    private final CoffeeRepository coffeeRepository;
+    private final ConsumptionService consumptionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeTracker changeTracker;
+    private final RoasterScoreboard roasterScoreboard;
+
+    @Value("${app.consumption.write-mode:sync}")
+    private String writeMode;
+
+    @Value("${app.consumption.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${app.consumption.flush-threshold:200}")
+    private int flushThreshold;
+
+    private final Map<Long, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingConsumes = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Read-held while accepting, so the final flush on shutdown sees every acknowledged consume
+    private final ReentrantReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean stopping;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "consumption-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Consumption write-behind enabled (interval {} ms, threshold {})", flushIntervalMs, flushThreshold);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        acceptLock.writeLock().lock();
+        try {
+            stopping = true;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return WRITE_BEHIND.equalsIgnoreCase(writeMode);
+    }
+
+    /**
+     * Reserves {@code amount} grams against the coffee and returns it at its provisional weight.
+     */
+    public CoffeeDto accept(Long id, BigDecimal amount) {
+        Reservation reservation = reserve(id, amount, false);
+        if (reservation == null) {
+            throw new RuntimeException("Cannot consume more coffee than available");
+        }
+        return provisional(accumulators.get(id).coffee, reservation.remaining());
+    }
+
+    /**
+     * Reserves as much of {@code amount} as the coffee still holds and returns the grams reserved,
+     * zero once it is empty. For readings that can overshoot the recorded weight, like the scale's.
+     */
+    public BigDecimal acceptAvailable(Long id, BigDecimal amount) {
+        return fromCentigrams(reserve(id, amount, true).amount());
+    }
+
+    private Reservation reserve(Long id, BigDecimal amount, boolean partial) {
+        long centigrams = toCentigrams(amount);
+        if (centigrams <= 0) {
+            throw new RuntimeException("Consumption amount must be positive");
+        }
+
+        acceptLock.readLock().lock();
+        try {
+            if (stopping) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Shutting down; consumption is no longer being accepted");
+            }
+            Accumulator accumulator = accumulators.computeIfAbsent(id, this::load);
+            Reservation reservation = accumulator.reserve(centigrams, partial);
+            if (reservation == null || reservation.amount() == 0) {
+                return reservation;
+            }
+            accumulator.pending.addAndGet(reservation.amount());
+
+            if (pendingConsumes.incrementAndGet() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+                flusher.execute(this::flushQuietly);
+            }
+            return reservation;
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all pending consumption in one transaction and returns the number of coffees updated.
+     */
+    public synchronized int flush() {
+        flushRequested.set(false);
+        pendingConsumes.set(0);
+
+        Drain drain = new Drain();
+        accumulators.forEach(drain::take);
+        if (drain.amounts.isEmpty()) {
+            return 0;
+        }
+        return writeOrRestore(drain);
+    }
+
+    /**
+     * Flushes a single coffee inside the caller's transaction so a following absolute write sees
+     * every consume acknowledged before it.
+     */
+    public void flushCoffee(Long id) {
+        Accumulator accumulator = accumulators.get(id);
+        if (accumulator == null) {
+            return;
+        }
+        Drain drain = new Drain();
+        drain.take(id, accumulator);
+        if (!drain.amounts.isEmpty()) {
+            writeOrRestore(drain);
+        }
+    }
+
+    /**
+     * Re-bases the provisional state after the coffee was written directly; inside a transaction,
+     * once it commits.
+     */
+    public void rebase(CoffeeDto coffee) {
+        if (coffee.getCurrentWeight() == null) {
+            return;
+        }
+        Runnable apply = () -> {
+            Accumulator accumulator = accumulators.get(coffee.getId());
+            if (accumulator != null) {
+                accumulator.coffee = coffee;
+                accumulator.remaining.set(toCentigrams(coffee.getCurrentWeight()) - accumulator.pending.get());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public void discard(Long id) {
+        accumulators.remove(id);
+    }
+
+    /**
+     * Drops the pending consumption of every coffee of a deleted roaster.
+     */
+    public void discardRoaster(Long roasterId) {
+        accumulators.values().removeIf(accumulator -> roasterId.equals(accumulator.coffee.getRoasterId()));
+    }
+
+    /**
+     * Writes the drained amounts, putting them back if the write throws or the transaction it
+     * joined rolls back.
+     */
+    private int writeOrRestore(Drain drain) {
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                int count = write(drain.amounts);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int completion) {
+                            if (completion != STATUS_COMMITTED) {
+                                drain.restore();
+                            }
+                        }
+                    });
+                }
+                return count;
+            });
+            return written != null ? written : 0;
+        } catch (RuntimeException e) {
+            drain.restore();
+            throw e;
+        }
+    }
+
+    private int write(Map<Long, Long> drained) {
+        List<Long> ids = new ArrayList<>(drained.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BigDecimal amount = fromCentigrams(drained.get(id));
+            batchArgs.add(new Object[]{amount, changeTracker.nextChangeSeq(), amount, id, amount});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, batchArgs);
+
+        Map<Long, BigDecimal> applied = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (updated[i] == 0) {
+                // Deleted or re-weighed below the buffered amount; resync from the database next time
+                log.warn("Dropping {} g of buffered consumption for coffee {}", fromCentigrams(drained.get(id)), id);
+                accumulators.remove(id);
+            } else {
+                applied.put(id, fromCentigrams(drained.get(id)));
+                changeTracker.recordChange(ChangeTracker.COFFEE, id, (Long) batchArgs.get(i)[1]);
+            }
+        }
+        roasterScoreboard.markCoffeesDirty(applied.keySet());
+        consumptionService.recordConsumptions(applied);
+        return applied.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush buffered consumption", e);
+        }
+    }
+
+    private Accumulator load(Long id) {
+        Coffee coffee = coffeeRepository.findWithRoasterById(id)
+                .orElseThrow(() -> new RuntimeException("Coffee not found with id: " + id));
+        return new Accumulator(CoffeeService.toDto(coffee));
+    }
+
+    private static CoffeeDto provisional(CoffeeDto coffee, long remaining) {
+        BigDecimal weight = fromCentigrams(remaining);
+        return new CoffeeDto(coffee.getId(), coffee.getCoffeeName(), coffee.getRoastDate(), coffee.getPurchaseDate(),
+                coffee.getInitialWeight(), weight, coffee.getOrigin(), coffee.getRoastLevel(),
+                coffee.getProcessingMethod(), coffee.getPrice(), coffee.getNotes(), coffee.getRoasterId(),
+                coffee.getRoasterName(), CoffeeService.daysSinceRoast(coffee.getRoastDate()),
+                CoffeeService.percentageRemaining(coffee.getInitialWeight(), weight));
+    }
+
+    private static long toCentigrams(BigDecimal grams) {
+        return grams.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCentigrams(long centigrams) {
+        return BigDecimal.valueOf(centigrams, 2);
+    }
+
+    /**
+     * Amounts taken out of the accumulators for one write, and where to return them.
+     */
+    private static final class Drain {
+        private final Map<Long, Long> amounts = new LinkedHashMap<>();
+        private final Map<Long, Accumulator> sources = new LinkedHashMap<>();
+        private final AtomicBoolean restored = new AtomicBoolean();
+
+        void take(Long id, Accumulator accumulator) {
+            long amount = accumulator.pending.getAndSet(0);
+            if (amount > 0) {
+                amounts.put(id, amount);
+                sources.put(id, accumulator);
+            }
+        }
+
+        void restore() {
+            if (restored.compareAndSet(false, true)) {
+                sources.forEach((id, accumulator) -> accumulator.pending.addAndGet(amounts.get(id)));
+            }
+        }
+    }
+
+    record Reservation(long amount, long remaining) {
+    }
+
+    static final class Accumulator {
+        private final AtomicLong remaining; // provisional weight, in centigrams
+        private final AtomicLong pending = new AtomicLong(); // not yet flushed, in centigrams
+        private volatile CoffeeDto coffee; // as last loaded or rebased, for the acknowledgement
+
+        Accumulator(CoffeeDto coffee) {
+            this.coffee = coffee;
+            this.remaining = new AtomicLong(toCentigrams(coffee.getCurrentWeight()));
+        }
+
+        /**
+         * Takes {@code amount} off the provisional weight, or as much as is left when
+         * {@code partial}; null when it does not fit and partial is not allowed.
+         */
+        Reservation reserve(long amount, boolean partial) {
+            while (true) {
+                long current = remaining.get();
+                long taken = partial ? Math.min(amount, Math.max(current, 0)) : amount;
+                long next = current - taken;
+                if (next < 0) {
+                    return null;
+                }
+                if (remaining.compareAndSet(current, next)) {
+                    return new Reservation(taken, next);
+                }
+            }
+        }
+    }
+}
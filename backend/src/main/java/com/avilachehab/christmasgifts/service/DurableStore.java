@@ -0,0 +1,811 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.DurabilityStatsDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Optional durability for the in-memory database: a compressed snapshot plus a write-ahead log of
+ * every committed row change since it.
+ * <p>
+ * {@link WalTrigger} captures row images on each logged table. Inside a Spring transaction they
+ * are buffered and appended as one record once it commits; rolled-back work never reaches the log.
+ * A checkpoint briefly blocks commits, starts a new log segment and scripts the database to
+ * {@code snapshot-<segment>.sql.deflate}, after which older snapshots and segments are deleted.
+ * On startup, before Flyway runs, {@link #recover()} restores the latest snapshot, replays the
+ * segments from its number on in capture order and moves identities and sequences past the
+ * replayed keys. Derived tables are not logged; their services rebuild them on startup.
+ */
+@Slf4j
+@Service
+public class DurableStore {
+
+    public enum FsyncPolicy { COMMIT, INTERVAL, NONE }
+
+    static final byte INSERT = 0;
+    static final byte UPDATE = 1;
+    static final byte DELETE = 2;
+
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.sql\\.deflate");
+    private static final String TRIGGER_SQL = "CREATE TRIGGER IF NOT EXISTS \"WAL_%1$s\" AFTER INSERT, UPDATE, DELETE "
+            + "ON \"%1$s\" FOR EACH ROW CALL '" + WalTrigger.class.getName() + "'";
+    // Columns each sequence's values are stored in; "*" matches every table
+    private static final Map<String, List<String>> SEQUENCE_COLUMNS = Map.of(
+            "CHANGE_SEQ", List.of("*.CHANGE_SEQ"),
+            "CONSUMPTION_EVENT_SEQ", List.of("CONSUMPTION_EVENTS.ID"));
+
+    // Logging stores by database name, so each trigger reaches the store of its own database
+    private static final Map<String, DurableStore> CAPTURING = new ConcurrentHashMap<>();
+
+    private final DataSource dataSource;
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final AtomicLong ordinals = new AtomicLong();
+    private final AtomicLong walBytesSinceCheckpoint = new AtomicLong();
+    private final LongAdder appendedTransactions = new LongAdder();
+    private final LongAdder appendedChanges = new LongAdder();
+    private final LongAdder appendFailures = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder fsyncNanos = new LongAdder();
+
+    @Value("${app.durability.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.durability.dir:./data}")
+    private Path dir;
+
+    @Value("${app.durability.fsync:interval}")
+    private String fsync;
+
+    @Value("${app.durability.segment-size:16777216}")
+    private int segmentSize;
+
+    @Value("${app.durability.checkpoint-interval-ms:600000}")
+    private long checkpointIntervalMs;
+
+    @Value("${app.durability.checkpoint-bytes:33554432}")
+    private long checkpointBytes;
+
+    @Value("${app.durability.checkpoint-lock-timeout-ms:2000}")
+    private long checkpointLockTimeoutMs;
+
+    @Value("${app.durability.excluded-tables:flyway_schema_history,roaster_scores,season_totals}")
+    private Set<String> excludedTables;
+
+    private volatile Map<String, TableInfo> tables = Map.of();
+    private volatile String database;
+    private volatile WriteAheadLog wal;
+    private FsyncPolicy fsyncPolicy;
+
+    private volatile long lastCheckpointAt;
+    private volatile long checkpoints;
+    private volatile long lastCheckpointMillis;
+    private volatile long lastCheckpointPauseMillis;
+    private volatile long snapshotBytes;
+    private volatile long restoreMillis;
+    private volatile long replayMillis;
+    private volatile long replayedChanges;
+
+    public DurableStore(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Called by {@link WalTrigger} for every row change on a logged table of {@code database}.
+     */
+    static void captured(String database, String table, Object[] oldRow, Object[] newRow) {
+        DurableStore store = CAPTURING.get(database);
+        if (store != null) {
+            store.capture(table, oldRow, newRow);
+        }
+    }
+
+    /**
+     * Loads the latest snapshot and replays the log after it into the empty database. Runs before
+     * migrations, so both see the schema they were written with.
+     */
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        fsyncPolicy = FsyncPolicy.valueOf(fsync.toUpperCase(Locale.ROOT));
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(dir);
+            long snapshot = latestSnapshot();
+            if (snapshot == 0) {
+                if (!WriteAheadLog.segments(dir).isEmpty()) {
+                    log.warn("Ignoring write-ahead log in {} without a snapshot to replay it onto", dir);
+                }
+                log.info("No snapshot in {}, starting with an empty database", dir);
+                return;
+            }
+            try (Connection con = dataSource.getConnection(); Statement statement = con.createStatement()) {
+                statement.execute("RUNSCRIPT FROM '" + quote(snapshotPath(snapshot)) + "' COMPRESSION DEFLATE");
+                recompileViews(statement);
+                restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+                long replayStarted = System.nanoTime();
+                List<byte[]> records = WriteAheadLog.read(dir, snapshot);
+                List<Change> changes = new ArrayList<>();
+                long bytes = 0;
+                for (byte[] record : records) {
+                    changes.addAll(decode(record));
+                    bytes += record.length;
+                }
+                changes.sort(Comparator.comparingLong(Change::ordinal));
+                replay(con, changes);
+                replayMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - replayStarted);
+                replayedChanges = changes.size();
+                log.info("Restored snapshot {} in {} ms and replayed {} changes ({} transactions, {} bytes) in {} ms",
+                        snapshot, restoreMillis, changes.size(), records.size(), bytes, replayMillis);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not recover the database from " + dir, e);
+        }
+    }
+
+    /**
+     * Installs the capture triggers on the migrated schema, takes a checkpoint and starts logging.
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try (Connection con = dataSource.getConnection(); Statement statement = con.createStatement()) {
+            database = con.getCatalog();
+            tables = loadTables(con);
+            for (String table : tables.keySet()) {
+                statement.execute(String.format(TRIGGER_SQL, table));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not install write-ahead log triggers", e);
+        }
+        long first = Math.max(latestSnapshot(), WriteAheadLog.segments(dir).stream().mapToLong(Long::longValue)
+                .max().orElse(0)) + 1;
+        wal = new WriteAheadLog(dir, segmentSize, first);
+        // Capture ordinals restart with the process, so older segments must not outlive this run's first snapshot
+        try (Connection con = dataSource.getConnection()) {
+            if (!snapshot(con, first, System.nanoTime())) {
+                throw new IllegalStateException("Could not write the initial snapshot to " + dir);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not write the initial snapshot to " + dir, e);
+        }
+        if (CAPTURING.putIfAbsent(database, this) != null) {
+            throw new IllegalStateException("Database " + database + " is already logged by another store");
+        }
+        log.info("Logging {} tables to {} (fsync: {})", tables.size(), dir, fsyncPolicy);
+    }
+
+    /**
+     * Forces the log for the interval fsync policy and checkpoints once the log has grown past
+     * the configured size or age, which bounds recovery time.
+     */
+    @Scheduled(fixedDelayString = "${app.durability.fsync-interval-ms:200}")
+    public synchronized void maintain() {
+        if (!isLogging()) {
+            return;
+        }
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            force();
+        }
+        if (walBytesSinceCheckpoint.get() >= checkpointBytes
+                || System.currentTimeMillis() - lastCheckpointAt >= checkpointIntervalMs) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Snapshots the database and truncates the log; skipped if commits do not drain within the
+     * lock timeout.
+     * <p>
+     * The snapshot's connection is taken from the pool before commits are blocked: a transaction
+     * waiting for the lock holds its pooled connection, so with a small pool the checkpoint could
+     * otherwise wait for a connection only those transactions can release.
+     */
+    public synchronized boolean checkpoint() {
+        if (!isLogging()) {
+            return false;
+        }
+        long started = System.nanoTime();
+        try (Connection con = dataSource.getConnection()) {
+            try {
+                if (!checkpointLock.writeLock().tryLock(checkpointLockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    log.warn("Skipped checkpoint: transactions did not finish within {} ms", checkpointLockTimeoutMs);
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            try {
+                long segment = wal.rotate();
+                walBytesSinceCheckpoint.set(0);
+                return snapshot(con, segment, started);
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+        } catch (SQLException e) {
+            log.error("Skipped checkpoint: no connection for the snapshot", e);
+            return false;
+        }
+    }
+
+    /**
+     * Checkpoint on request, returning the updated statistics.
+     */
+    public DurabilityStatsDto checkpointNow() {
+        if (!isLogging()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Durability is not enabled");
+        }
+        if (!checkpoint()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Checkpoint timed out waiting for transactions");
+        }
+        return getStats();
+    }
+
+    public DurabilityStatsDto getStats() {
+        WriteAheadLog current = wal;
+        long fsyncCount = fsyncs.sum();
+        return new DurabilityStatsDto(enabled, fsyncPolicy != null ? fsyncPolicy.name() : null,
+                current != null ? current.currentSegment() : 0, walBytesSinceCheckpoint.get(),
+                appendedTransactions.sum(), appendedChanges.sum(), appendFailures.sum(), fsyncCount,
+                fsyncCount > 0 ? fsyncNanos.sum() / 1000.0 / fsyncCount : 0, checkpoints, lastCheckpointMillis,
+                lastCheckpointPauseMillis, snapshotBytes, restoreMillis + replayMillis, restoreMillis, replayMillis,
+                replayedChanges);
+    }
+
+    @PreDestroy
+    synchronized void stop() throws InterruptedException {
+        if (!isLogging()) {
+            return;
+        }
+        CAPTURING.remove(database, this);
+        if (checkpointLock.writeLock().tryLock(checkpointLockTimeoutMs, TimeUnit.MILLISECONDS)) {
+            try {
+                wal.close();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private boolean isLogging() {
+        String name = database;
+        return wal != null && name != null && CAPTURING.get(name) == this;
+    }
+
+    private void capture(String table, Object[] oldRow, Object[] newRow) {
+        TableInfo info = tables.get(table);
+        if (info == null) {
+            return;
+        }
+        byte op = oldRow == null ? INSERT : newRow == null ? DELETE : UPDATE;
+        Change change = new Change(ordinals.incrementAndGet(), table, op,
+                oldRow != null ? info.key(oldRow) : null, newRow != null ? newRow.clone() : null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Autocommit write: each statement is its own transaction
+            checkpointLock.readLock().lock();
+            try {
+                append(List.of(change));
+            } finally {
+                checkpointLock.readLock().unlock();
+            }
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            checkpointLock.readLock().lock();
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    private void append(List<Change> changes) {
+        try {
+            byte[] record = encode(changes);
+            walBytesSinceCheckpoint.addAndGet(wal.append(record));
+            if (fsyncPolicy == FsyncPolicy.COMMIT) {
+                force();
+            }
+            appendedTransactions.increment();
+            appendedChanges.add(changes.size());
+        } catch (RuntimeException e) {
+            // The transaction has committed; all that is left is to make the gap visible
+            appendFailures.increment();
+            log.error("Could not append {} committed changes to the write-ahead log", changes.size(), e);
+        }
+    }
+
+    private void force() {
+        long started = System.nanoTime();
+        wal.force();
+        fsyncs.increment();
+        fsyncNanos.add(System.nanoTime() - started);
+    }
+
+    private boolean snapshot(Connection con, long segment, long started) {
+        Path target = snapshotPath(segment);
+        Path temp = dir.resolve("snapshot.tmp");
+        try (Statement statement = con.createStatement()) {
+            Files.deleteIfExists(temp);
+            statement.execute("SCRIPT TO '" + quote(temp) + "' COMPRESSION DEFLATE");
+            lastCheckpointPauseMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | SQLException e) {
+            log.error("Checkpoint to {} failed; the previous snapshot and log remain", target, e);
+            return false;
+        }
+        try {
+            for (long older : snapshots()) {
+                if (older < segment) {
+                    Files.deleteIfExists(snapshotPath(older));
+                }
+            }
+            for (long older : WriteAheadLog.segments(dir)) {
+                if (older < segment) {
+                    Files.deleteIfExists(WriteAheadLog.segmentPath(dir, older));
+                }
+            }
+            snapshotBytes = Files.size(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checkpoints++;
+        lastCheckpointAt = System.currentTimeMillis();
+        lastCheckpointMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.debug("Checkpoint {} written in {} ms ({} bytes, commits paused {} ms)", segment, lastCheckpointMillis,
+                snapshotBytes, lastCheckpointPauseMillis);
+        return true;
+    }
+
+    private void replay(Connection con, List<Change> changes) throws SQLException {
+        Map<String, TableInfo> schema = loadTables(con);
+        Map<String, PreparedStatement> statements = new HashMap<>();
+        Map<String, Long> maxima = new HashMap<>(); // TABLE.COLUMN -> largest replayed number
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            for (Change change : changes) {
+                TableInfo info = schema.get(change.table());
+                if (info == null) {
+                    throw new IllegalStateException("Logged table " + change.table() + " is missing from the snapshot");
+                }
+                if (change.op() == DELETE
+                        || change.op() == UPDATE && !Arrays.equals(change.key(), info.key(change.row()))) {
+                    bind(statements.computeIfAbsent("D" + info.name(), name -> prepare(con, info.deleteSql())),
+                            change.key()).executeUpdate();
+                }
+                if (change.op() != DELETE) {
+                    if (change.row().length != info.columns().size()) {
+                        throw new IllegalStateException("Logged row for " + info.name() + " has "
+                                + change.row().length + " columns, the table has " + info.columns().size());
+                    }
+                    bind(statements.computeIfAbsent("M" + info.name(), name -> prepare(con, info.mergeSql())),
+                            change.row()).executeUpdate();
+                    for (int i = 0; i < change.row().length; i++) {
+                        if (change.row()[i] instanceof Number number && !(number instanceof BigDecimal)) {
+                            maxima.merge(info.name() + "." + info.columns().get(i), number.longValue(), Math::max);
+                        }
+                    }
+                }
+            }
+            restartPastReplayed(con, schema, maxima);
+            con.commit();
+        } catch (SQLException | RuntimeException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * The snapshot restores identities and sequences as they were when it was taken; keys created
+     * after it must not be handed out again.
+     */
+    private static void restartPastReplayed(Connection con, Map<String, TableInfo> schema, Map<String, Long> maxima)
+            throws SQLException {
+        if (maxima.isEmpty()) {
+            return;
+        }
+        try (Statement statement = con.createStatement()) {
+            for (TableInfo info : schema.values()) {
+                Long max = info.identity() != null ? maxima.get(info.name() + "." + info.identity()) : null;
+                if (max != null && max >= info.identityNext()) {
+                    statement.execute(String.format("ALTER TABLE \"%s\" ALTER COLUMN \"%s\" RESTART WITH %d",
+                            info.name(), info.identity(), max + 1));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT SEQUENCE_NAME, BASE_VALUE, INCREMENT "
+                    + "FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC'")) {
+                List<String> alters = new ArrayList<>();
+                while (rs.next()) {
+                    long max = Long.MIN_VALUE;
+                    for (String column : SEQUENCE_COLUMNS.getOrDefault(rs.getString(1), List.of())) {
+                        String suffix = column.substring(column.indexOf('.'));
+                        for (Map.Entry<String, Long> entry : maxima.entrySet()) {
+                            if (column.startsWith("*") ? entry.getKey().endsWith(suffix) : entry.getKey().equals(column)) {
+                                max = Math.max(max, entry.getValue());
+                            }
+                        }
+                    }
+                    // Pooled generators hand out the block below each value, so stay a full increment ahead
+                    if (max != Long.MIN_VALUE && max + rs.getLong(3) > rs.getLong(2)) {
+                        alters.add(String.format("ALTER SEQUENCE \"%s\" RESTART WITH %d", rs.getString(1),
+                                max + rs.getLong(3)));
+                    }
+                }
+                for (String alter : alters) {
+                    statement.execute(alter);
+                }
+            }
+        }
+    }
+
+    /**
+     * The script may create a view before the tables it selects from, leaving it unusable until
+     * recompiled.
+     */
+    private static void recompileViews(Statement statement) throws SQLException {
+        List<String> views = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.VIEWS WHERE TABLE_SCHEMA = 'PUBLIC'")) {
+            while (rs.next()) {
+                views.add(rs.getString(1));
+            }
+        }
+        for (String view : views) {
+            statement.execute("ALTER VIEW \"" + view + "\" RECOMPILE");
+        }
+    }
+
+    private Map<String, TableInfo> loadTables(Connection con) throws SQLException {
+        Set<String> excluded = excludedTables.stream().map(name -> name.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        Map<String, TableInfo> result = new LinkedHashMap<>();
+        DatabaseMetaData metaData = con.getMetaData();
+        List<String> names = new ArrayList<>();
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                     + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME")) {
+            while (rs.next()) {
+                if (!excluded.contains(rs.getString(1).toUpperCase(Locale.ROOT))) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        try (PreparedStatement columnQuery = con.prepareStatement("SELECT COLUMN_NAME, IS_IDENTITY, IDENTITY_BASE "
+                + "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? "
+                + "ORDER BY ORDINAL_POSITION")) {
+            for (String name : names) {
+                List<String> columns = new ArrayList<>();
+                String identity = null;
+                long identityNext = 0;
+                columnQuery.setString(1, name);
+                try (ResultSet rs = columnQuery.executeQuery()) {
+                    while (rs.next()) {
+                        columns.add(rs.getString(1));
+                        if ("YES".equals(rs.getString(2))) {
+                            identity = rs.getString(1);
+                            identityNext = rs.getLong(3);
+                        }
+                    }
+                }
+                String[] keyColumns = new String[columns.size()];
+                int keyCount = 0;
+                try (ResultSet rs = metaData.getPrimaryKeys(null, "PUBLIC", name)) {
+                    while (rs.next()) {
+                        keyColumns[rs.getInt("KEY_SEQ") - 1] = rs.getString("COLUMN_NAME");
+                        keyCount++;
+                    }
+                }
+                // Without a primary key the whole row identifies it
+                int[] keys = keyCount == 0
+                        ? columns.stream().mapToInt(columns::indexOf).toArray()
+                        : Arrays.stream(keyColumns, 0, keyCount).mapToInt(columns::indexOf).toArray();
+                result.put(name, new TableInfo(name, columns, keys, identity, identityNext));
+            }
+        }
+        return result;
+    }
+
+    private long latestSnapshot() {
+        List<Long> snapshots = snapshots();
+        return snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+    }
+
+    private List<Long> snapshots() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> SNAPSHOT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path snapshotPath(long segment) {
+        return dir.resolve(String.format("snapshot-%08d.sql.deflate", segment));
+    }
+
+    private static String quote(Path path) {
+        return path.toAbsolutePath().toString().replace("'", "''");
+    }
+
+    private static PreparedStatement prepare(Connection con, String sql) {
+        try {
+            return con.prepareStatement(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not prepare " + sql, e);
+        }
+    }
+
+    private static PreparedStatement bind(PreparedStatement statement, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+        return statement;
+    }
+
+    static byte[] encode(List<Change> changes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * changes.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(changes.size());
+            for (Change change : changes) {
+                out.writeLong(change.ordinal());
+                out.writeUTF(change.table());
+                out.writeByte(change.op());
+                if (change.op() != INSERT) {
+                    writeValues(out, change.key());
+                }
+                if (change.op() != DELETE) {
+                    writeValues(out, change.row());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Change> decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            int count = in.readInt();
+            List<Change> changes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long ordinal = in.readLong();
+                String table = in.readUTF();
+                byte op = in.readByte();
+                Object[] key = op != INSERT ? readValues(in) : null;
+                Object[] row = op != DELETE ? readValues(in) : null;
+                changes.add(new Change(ordinal, table, op, key, row));
+            }
+            return changes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeValues(DataOutputStream out, Object[] values) throws IOException {
+        out.writeShort(values.length);
+        for (Object value : values) {
+            writeValue(out, value);
+        }
+    }
+
+    private static Object[] readValues(DataInputStream in) throws IOException {
+        Object[] values = new Object[in.readShort()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readValue(in);
+        }
+        return values;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+        } else if (value instanceof Long v) {
+            out.writeByte(1);
+            out.writeLong(v);
+        } else if (value instanceof Integer v) {
+            out.writeByte(2);
+            out.writeInt(v);
+        } else if (value instanceof Short v) {
+            out.writeByte(3);
+            out.writeShort(v);
+        } else if (value instanceof Boolean v) {
+            out.writeByte(4);
+            out.writeBoolean(v);
+        } else if (value instanceof Double v) {
+            out.writeByte(5);
+            out.writeDouble(v);
+        } else if (value instanceof String v) {
+            byte[] utf8 = v.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(6);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        } else if (value instanceof BigDecimal v) {
+            byte[] unscaled = v.unscaledValue().toByteArray();
+            out.writeByte(7);
+            out.writeInt(v.scale());
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        } else if (value instanceof java.sql.Date || value instanceof LocalDate) {
+            LocalDate date = value instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) value;
+            out.writeByte(8);
+            out.writeLong(date.toEpochDay());
+        } else if (value instanceof Timestamp || value instanceof LocalDateTime) {
+            LocalDateTime dateTime = value instanceof Timestamp t ? t.toLocalDateTime() : (LocalDateTime) value;
+            out.writeByte(9);
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        } else {
+            throw new IllegalArgumentException("Cannot log a value of type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case 0 -> null;
+            case 1 -> in.readLong();
+            case 2 -> in.readInt();
+            case 3 -> in.readShort();
+            case 4 -> in.readBoolean();
+            case 5 -> in.readDouble();
+            case 6 -> {
+                byte[] utf8 = new byte[in.readInt()];
+                in.readFully(utf8);
+                yield new String(utf8, StandardCharsets.UTF_8);
+            }
+            case 7 -> {
+                int scale = in.readInt();
+                byte[] unscaled = new byte[in.readInt()];
+                in.readFully(unscaled);
+                yield new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            case 8 -> LocalDate.ofEpochDay(in.readLong());
+            case 9 -> LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            default -> throw new IOException("Unknown value type " + type + " in write-ahead log");
+        };
+    }
+
+    /**
+     * One captured row change; {@code key} holds the old primary key for updates and deletes,
+     * {@code row} the full new row for inserts and updates.
+     */
+    record Change(long ordinal, String table, byte op, Object[] key, Object[] row) {
+    }
+
+    private record TableInfo(String name, List<String> columns, int[] keys, String identity, long identityNext) {
+
+        Object[] key(Object[] row) {
+            Object[] key = new Object[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                key[i] = row[keys[i]];
+            }
+            return key;
+        }
+
+        String mergeSql() {
+            return "MERGE INTO \"" + name + "\" (" + quoted(columns) + ") KEY (" + quoted(keyColumns()) + ") VALUES ("
+                    + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+        }
+
+        String deleteSql() {
+            return "DELETE FROM \"" + name + "\" WHERE " + keyColumns().stream()
+                    .map(column -> "\"" + column + "\" = ?").collect(Collectors.joining(" AND "));
+        }
+
+        private List<String> keyColumns() {
+            return Arrays.stream(keys).mapToObj(columns::get).toList();
+        }
+
+        private static String quoted(List<String> names) {
+            return names.stream().map(name -> "\"" + name + "\"").collect(Collectors.joining(", "));
+        }
+    }
+
+    /**
+     * Changes of one transaction, appended once it commits. Holds the checkpoint read lock from
+     * the first change until completion, so a snapshot never splits a transaction.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final List<Change> changes = new ArrayList<>();
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(DurableStore.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(DurableStore.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DurableStore.this);
+                if (status == STATUS_COMMITTED) {
+                    append(changes);
+                }
+            } finally {
+                checkpointLock.readLock().unlock();
+            }
+        }
+    }
+}
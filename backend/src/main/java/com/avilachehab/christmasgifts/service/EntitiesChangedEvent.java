@@ -0,0 +1,20 @@
+package com.avilachehab.christmasgifts.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The bulk counterpart of {@link EntityChangedEvent}: one event for many rows of one type written
+ * in the same transaction.
+ */
+@Getter
+@AllArgsConstructor
+public class EntitiesChangedEvent {
+    private final String entityType; // see the ChangeTracker constants
+    private final List<Long> entityIds;
+    private final List<Long> changeSeqs; // parallel to entityIds
+    private final boolean deleted;
+    private final boolean archived; // deleted rows moved to an archive table, still part of the history
+}
@@ -0,0 +1,17 @@
+package com.avilachehab.christmasgifts.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by {@link ChangeTracker} inside the writing transaction; listen with
+ * {@code @TransactionalEventListener} to see only committed changes.
+ */
+@Getter
+@AllArgsConstructor
+public class EntityChangedEvent {
+    private final String entityType; // see the ChangeTracker constants
+    private final Long entityId;
+    private final long changeSeq;
+    private final boolean deleted;
+}
@@ -0,0 +1,144 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.AllocationRequestDto;
+import com.avilachehab.christmasgifts.dto.AllocationResultDto;
+import com.avilachehab.christmasgifts.dto.CandidateGiftDto;
+import com.avilachehab.christmasgifts.dto.PersonAllocationDto;
+import com.avilachehab.christmasgifts.dto.WishlistDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks gifts from per-person wishlists to maximize total priority within the season's budget
+ * and each person's spend bounds. See {@link AllocationSolver} for the search.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GiftAllocationService {
+
+    public static final int MAX_CANDIDATES = 10_000;
+
+    private final BudgetService budgetService;
+
+    @Value("${app.optimizer.default-time-limit-ms:2000}")
+    private long defaultTimeLimitMs;
+
+    @Value("${app.optimizer.max-time-limit-ms:30000}")
+    private long maxTimeLimitMs;
+
+    @Value("${app.optimizer.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the best allocation found before the time limit, with the gap to the LP upper bound.
+     */
+    public AllocationResultDto allocate(AllocationRequestDto request) {
+        long started = System.nanoTime();
+        int season = request.getSeason() != null ? request.getSeason() : SeasonTotals.currentSeason();
+        BigDecimal totalBudget = request.getTotalBudget() != null
+                ? request.getTotalBudget() : budgetService.getTotalBudget(season);
+        long timeLimitMs = request.getTimeLimitMs() != null ? request.getTimeLimitMs() : defaultTimeLimitMs;
+        if (totalBudget.signum() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Total budget must be zero or more");
+        }
+        if (timeLimitMs < 1 || timeLimitMs > maxTimeLimitMs) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Time limit must be between 1 and " + maxTimeLimitMs + " ms");
+        }
+        List<WishlistDto> wishlists = request.getWishlists() != null ? request.getWishlists() : List.of();
+        long budget = toCents(totalBudget);
+        List<AllocationSolver.Group> groups = toGroups(wishlists, budget);
+
+        AllocationSolver.Solution solution;
+        try {
+            solution = AllocationSolver.solve(groups, budget, started + TimeUnit.MILLISECONDS.toNanos(timeLimitMs), pool);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        long solveTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Allocated {} wishlists in {} ms: priority {} of bound {} ({} nodes, optimal: {})",
+                wishlists.size(), solveTimeMs, solution.value(), solution.upperBound(), solution.nodes(),
+                solution.optimal());
+
+        List<PersonAllocationDto> allocations = new ArrayList<>(wishlists.size());
+        for (int g = 0; g < wishlists.size(); g++) {
+            WishlistDto wishlist = wishlists.get(g);
+            AllocationSolver.Option option = solution.choices().get(g);
+            List<CandidateGiftDto> gifts = new ArrayList<>(option.items().length);
+            for (int i = option.items().length - 1; i >= 0; i--) {
+                gifts.add(wishlist.getCandidates().get(option.items()[i]));
+            }
+            allocations.add(new PersonAllocationDto(wishlist.getPersonId(), fromCents(option.cost()), option.value(),
+                    gifts));
+        }
+        return new AllocationResultDto(totalBudget, fromCents(solution.cost()), solution.value(),
+                solution.upperBound(), solution.gap(), solution.optimal(), solveTimeMs, solution.nodes(), allocations);
+    }
+
+    private static List<AllocationSolver.Group> toGroups(List<WishlistDto> wishlists, long budget) {
+        Set<Long> personIds = new HashSet<>();
+        int candidates = 0;
+        List<AllocationSolver.Group> groups = new ArrayList<>(wishlists.size());
+        for (WishlistDto wishlist : wishlists) {
+            if (wishlist.getPersonId() == null || !personIds.add(wishlist.getPersonId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Each wishlist needs a distinct personId");
+            }
+            List<CandidateGiftDto> gifts = wishlist.getCandidates() != null ? wishlist.getCandidates() : List.of();
+            wishlist.setCandidates(gifts);
+            candidates += gifts.size();
+            if (candidates > MAX_CANDIDATES) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "At most " + MAX_CANDIDATES + " candidate gifts can be allocated at once");
+            }
+            List<AllocationSolver.Item> items = new ArrayList<>(gifts.size());
+            for (CandidateGiftDto gift : gifts) {
+                if (gift.getPrice() == null || gift.getPrice().signum() < 0 || gift.getPriority() < 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Candidate gifts need a price and priority of zero or more");
+                }
+                items.add(new AllocationSolver.Item(toCents(gift.getPrice()), gift.getPriority()));
+            }
+            long minCost = wishlist.getMinSpend() != null ? toCents(wishlist.getMinSpend()) : 0;
+            long maxCost = wishlist.getMaxSpend() != null ? toCents(wishlist.getMaxSpend()) : budget;
+            groups.add(new AllocationSolver.Group(wishlist.getPersonId(), minCost, maxCost, items));
+        }
+        return groups;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -1,40 +1,97 @@
 package com.avilachehab.christmasgifts.service;
 
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.GiftDto;
+import com.avilachehab.christmasgifts.dto.GiftPageDto;
+import com.avilachehab.christmasgifts.dto.GiftSort;
 import com.avilachehab.christmasgifts.model.Gift;
 import com.avilachehab.christmasgifts.model.Person;
 import com.avilachehab.christmasgifts.repository.GiftRepository;
 import com.avilachehab.christmasgifts.repository.PersonRepository;
+import com.avilachehab.christmasgifts.repository.ProjectionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class GiftService {
     
+    /**
+     * Entity attribute each {@link GiftDto} field is read from, used to narrow the select list for
+     * {@code ?fields=}.
+     */
+    private static final Map<String, String> FIELD_COLUMNS = Map.of(
+            "id", "id",
+            "description", "description",
+            "price", "price",
+            "personId", "person.id",
+            "personName", "person.name",
+            "season", "season");
+    
+    public static final Set<String> FIELDS = FIELD_COLUMNS.keySet();
+    
+    public static final int MAX_PAGE_SIZE = 500;
+    
     private final GiftRepository giftRepository;
     private final PersonRepository personRepository;
+    private final ProjectionRepository projectionRepository;
+    private final ChangeTracker changeTracker;
+    private final BudgetCounters budgetCounters;
+    private final SeasonTotals seasonTotals;
     
-    public List<GiftDto> getAllGifts() {
-        return giftRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    /**
+     * One page of gifts, filtered by season, person and price range and ordered by {@code sort}
+     * then id. Pass the previous page's {@code nextCursor} as {@code cursor} to continue.
+     */
+    @Transactional(readOnly = true)
+    public GiftPageDto getGifts(Integer season, Long personId, BigDecimal minPrice, BigDecimal maxPrice,
+                                GiftSort sort, Sort.Direction direction, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        GiftDto after = cursor != null ? decodeCursor(cursor, sort) : null;
+        // One extra row tells whether another page follows
+        List<GiftDto> gifts = giftRepository.findGiftRows(season, personId, minPrice, maxPrice, sort, direction,
+                after, pageSize + 1);
+        if (gifts.size() <= pageSize) {
+            return new GiftPageDto(gifts, null);
+        }
+        List<GiftDto> page = new ArrayList<>(gifts.subList(0, pageSize));
+        return new GiftPageDto(page, encodeCursor(page.get(pageSize - 1), sort));
     }
     
+    @Transactional(readOnly = true)
     public GiftDto getGiftById(Long id) {
         Gift gift = giftRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Gift not found with id: " + id));
         return convertToDto(gift);
     }
     
+    @Transactional(readOnly = true)
+    public GiftDto getGiftById(Long id, FieldSelection selection) {
+        if (selection.isAll()) {
+            return getGiftById(id);
+        }
+        return findProjected(selection, "id", id).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Gift not found with id: " + id));
+    }
+    
+    @Transactional(readOnly = true)
     public List<GiftDto> getGiftsByPersonId(Long personId) {
-        return giftRepository.findByPersonId(personId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return giftRepository.findGiftRows(null, personId, null, null, GiftSort.ID, Sort.Direction.ASC, null, null);
     }
     
     @Transactional
@@ -45,9 +102,14 @@ public class GiftService {
         Gift gift = new Gift();
         gift.setDescription(giftDto.getDescription());
         gift.setPrice(giftDto.getPrice());
+        gift.setSeason(giftDto.getSeason() != null ? giftDto.getSeason() : SeasonTotals.currentSeason());
         gift.setPerson(person);
+        gift.setChangeSeq(changeTracker.nextChangeSeq());
         
         Gift saved = giftRepository.save(gift);
+        changeTracker.recordChange(ChangeTracker.GIFT, saved.getId(), saved.getChangeSeq());
+        budgetCounters.giftAdded(person.getId(), saved.getSeason(), saved.getPrice());
+        seasonTotals.markDirty(saved.getSeason());
         return convertToDto(saved);
     }
     
@@ -55,36 +117,93 @@ public class GiftService {
     public GiftDto updateGift(Long id, GiftDto giftDto) {
         Gift gift = giftRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Gift not found with id: " + id));
+        Long oldPersonId = gift.getPerson().getId();
+        BigDecimal oldPrice = gift.getPrice();
+        int oldSeason = gift.getSeason();
         
         gift.setDescription(giftDto.getDescription());
         gift.setPrice(giftDto.getPrice());
+        if (giftDto.getSeason() != null) {
+            gift.setSeason(giftDto.getSeason());
+        }
         
         if (!gift.getPerson().getId().equals(giftDto.getPersonId())) {
             Person person = personRepository.findById(giftDto.getPersonId())
                     .orElseThrow(() -> new RuntimeException("Person not found with id: " + giftDto.getPersonId()));
             gift.setPerson(person);
         }
+        gift.setChangeSeq(changeTracker.nextChangeSeq());
         
         Gift saved = giftRepository.save(gift);
+        changeTracker.recordChange(ChangeTracker.GIFT, saved.getId(), saved.getChangeSeq());
+        budgetCounters.giftChanged(oldPersonId, oldSeason, oldPrice,
+                saved.getPerson().getId(), saved.getSeason(), saved.getPrice());
+        seasonTotals.markDirty(oldSeason);
+        seasonTotals.markDirty(saved.getSeason());
         return convertToDto(saved);
     }
     
     @Transactional
     public void deleteGift(Long id) {
-        if (!giftRepository.existsById(id)) {
-            throw new RuntimeException("Gift not found with id: " + id);
-        }
-        giftRepository.deleteById(id);
+        Gift gift = giftRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Gift not found with id: " + id));
+        giftRepository.delete(gift);
+        changeTracker.recordDeletion(ChangeTracker.GIFT, id);
+        budgetCounters.giftRemoved(gift.getPerson().getId(), gift.getSeason(), gift.getPrice());
+        seasonTotals.markDirty(gift.getSeason());
     }
     
-    private GiftDto convertToDto(Gift gift) {
+    GiftDto convertToDto(Gift gift) {
         GiftDto dto = new GiftDto();
         dto.setId(gift.getId());
         dto.setDescription(gift.getDescription());
         dto.setPrice(gift.getPrice());
         dto.setPersonId(gift.getPerson().getId());
         dto.setPersonName(gift.getPerson().getName());
+        dto.setSeason(gift.getSeason());
         return dto;
     }
+    
+    static String encodeCursor(GiftDto last, GiftSort sort) {
+        String key = switch (sort) {
+            case PRICE -> last.getId() + ":" + last.getPrice().toPlainString();
+            case DESCRIPTION -> last.getId() + ":" + last.getDescription();
+            case ID -> String.valueOf(last.getId());
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static GiftDto decodeCursor(String cursor, GiftSort sort) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            GiftDto after = new GiftDto();
+            int colon = key.indexOf(':');
+            if (sort == GiftSort.ID) {
+                after.setId(Long.parseLong(key));
+            } else if (colon < 0) {
+                throw new IllegalArgumentException("Cursor has no sort value");
+            } else {
+                after.setId(Long.parseLong(key.substring(0, colon)));
+                String value = key.substring(colon + 1);
+                if (sort == GiftSort.PRICE) {
+                    after.setPrice(new BigDecimal(value));
+                } else {
+                    after.setDescription(value);
+                }
+            }
+            return after;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor for sort " + sort);
+        }
+    }
+    
+    private List<GiftDto> findProjected(FieldSelection selection, String filterPath, Object filterValue) {
+        Set<String> columns = new LinkedHashSet<>();
+        selection.fieldsOf(FIELDS).forEach(field -> columns.add(FIELD_COLUMNS.get(field)));
+        return projectionRepository.findColumns(Gift.class, columns, filterPath, filterValue).stream()
+                .map(row -> new GiftDto((Long) row.get("id"), (String) row.get("description"),
+                        (BigDecimal) row.get("price"), (Long) row.get("person.id"), (String) row.get("person.name"),
+                        (Integer) row.get("season")))
+                .collect(Collectors.toList());
+    }
 }
-
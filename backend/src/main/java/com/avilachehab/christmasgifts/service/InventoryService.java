@@ -1,75 +1,138 @@
 package com.avilachehab.christmasgifts.service;
 
 import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.CompactInventorySummaryDto;
+import com.avilachehab.christmasgifts.dto.CompactRoasterDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.InventorySummaryDto;
 import com.avilachehab.christmasgifts.dto.RoasterDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
     
+    private static final FieldSelection ROASTER_COLUMNS = FieldSelection.of(
+            Set.of("id", "name", "location", "website", "notes"));
+    
     private final CoffeeService coffeeService;
     private final RoasterService roasterService;
     
+    @Transactional(readOnly = true)
     public InventorySummaryDto getInventorySummary() {
         List<CoffeeDto> allCoffees = coffeeService.getAllCoffees();
         List<RoasterDto> allRoasters = roasterService.getAllRoasters();
         
-        // Calculate total weight
-        BigDecimal totalWeight = allCoffees.stream()
+        InventorySummaryDto summary = new InventorySummaryDto();
+        summary.setTotalWeight(totalWeight(allCoffees));
+        summary.setTotalBags(allCoffees.size());
+        summary.setAveragePricePerGram(averagePricePerGram(allCoffees));
+        summary.setTotalSpent(totalSpent(allCoffees));
+        summary.setLowStockCoffees(allCoffees.stream().filter(this::isLowStock).collect(Collectors.toList()));
+        summary.setAgingCoffees(allCoffees.stream().filter(this::isAging).collect(Collectors.toList()));
+        summary.setRoasters(allRoasters);
+        
+        return summary;
+    }
+    
+    /**
+     * Same figures as {@link #getInventorySummary()}, but each coffee is written once and roaster
+     * totals come from the coffees already loaded instead of each roaster's collection.
+     */
+    @Transactional(readOnly = true)
+    public CompactInventorySummaryDto getCompactInventorySummary() {
+        List<CoffeeDto> allCoffees = coffeeService.getAllCoffees();
+        
+        Map<Long, CompactRoasterDto> roasters = new LinkedHashMap<>();
+        for (RoasterDto roaster : roasterService.getAllRoasters(ROASTER_COLUMNS)) {
+            roasters.put(roaster.getId(), new CompactRoasterDto(roaster.getId(), roaster.getName(),
+                    roaster.getLocation(), roaster.getWebsite(), roaster.getNotes(), new ArrayList<>(),
+                    BigDecimal.ZERO, 0));
+        }
+        
+        Map<Long, CoffeeDto> coffees = new LinkedHashMap<>();
+        for (CoffeeDto coffee : allCoffees) {
+            coffees.put(coffee.getId(), coffee);
+            CompactRoasterDto roaster = roasters.get(coffee.getRoasterId());
+            if (roaster != null) {
+                roaster.getCoffeeIds().add(coffee.getId());
+                roaster.setCoffeeCount(roaster.getCoffeeCount() + 1);
+                if (coffee.getPrice() != null) {
+                    roaster.setTotalSpent(roaster.getTotalSpent().add(coffee.getPrice()));
+                }
+            }
+        }
+        
+        CompactInventorySummaryDto summary = new CompactInventorySummaryDto();
+        summary.setTotalWeight(totalWeight(allCoffees));
+        summary.setTotalBags(allCoffees.size());
+        summary.setAveragePricePerGram(averagePricePerGram(allCoffees));
+        summary.setTotalSpent(totalSpent(allCoffees));
+        summary.setCoffees(coffees);
+        summary.setRoasters(roasters);
+        summary.setLowStockCoffeeIds(allCoffees.stream()
+                .filter(this::isLowStock)
+                .map(CoffeeDto::getId)
+                .collect(Collectors.toList()));
+        summary.setAgingCoffeeIds(allCoffees.stream()
+                .filter(this::isAging)
+                .map(CoffeeDto::getId)
+                .collect(Collectors.toList()));
+        
+        return summary;
+    }
+    
+    private BigDecimal totalWeight(List<CoffeeDto> coffees) {
+        return coffees.stream()
                 .map(CoffeeDto::getCurrentWeight)
                 .filter(w -> w != null)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Calculate total spent
-        BigDecimal totalSpent = allCoffees.stream()
+    }
+    
+    private BigDecimal totalSpent(List<CoffeeDto> coffees) {
+        return coffees.stream()
                 .map(CoffeeDto::getPrice)
                 .filter(p -> p != null)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Calculate average price per gram
-        BigDecimal averagePricePerGram = BigDecimal.ZERO;
+    }
+    
+    private BigDecimal averagePricePerGram(List<CoffeeDto> coffees) {
+        BigDecimal totalWeight = totalWeight(coffees);
+        BigDecimal totalSpent = totalSpent(coffees);
         if (totalWeight.compareTo(BigDecimal.ZERO) > 0 && totalSpent.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal totalInitialWeight = allCoffees.stream()
+            BigDecimal totalInitialWeight = coffees.stream()
                     .map(CoffeeDto::getInitialWeight)
                     .filter(w -> w != null)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
             if (totalInitialWeight.compareTo(BigDecimal.ZERO) > 0) {
-                averagePricePerGram = totalSpent.divide(totalInitialWeight, 4, RoundingMode.HALF_UP);
+                return totalSpent.divide(totalInitialWeight, 4, RoundingMode.HALF_UP);
             }
         }
-        
-        // Find low stock coffees (< 20% remaining)
-        List<CoffeeDto> lowStockCoffees = allCoffees.stream()
-                .filter(c -> c.getPercentageRemaining() != null 
-                    && c.getPercentageRemaining().compareTo(BigDecimal.valueOf(20)) < 0
-                    && c.getCurrentWeight().compareTo(BigDecimal.ZERO) > 0)
-                .collect(Collectors.toList());
-        
-        // Find aging coffees (> 30 days since roast)
-        List<CoffeeDto> agingCoffees = allCoffees.stream()
-                .filter(c -> c.getDaysSinceRoast() != null 
-                    && c.getDaysSinceRoast() > 30
-                    && c.getCurrentWeight().compareTo(BigDecimal.ZERO) > 0)
-                .collect(Collectors.toList());
-        
-        InventorySummaryDto summary = new InventorySummaryDto();
-        summary.setTotalWeight(totalWeight);
-        summary.setTotalBags(allCoffees.size());
-        summary.setAveragePricePerGram(averagePricePerGram);
-        summary.setTotalSpent(totalSpent);
-        summary.setLowStockCoffees(lowStockCoffees);
-        summary.setAgingCoffees(agingCoffees);
-        summary.setRoasters(allRoasters);
-        
-        return summary;
+        return BigDecimal.ZERO;
+    }
+    
+    // Low stock: < 20% remaining
+    private boolean isLowStock(CoffeeDto coffee) {
+        return coffee.getPercentageRemaining() != null
+                && coffee.getPercentageRemaining().compareTo(BigDecimal.valueOf(20)) < 0
+                && coffee.getCurrentWeight().compareTo(BigDecimal.ZERO) > 0;
+    }
+    
+    // Aging: > 30 days since roast
+    private boolean isAging(CoffeeDto coffee) {
+        return coffee.getDaysSinceRoast() != null
+                && coffee.getDaysSinceRoast() > 30
+                && coffee.getCurrentWeight().compareTo(BigDecimal.ZERO) > 0;
     }
 }
-
@@ -0,0 +1,422 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.InventoryAggregateDto;
+import com.avilachehab.christmasgifts.model.RoastLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of every bag ever bought ({@code coffee_history}, archived ones included)
+ * for analytics.
+ * <p>
+ * Each column is a primitive array indexed by row; weights are held in centigrams and prices in
+ * cents, so aggregating never touches an entity or a {@link BigDecimal}. The snapshot is loaded
+ * once with plain JDBC and then kept current from committed {@link EntityChangedEvent}s: a saved
+ * bag is re-read by id, a deleted one is dropped without a read. Archiving moves bags within
+ * {@code coffee_history}, so it changes nothing here. Deleting a roaster drops its bags, whose
+ * archived rows go by cascade.
+ * <p>
+ * While re-reads are in flight, a removed row leaves its deletion sequence behind, so a re-read
+ * that raced the delete and lands after it cannot bring the row back. Aggregations split the rows
+ * into ranges and sum them in parallel on the common fork/join pool under a read lock.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventorySnapshot {
+
+    public enum Dimension {
+        ROASTER, ROAST_LEVEL, PURCHASE_MONTH
+    }
+
+    static final long NO_PRICE = Long.MIN_VALUE;
+    static final byte NO_ROAST_LEVEL = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SPLIT_THRESHOLD = 16_384;
+    private static final RoastLevel[] ROAST_LEVELS = RoastLevel.values();
+
+    private static final String SELECT_SQL = "SELECT id, change_seq, roaster_id, roast_date, purchase_date, "
+            + "CAST(initial_weight * 100 AS BIGINT) AS initial_cg, CAST(current_weight * 100 AS BIGINT) AS current_cg, "
+            + "CAST(price * 100 AS BIGINT) AS price_cents, roast_level FROM coffee_history";
+    private static final String SELECT_ONE_SQL = SELECT_SQL + " WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> rowById = new HashMap<>(); // guarded by lock
+    private final Map<Long, Long> deletedSeqs = new HashMap<>(); // guarded by lock; change_seq of each removal
+    private final AtomicInteger rereadsInFlight = new AtomicInteger();
+
+    // Columns, guarded by lock; rows [0, size) are live
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] changeSeqs = new long[INITIAL_CAPACITY];
+    private long[] roasterIds = new long[INITIAL_CAPACITY];
+    private int[] roastDays = new int[INITIAL_CAPACITY]; // epoch day
+    private int[] purchaseDays = new int[INITIAL_CAPACITY]; // epoch day
+    private int[] purchaseMonths = new int[INITIAL_CAPACITY]; // months since 1970-01
+    private long[] initialWeights = new long[INITIAL_CAPACITY]; // centigrams
+    private long[] currentWeights = new long[INITIAL_CAPACITY]; // centigrams
+    private long[] prices = new long[INITIAL_CAPACITY]; // cents, NO_PRICE if unknown
+    private byte[] roastLevels = new byte[INITIAL_CAPACITY]; // RoastLevel ordinal, NO_ROAST_LEVEL if unknown
+
+    private volatile boolean loaded;
+
+    /**
+     * Reads the whole table. Change events wait for the load, so a row deleted meanwhile cannot
+     * reappear.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            List<Row> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> toRow(rs));
+            rows.forEach(this::apply);
+            loaded = true;
+            log.info("Loaded inventory snapshot with {} coffees", rows.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (ChangeTracker.ROASTER.equals(event.getEntityType()) && event.isDeleted()) {
+            removeRoaster(event.getEntityId(), event.getChangeSeq());
+        } else if (ChangeTracker.COFFEE.equals(event.getEntityType())) {
+            if (event.isDeleted()) {
+                remove(event.getEntityId(), event.getChangeSeq());
+            } else {
+                reread(event.getEntityId());
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onEntitiesChanged(EntitiesChangedEvent event) {
+        if (!ChangeTracker.COFFEE.equals(event.getEntityType()) || event.isArchived()) {
+            return;
+        }
+        for (int i = 0; i < event.getEntityIds().size(); i++) {
+            if (event.isDeleted()) {
+                remove(event.getEntityIds().get(i), event.getChangeSeqs().get(i));
+            } else {
+                reread(event.getEntityIds().get(i));
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Groups coffees purchased between {@code from} and {@code to} (inclusive, either may be null)
+     * by {@code dimension} and sums bags, spend and weight per group, ordered by group key.
+     */
+    public List<InventoryAggregateDto> aggregate(Dimension dimension, LocalDate from, LocalDate to) {
+        if (!loaded) {
+            load();
+        }
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+
+        Map<Long, long[]> groups;
+        lock.readLock().lock();
+        try {
+            groups = ForkJoinPool.commonPool().invoke(new AggregateTask(dimension, fromDay, toDay, 0, size));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<InventoryAggregateDto> result = new ArrayList<>(groups.size());
+        new TreeMap<>(groups).forEach((key, sums) -> result.add(toDto(dimension, key, sums)));
+        return result;
+    }
+
+    /**
+     * Inserts or replaces a row unless the snapshot already holds a newer version of it or has seen
+     * it deleted since. Callers hold the write lock.
+     */
+    void apply(Row row) {
+        Long deletedSeq = deletedSeqs.get(row.id);
+        if (deletedSeq != null && deletedSeq >= row.changeSeq) {
+            return;
+        }
+        Integer existing = rowById.get(row.id);
+        int index;
+        if (existing != null) {
+            index = existing;
+            if (changeSeqs[index] > row.changeSeq) {
+                return;
+            }
+        } else {
+            ensureCapacity(size + 1);
+            index = size++;
+            rowById.put(row.id, index);
+        }
+        ids[index] = row.id;
+        changeSeqs[index] = row.changeSeq;
+        roasterIds[index] = row.roasterId;
+        roastDays[index] = row.roastDay;
+        purchaseDays[index] = row.purchaseDay;
+        purchaseMonths[index] = epochMonth(row.purchaseDay);
+        initialWeights[index] = row.initialWeight;
+        currentWeights[index] = row.currentWeight;
+        prices[index] = row.price;
+        roastLevels[index] = row.roastLevel;
+    }
+
+    /**
+     * Reads one bag outside the lock and applies it; {@link #apply} drops it if a delete overtook
+     * the read. The last re-read to finish clears the deletion sequences, since any later one
+     * starts after those deletes committed.
+     */
+    private void reread(long id) {
+        rereadsInFlight.incrementAndGet();
+        List<Row> rows = List.of();
+        try {
+            rows = jdbcTemplate.query(SELECT_ONE_SQL, (rs, rowNum) -> toRow(rs), id);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (!rows.isEmpty()) {
+                    apply(rows.get(0));
+                }
+                if (rereadsInFlight.decrementAndGet() == 0) {
+                    deletedSeqs.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Drops a row deleted at {@code changeSeq}, remembering the sequence for {@link #apply} while a
+     * re-read may have read the row before the delete.
+     */
+    void remove(long id, long changeSeq) {
+        lock.writeLock().lock();
+        try {
+            if (rereadsInFlight.get() > 0) {
+                deletedSeqs.merge(id, changeSeq, Math::max);
+            }
+            Integer index = rowById.remove(id);
+            if (index == null) {
+                return;
+            }
+            // Move the last row into the hole so the live rows stay contiguous
+            int last = --size;
+            if (index != last) {
+                ids[index] = ids[last];
+                changeSeqs[index] = changeSeqs[last];
+                roasterIds[index] = roasterIds[last];
+                roastDays[index] = roastDays[last];
+                purchaseDays[index] = purchaseDays[last];
+                purchaseMonths[index] = purchaseMonths[last];
+                initialWeights[index] = initialWeights[last];
+                currentWeights[index] = currentWeights[last];
+                prices[index] = prices[last];
+                roastLevels[index] = roastLevels[last];
+                rowById.put(ids[index], index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every bag of a roaster deleted at {@code changeSeq}.
+     */
+    void removeRoaster(long roasterId, long changeSeq) {
+        lock.writeLock().lock();
+        try {
+            List<Long> removed = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (roasterIds[i] == roasterId) {
+                    removed.add(ids[i]);
+                }
+            }
+            removed.forEach(id -> remove(id, changeSeq));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        changeSeqs = Arrays.copyOf(changeSeqs, grown);
+        roasterIds = Arrays.copyOf(roasterIds, grown);
+        roastDays = Arrays.copyOf(roastDays, grown);
+        purchaseDays = Arrays.copyOf(purchaseDays, grown);
+        purchaseMonths = Arrays.copyOf(purchaseMonths, grown);
+        initialWeights = Arrays.copyOf(initialWeights, grown);
+        currentWeights = Arrays.copyOf(currentWeights, grown);
+        prices = Arrays.copyOf(prices, grown);
+        roastLevels = Arrays.copyOf(roastLevels, grown);
+    }
+
+    private static Row toRow(ResultSet rs) throws SQLException {
+        long price = rs.getLong("price_cents");
+        if (rs.wasNull()) {
+            price = NO_PRICE;
+        }
+        String roastLevel = rs.getString("roast_level");
+        return new Row(rs.getLong("id"), rs.getLong("change_seq"), rs.getLong("roaster_id"),
+                (int) rs.getDate("roast_date").toLocalDate().toEpochDay(),
+                (int) rs.getDate("purchase_date").toLocalDate().toEpochDay(),
+                rs.getLong("initial_cg"), rs.getLong("current_cg"), price,
+                roastLevel != null ? (byte) RoastLevel.valueOf(roastLevel).ordinal() : NO_ROAST_LEVEL);
+    }
+
+    private static int epochMonth(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return (date.getYear() - 1970) * 12 + date.getMonthValue() - 1;
+    }
+
+    private static InventoryAggregateDto toDto(Dimension dimension, long key, long[] sums) {
+        String label = switch (dimension) {
+            case ROASTER -> Long.toString(key);
+            case ROAST_LEVEL -> key == NO_ROAST_LEVEL ? null : ROAST_LEVELS[(int) key].name();
+            case PURCHASE_MONTH -> YearMonth.of(1970 + (int) (key / 12), (int) (key % 12) + 1).toString();
+        };
+        BigDecimal spent = BigDecimal.valueOf(sums[Sum.SPENT], 2);
+        BigDecimal pricedWeight = BigDecimal.valueOf(sums[Sum.PRICED_WEIGHT], 2);
+        BigDecimal pricePerGram = sums[Sum.PRICED_WEIGHT] > 0
+                ? spent.divide(pricedWeight, 4, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        return new InventoryAggregateDto(label, sums[Sum.BAGS], spent,
+                BigDecimal.valueOf(sums[Sum.INITIAL_WEIGHT], 2), BigDecimal.valueOf(sums[Sum.CURRENT_WEIGHT], 2),
+                pricePerGram);
+    }
+
+    /**
+     * Slots of the per-group accumulator array.
+     */
+    private static final class Sum {
+        static final int BAGS = 0;
+        static final int SPENT = 1;
+        static final int PRICED_WEIGHT = 2; // initial weight of bags with a price, for price per gram
+        static final int INITIAL_WEIGHT = 3;
+        static final int CURRENT_WEIGHT = 4;
+        static final int SLOTS = 5;
+    }
+
+    private final class AggregateTask extends RecursiveTask<Map<Long, long[]>> {
+        private final Dimension dimension;
+        private final int fromDay;
+        private final int toDay;
+        private final int start;
+        private final int end;
+
+        private AggregateTask(Dimension dimension, int fromDay, int toDay, int start, int end) {
+            this.dimension = dimension;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Map<Long, long[]> compute() {
+            if (end - start > SPLIT_THRESHOLD) {
+                int mid = (start + end) >>> 1;
+                AggregateTask left = new AggregateTask(dimension, fromDay, toDay, start, mid);
+                left.fork();
+                Map<Long, long[]> right = new AggregateTask(dimension, fromDay, toDay, mid, end).compute();
+                return merge(left.join(), right);
+            }
+
+            Map<Long, long[]> groups = new HashMap<>();
+            for (int i = start; i < end; i++) {
+                int day = purchaseDays[i];
+                if (day < fromDay || day > toDay) {
+                    continue;
+                }
+                long key = switch (dimension) {
+                    case ROASTER -> roasterIds[i];
+                    case ROAST_LEVEL -> roastLevels[i];
+                    case PURCHASE_MONTH -> purchaseMonths[i];
+                };
+                long[] sums = groups.computeIfAbsent(key, k -> new long[Sum.SLOTS]);
+                sums[Sum.BAGS]++;
+                if (prices[i] != NO_PRICE) {
+                    sums[Sum.SPENT] += prices[i];
+                    sums[Sum.PRICED_WEIGHT] += initialWeights[i];
+                }
+                sums[Sum.INITIAL_WEIGHT] += initialWeights[i];
+                sums[Sum.CURRENT_WEIGHT] += currentWeights[i];
+            }
+            return groups;
+        }
+
+        private Map<Long, long[]> merge(Map<Long, long[]> into, Map<Long, long[]> from) {
+            from.forEach((key, sums) -> into.merge(key, sums, (a, b) -> {
+                for (int slot = 0; slot < Sum.SLOTS; slot++) {
+                    a[slot] += b[slot];
+                }
+                return a;
+            }));
+            return into;
+        }
+    }
+
+    static final class Row {
+        private final long id;
+        private final long changeSeq;
+        private final long roasterId;
+        private final int roastDay;
+        private final int purchaseDay;
+        private final long initialWeight;
+        private final long currentWeight;
+        private final long price;
+        private final byte roastLevel;
+
+        Row(long id, long changeSeq, long roasterId, int roastDay, int purchaseDay,
+            long initialWeight, long currentWeight, long price, byte roastLevel) {
+            this.id = id;
+            this.changeSeq = changeSeq;
+            this.roasterId = roasterId;
+            this.roastDay = roastDay;
+            this.purchaseDay = purchaseDay;
+            this.initialWeight = initialWeight;
+            this.currentWeight = currentWeight;
+            this.price = price;
+            this.roastLevel = roastLevel;
+        }
+    }
+}
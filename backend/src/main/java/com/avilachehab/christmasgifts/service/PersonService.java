@@ -2,29 +2,52 @@ package com.avilachehab.christmasgifts.service;
 
 import com.avilachehab.christmasgifts.dto.GiftDto;
 import com.avilachehab.christmasgifts.dto.PersonDto;
+import com.avilachehab.christmasgifts.dto.PersonUpsertResultDto;
 import com.avilachehab.christmasgifts.model.Gift;
 import com.avilachehab.christmasgifts.model.Person;
+import com.avilachehab.christmasgifts.repository.GiftRepository;
 import com.avilachehab.christmasgifts.repository.PersonRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PersonService {
     
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_PERSON_SQL = "INSERT INTO persons (name, allowance, change_seq) VALUES (?, ?, ?)";
+    private static final String INSERT_GIFT_SQL =
+            "INSERT INTO gifts (description, price, season, person_id, change_seq) VALUES (?, ?, ?, ?, ?)";
+    
     private final PersonRepository personRepository;
+    private final GiftRepository giftRepository;
+    private final ChangeTracker changeTracker;
+    private final JdbcTemplate jdbcTemplate;
+    private final BudgetCounters budgetCounters;
+    private final SeasonTotals seasonTotals;
     
+    @Transactional(readOnly = true)
     public List<PersonDto> getAllPersons() {
         return personRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public PersonDto getPersonById(Long id) {
         Person person = personRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Person not found with id: " + id));
@@ -34,8 +57,12 @@ public class PersonService {
     @Transactional
     public PersonDto createPerson(PersonDto personDto) {
         Person person = new Person();
-        person.setName(personDto.getName());
+        person.setName(normalizeName(personDto.getName()));
+        person.setAllowance(personDto.getAllowance());
+        person.setChangeSeq(changeTracker.nextChangeSeq());
         Person saved = personRepository.save(person);
+        changeTracker.recordChange(ChangeTracker.PERSON, saved.getId(), saved.getChangeSeq());
+        budgetCounters.allowanceChanged(saved.getId(), saved.getAllowance());
         return convertToDto(saved);
     }
     
@@ -43,17 +70,166 @@ public class PersonService {
     public PersonDto updatePerson(Long id, PersonDto personDto) {
         Person person = personRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Person not found with id: " + id));
-        person.setName(personDto.getName());
+        person.setName(normalizeName(personDto.getName()));
+        person.setAllowance(personDto.getAllowance());
+        person.setChangeSeq(changeTracker.nextChangeSeq());
         Person saved = personRepository.save(person);
+        changeTracker.recordChange(ChangeTracker.PERSON, saved.getId(), saved.getChangeSeq());
+        budgetCounters.allowanceChanged(saved.getId(), saved.getAllowance());
         return convertToDto(saved);
     }
     
+    /**
+     * Creates persons and their gifts in bulk. Persons are matched to existing ones by their
+     * normalized name in a single query, and a given allowance replaces the stored one. New persons
+     * and all gifts are inserted as JDBC batches in this transaction.
+     */
+    @Transactional
+    public List<PersonUpsertResultDto> upsertPersons(List<PersonDto> persons) {
+        Map<String, List<GiftDto>> giftsByName = new LinkedHashMap<>();
+        Map<String, BigDecimal> allowances = new LinkedHashMap<>();
+        for (PersonDto person : persons) {
+            if (person.getName() == null || person.getName().isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Person name is required");
+            }
+            String name = normalizeName(person.getName());
+            List<GiftDto> gifts = giftsByName.computeIfAbsent(name, key -> new ArrayList<>());
+            if (person.getAllowance() != null) {
+                allowances.putIfAbsent(name, person.getAllowance());
+            }
+            if (person.getGifts() != null) {
+                for (GiftDto gift : person.getGifts()) {
+                    if (gift.getDescription() == null || gift.getDescription().isBlank() || gift.getPrice() == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "Gift description and price are required");
+                    }
+                    gifts.add(gift);
+                }
+            }
+        }
+        
+        Map<String, PersonUpsertResultDto> results = new LinkedHashMap<>();
+        giftsByName.keySet().forEach(name -> results.put(name, new PersonUpsertResultDto(null, name, true, new ArrayList<>())));
+        List<Person> allowanceUpdates = new ArrayList<>();
+        for (Person existing : personRepository.findByNameInOrderById(giftsByName.keySet())) {
+            PersonUpsertResultDto result = results.get(existing.getName());
+            if (result != null && result.getPersonId() == null) {
+                result.setPersonId(existing.getId());
+                result.setCreated(false);
+                BigDecimal allowance = allowances.get(existing.getName());
+                if (allowance != null
+                        && (existing.getAllowance() == null || existing.getAllowance().compareTo(allowance) != 0)) {
+                    allowanceUpdates.add(existing);
+                }
+            }
+        }
+        
+        List<PersonUpsertResultDto> created = results.values().stream()
+                .filter(PersonUpsertResultDto::isCreated)
+                .toList();
+        int giftCount = giftsByName.values().stream().mapToInt(List::size).sum();
+        Iterator<Long> seqs = changeTracker.nextChangeSeqs(created.size() + allowanceUpdates.size() + giftCount)
+                .iterator();
+        
+        List<Long> personIds = new ArrayList<>(created.size() + allowanceUpdates.size());
+        List<Long> personSeqs = new ArrayList<>(created.size() + allowanceUpdates.size());
+        List<Object[]> personRows = new ArrayList<>(created.size());
+        created.forEach(result -> personRows.add(new Object[]{result.getName(), allowances.get(result.getName()), seqs.next()}));
+        List<Long> createdIds = insertReturningIds(INSERT_PERSON_SQL, personRows);
+        for (int i = 0; i < created.size(); i++) {
+            created.get(i).setPersonId(createdIds.get(i));
+            personIds.add(createdIds.get(i));
+            personSeqs.add((Long) personRows.get(i)[2]);
+            budgetCounters.allowanceChanged(createdIds.get(i), allowances.get(created.get(i).getName()));
+        }
+        for (Person person : allowanceUpdates) {
+            // Managed entities, flushed on commit
+            person.setAllowance(allowances.get(person.getName()));
+            person.setChangeSeq(seqs.next());
+            personIds.add(person.getId());
+            personSeqs.add(person.getChangeSeq());
+            budgetCounters.allowanceChanged(person.getId(), person.getAllowance());
+        }
+        changeTracker.recordChanges(ChangeTracker.PERSON, personIds, personSeqs);
+        
+        int currentSeason = SeasonTotals.currentSeason();
+        List<Object[]> giftRows = new ArrayList<>(giftCount);
+        List<Long> giftSeqs = new ArrayList<>(giftCount);
+        List<PersonUpsertResultDto> giftOwners = new ArrayList<>(giftCount);
+        giftsByName.forEach((name, gifts) -> {
+            PersonUpsertResultDto owner = results.get(name);
+            for (GiftDto gift : gifts) {
+                int season = gift.getSeason() != null ? gift.getSeason() : currentSeason;
+                long seq = seqs.next();
+                giftRows.add(new Object[]{gift.getDescription(), gift.getPrice(), season, owner.getPersonId(), seq});
+                giftSeqs.add(seq);
+                giftOwners.add(owner);
+            }
+        });
+        List<Long> giftIds = insertReturningIds(INSERT_GIFT_SQL, giftRows);
+        for (int i = 0; i < giftIds.size(); i++) {
+            giftOwners.get(i).getGiftIds().add(giftIds.get(i));
+        }
+        changeTracker.recordChanges(ChangeTracker.GIFT, giftIds, giftSeqs);
+        giftsByName.forEach((name, gifts) -> {
+            Map<Integer, List<GiftDto>> bySeason = gifts.stream().collect(Collectors.groupingBy(
+                    gift -> gift.getSeason() != null ? gift.getSeason() : currentSeason));
+            bySeason.forEach((season, seasonGifts) -> budgetCounters.giftsAdded(results.get(name).getPersonId(), season,
+                    seasonGifts.stream().map(GiftDto::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add),
+                    seasonGifts.size()));
+            bySeason.keySet().forEach(seasonTotals::markDirty);
+        });
+        
+        return new ArrayList<>(results.values());
+    }
+    
     @Transactional
     public void deletePerson(Long id) {
-        if (!personRepository.existsById(id)) {
+        // Gifts go with the person in one statement, their tombstones in another; listeners see only
+        // the person's deletion
+        List<Integer> seasons = giftRepository.findSeasonsByPersonId(id);
+        changeTracker.recordDeletion(ChangeTracker.PERSON, id, ChangeTracker.GIFT, "gifts", "person_id");
+        giftRepository.bulkDeleteByPersonId(id);
+        if (personRepository.bulkDeleteById(id) == 0) {
             throw new RuntimeException("Person not found with id: " + id);
         }
-        personRepository.deleteById(id);
+        seasons.forEach(seasonTotals::markDirty);
+        budgetCounters.personRemoved(id);
+    }
+    
+    /**
+     * Runs the insert as JDBC batches of {@link #BATCH_SIZE} rows and returns the generated ids in
+     * row order.
+     */
+    private List<Long> insertReturningIds(String sql, List<Object[]> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            jdbcTemplate.execute(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                    (PreparedStatement statement) -> {
+                        for (Object[] row : chunk) {
+                            for (int i = 0; i < row.length; i++) {
+                                statement.setObject(i + 1, row[i]);
+                            }
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                        try (ResultSet keys = statement.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                ids.add(keys.getLong(1));
+                            }
+                        }
+                        return null;
+                    });
+        }
+        return ids;
+    }
+    
+    /**
+     * Names are stored trimmed, so the bulk upsert can match them exactly (and use the name index).
+     */
+    private static String normalizeName(String name) {
+        return name != null ? name.trim() : null;
     }
     
     private PersonDto convertToDto(Person person) {
@@ -65,6 +241,8 @@ public class PersonService {
                 .map(Gift::getPrice)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         dto.setTotalSpent(totalSpent);
+        dto.setGiftCount((long) person.getGifts().size());
+        dto.setAllowance(person.getAllowance());
         
         List<GiftDto> giftDtos = person.getGifts().stream()
                 .map(gift -> {
@@ -74,6 +252,7 @@ public class PersonService {
                     giftDto.setPrice(gift.getPrice());
                     giftDto.setPersonId(person.getId());
                     giftDto.setPersonName(person.getName());
+                    giftDto.setSeason(gift.getSeason());
                     return giftDto;
                 })
                 .collect(Collectors.toList());
@@ -0,0 +1,150 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.RoasterScoreDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks roasters from the precomputed {@code roaster_scores} table.
+ * <p>
+ * Coffee writes mark their roaster dirty; once the transaction commits, each dirty roaster's row
+ * is recomputed from its own coffees with one {@code MERGE} in a new transaction. Scores cover every
+ * bag ever bought, so they read {@code coffee_history}, archived bags included. Consumption speed
+ * depends on today's date, so the whole table is also rebuilt on startup and nightly.
+ */
+@Slf4j
+@Service
+public class RoasterScoreboard {
+
+    public enum Metric {
+        FRESHNESS("avg_days_to_purchase", "ASC"),
+        PRICE_PER_GRAM("price_per_gram", "ASC"),
+        CONSUMPTION_SPEED("grams_per_day", "DESC");
+
+        private final String column;
+        private final String direction;
+
+        Metric(String column, String direction) {
+            this.column = column;
+            this.direction = direction;
+        }
+    }
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final String SCORE_SELECT = "SELECT roaster_id, COUNT(*), "
+            + "AVG(DATEDIFF(DAY, roast_date, purchase_date)), "
+            + "SUM(price) / NULLIF(SUM(CASE WHEN price IS NOT NULL THEN initial_weight END), 0), "
+            + "SUM(initial_weight - current_weight) / SUM(GREATEST(DATEDIFF(DAY, purchase_date, CURRENT_DATE), 1)), "
+            + "CURRENT_TIMESTAMP FROM coffee_history";
+    private static final String COLUMNS =
+            "(roaster_id, bags, avg_days_to_purchase, price_per_gram, grams_per_day, refreshed_at)";
+    private static final String MERGE_SQL = "MERGE INTO roaster_scores " + COLUMNS + " KEY (roaster_id) "
+            + SCORE_SELECT + " WHERE roaster_id = ? GROUP BY roaster_id";
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM roaster_scores WHERE roaster_id = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM coffee_history WHERE roaster_id = ?)";
+    private static final String REBUILD_SQL = "INSERT INTO roaster_scores " + COLUMNS + " "
+            + SCORE_SELECT + " GROUP BY roaster_id";
+    private static final String TOP_SQL = "SELECT s.roaster_id, r.name, s.bags, s.avg_days_to_purchase, "
+            + "s.price_per_gram, s.grams_per_day FROM roaster_scores s JOIN roasters r ON r.id = s.roaster_id "
+            + "WHERE s.%1$s IS NOT NULL ORDER BY s.%1$s %2$s, s.roaster_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+
+    public RoasterScoreboard(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<RoasterScoreDto> getTop(Metric metric, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return jdbcTemplate.query(String.format(TOP_SQL, metric.column, metric.direction),
+                (rs, rowNum) -> new RoasterScoreDto(rs.getLong(1), rs.getString(2), rs.getInt(3),
+                        rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6)),
+                k);
+    }
+
+    /**
+     * Schedules the roaster's score for recomputation once the current transaction commits.
+     */
+    public void markDirty(Long roasterId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(Set.of(roasterId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> dirty = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (dirty == null) {
+            Set<Long> roasterIds = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, roasterIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RoasterScoreboard.this);
+                    if (status == STATUS_COMMITTED) {
+                        refreshQuietly(roasterIds);
+                    }
+                }
+            });
+            dirty = roasterIds;
+        }
+        dirty.add(roasterId);
+    }
+
+    /**
+     * Marks the roasters of the given coffees dirty; for writers that only know coffee ids.
+     */
+    public void markCoffeesDirty(Collection<Long> coffeeIds) {
+        if (coffeeIds.isEmpty()) {
+            return;
+        }
+        String placeholders = coffeeIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        jdbcTemplate.queryForList("SELECT DISTINCT roaster_id FROM coffees WHERE id IN (" + placeholders + ")",
+                Long.class, coffeeIds.toArray()).forEach(this::markDirty);
+    }
+
+    void refresh(Collection<Long> roasterIds) {
+        List<Object[]> mergeArgs = roasterIds.stream().map(id -> new Object[]{id}).toList();
+        List<Object[]> deleteArgs = roasterIds.stream().map(id -> new Object[]{id, id}).toList();
+        newTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(MERGE_SQL, mergeArgs);
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_SQL, deleteArgs);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.scoreboard.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        Integer rows = newTransaction.execute(status -> {
+            jdbcTemplate.update("DELETE FROM roaster_scores");
+            return jdbcTemplate.update(REBUILD_SQL);
+        });
+        log.info("Rebuilt roaster scoreboard ({} roasters)", rows);
+    }
+
+    private void refreshQuietly(Collection<Long> roasterIds) {
+        try {
+            refresh(roasterIds);
+        } catch (RuntimeException e) {
+            // The nightly rebuild repairs the rows
+            log.error("Failed to refresh roaster scores for {}", roasterIds, e);
+        }
+    }
+}
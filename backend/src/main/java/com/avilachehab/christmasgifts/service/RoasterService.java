@@ -1,36 +1,77 @@
 package com.avilachehab.christmasgifts.service;
 
 import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.RoasterDto;
 import com.avilachehab.christmasgifts.model.Coffee;
 import com.avilachehab.christmasgifts.model.Roaster;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.ProjectionRepository;
 import com.avilachehab.christmasgifts.repository.RoasterRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RoasterService {
     
+    /**
+     * {@link RoasterDto} fields that can be selected with {@code ?fields=}; {@code coffees} takes
+     * nested coffee fields.
+     */
+    public static final Set<String> FIELDS = Set.of(
+            "id", "name", "location", "website", "notes", "coffees", "totalSpent", "coffeeCount");
+    
+    private static final Set<String> COLUMNS = Set.of("id", "name", "location", "website", "notes");
+    
     private final RoasterRepository roasterRepository;
+    private final CoffeeRepository coffeeRepository;
+    private final CoffeeService coffeeService;
+    private final ProjectionRepository projectionRepository;
+    private final ChangeTracker changeTracker;
+    private final ConsumptionWriteBuffer consumptionWriteBuffer;
     
+    @Transactional(readOnly = true)
     public List<RoasterDto> getAllRoasters() {
         return roasterRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<RoasterDto> getAllRoasters(FieldSelection selection) {
+        if (selection.isAll()) {
+            return getAllRoasters();
+        }
+        return findProjected(selection, null);
+    }
+    
+    @Transactional(readOnly = true)
     public RoasterDto getRoasterById(Long id) {
         Roaster roaster = roasterRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Roaster not found with id: " + id));
         return convertToDto(roaster);
     }
     
+    @Transactional(readOnly = true)
+    public RoasterDto getRoasterById(Long id, FieldSelection selection) {
+        if (selection.isAll()) {
+            return getRoasterById(id);
+        }
+        return findProjected(selection, id).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Roaster not found with id: " + id));
+    }
+    
     @Transactional
     public RoasterDto createRoaster(RoasterDto roasterDto) {
         Roaster roaster = new Roaster();
@@ -38,7 +79,9 @@ public class RoasterService {
         roaster.setLocation(roasterDto.getLocation());
         roaster.setWebsite(roasterDto.getWebsite());
         roaster.setNotes(roasterDto.getNotes());
+        roaster.setChangeSeq(changeTracker.nextChangeSeq());
         Roaster saved = roasterRepository.save(roaster);
+        changeTracker.recordChange(ChangeTracker.ROASTER, saved.getId(), saved.getChangeSeq());
         return convertToDto(saved);
     }
     
@@ -50,16 +93,22 @@ public class RoasterService {
         roaster.setLocation(roasterDto.getLocation());
         roaster.setWebsite(roasterDto.getWebsite());
         roaster.setNotes(roasterDto.getNotes());
+        roaster.setChangeSeq(changeTracker.nextChangeSeq());
         Roaster saved = roasterRepository.save(roaster);
+        changeTracker.recordChange(ChangeTracker.ROASTER, saved.getId(), saved.getChangeSeq());
         return convertToDto(saved);
     }
     
     @Transactional
     public void deleteRoaster(Long id) {
-        if (!roasterRepository.existsById(id)) {
+        // Coffees go with the roaster in one statement, their tombstones in another; listeners see
+        // only the roaster's deletion
+        changeTracker.recordDeletion(ChangeTracker.ROASTER, id, ChangeTracker.COFFEE, "coffees", "roaster_id");
+        coffeeRepository.bulkDeleteByRoasterId(id);
+        if (roasterRepository.bulkDeleteById(id) == 0) {
             throw new RuntimeException("Roaster not found with id: " + id);
         }
-        roasterRepository.deleteById(id);
+        consumptionWriteBuffer.discardRoaster(id);
     }
     
     private RoasterDto convertToDto(Roaster roaster) {
@@ -120,5 +169,34 @@ public class RoasterService {
         
         return dto;
     }
+    
+    /**
+     * Reads only the selected roaster columns; coffees and totals are loaded with one query each
+     * for all roasters instead of walking every roaster's collection.
+     */
+    private List<RoasterDto> findProjected(FieldSelection selection, Long id) {
+        Set<String> columns = new LinkedHashSet<>(List.of("id"));
+        selection.fieldsOf(FIELDS).stream().filter(COLUMNS::contains).forEach(columns::add);
+        List<RoasterDto> roasters = projectionRepository.findColumns(Roaster.class, columns, "id", id).stream()
+                .map(row -> new RoasterDto((Long) row.get("id"), (String) row.get("name"),
+                        (String) row.get("location"), (String) row.get("website"), (String) row.get("notes"),
+                        null, null, null))
+                .collect(Collectors.toList());
+        
+        if (selection.includes("coffees")) {
+            Map<Long, List<CoffeeDto>> coffees = coffeeService.getCoffeesGroupedByRoaster(selection.nested("coffees"), id);
+            roasters.forEach(roaster -> roaster.setCoffees(coffees.getOrDefault(roaster.getId(), List.of())));
+        }
+        if (selection.includes("totalSpent") || selection.includes("coffeeCount")) {
+            Map<Long, CoffeeRepository.RoasterTotals> totals = coffeeRepository.summarizeByRoaster().stream()
+                    .collect(Collectors.toMap(CoffeeRepository.RoasterTotals::getRoasterId, Function.identity()));
+            roasters.forEach(roaster -> {
+                CoffeeRepository.RoasterTotals total = totals.get(roaster.getId());
+                roaster.setTotalSpent(total != null ? total.getTotalSpent() : BigDecimal.ZERO);
+                roaster.setCoffeeCount(total != null ? total.getCoffeeCount().intValue() : 0);
+            });
+        }
+        return roasters;
+    }
 }
 
@@ -0,0 +1,127 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.ScaleIngestionResultDto;
+import com.avilachehab.christmasgifts.dto.ScaleReadingDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScaleIngestionService {
+
+    private static final int STREAM_CHUNK_SIZE = 50;
+
+    private final CoffeeService coffeeService;
+    private final ConsumptionWriteBuffer consumptionWriteBuffer;
+
+    @Value("${app.scale.median-window:5}")
+    private int medianWindow;
+
+    @Value("${app.scale.settle-ms:1500}")
+    private long settleMillis;
+
+    @Value("${app.scale.tolerance-grams:0.5}")
+    private BigDecimal toleranceGrams;
+
+    @Value("${app.scale.min-consumption-grams:2}")
+    private BigDecimal minConsumptionGrams;
+
+    private final Map<Long, ScaleSignalFilter> filters = new ConcurrentHashMap<>();
+
+    /**
+     * Filters a batch of readings for one coffee and books every detected consumption through
+     * {@link CoffeeService#consumeCoffee}, or the write-behind buffer when it is enabled, so the
+     * weight only changes once the scale settles.
+     */
+    public ScaleIngestionResultDto ingest(Long coffeeId, List<ScaleReadingDto> readings) {
+        ScaleSignalFilter filter = filters.computeIfAbsent(coffeeId, this::createFilter);
+
+        List<BigDecimal> detected = new ArrayList<>();
+        BigDecimal settledWeight;
+        int accepted = 0;
+        synchronized (filter) {
+            long now = System.currentTimeMillis();
+            for (ScaleReadingDto reading : readings) {
+                if (reading.getWeight() == null) {
+                    continue;
+                }
+                accepted++;
+                long timestamp = reading.getTimestamp() != null ? reading.getTimestamp() : now;
+                BigDecimal consumed = filter.accept(timestamp, reading.getWeight());
+                if (consumed != null) {
+                    detected.add(consumed);
+                }
+            }
+            settledWeight = filter.getSettledWeight();
+        }
+
+        BigDecimal booked = BigDecimal.ZERO;
+        for (BigDecimal consumed : detected) {
+            booked = booked.add(book(coffeeId, consumed));
+        }
+
+        return new ScaleIngestionResultDto(coffeeId, accepted, detected.size(), booked, settledWeight);
+    }
+
+    /**
+     * Ingests an unbounded stream of readings in fixed-size chunks as they arrive.
+     */
+    public ScaleIngestionResultDto ingestStream(Long coffeeId, Iterator<ScaleReadingDto> readings) {
+        ScaleIngestionResultDto total = new ScaleIngestionResultDto(coffeeId, 0, 0, BigDecimal.ZERO, null);
+        List<ScaleReadingDto> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        while (readings.hasNext()) {
+            chunk.add(readings.next());
+            if (chunk.size() == STREAM_CHUNK_SIZE || !readings.hasNext()) {
+                ScaleIngestionResultDto result = ingest(coffeeId, chunk);
+                total.setReadingsAccepted(total.getReadingsAccepted() + result.getReadingsAccepted());
+                total.setConsumptionEvents(total.getConsumptionEvents() + result.getConsumptionEvents());
+                total.setConsumedWeight(total.getConsumedWeight().add(result.getConsumedWeight()));
+                total.setSettledWeight(result.getSettledWeight());
+                chunk.clear();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Forgets the scale state for a coffee, e.g. after the bag was swapped.
+     */
+    public void reset(Long coffeeId) {
+        filters.remove(coffeeId);
+    }
+
+    private ScaleSignalFilter createFilter(Long coffeeId) {
+        coffeeService.getCoffeeById(coffeeId); // fail fast for unknown coffees
+        return new ScaleSignalFilter(medianWindow, settleMillis, toleranceGrams, minConsumptionGrams);
+    }
+
+    private BigDecimal book(Long coffeeId, BigDecimal consumed) {
+        // The scale and the recorded weight can disagree slightly; never drive the bag negative
+        if (consumptionWriteBuffer.isEnabled()) {
+            BigDecimal amount = consumptionWriteBuffer.acceptAvailable(coffeeId, consumed);
+            if (amount.signum() == 0) {
+                log.debug("Ignoring {} g from the scale for empty coffee {}", consumed, coffeeId);
+            }
+            return amount;
+        }
+        CoffeeDto coffee = coffeeService.getCoffeeById(coffeeId);
+        BigDecimal amount = consumed.min(coffee.getCurrentWeight());
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            log.debug("Ignoring {} g from the scale for empty coffee {}", consumed, coffeeId);
+            return BigDecimal.ZERO;
+        }
+        coffeeService.consumeCoffee(coffeeId, amount);
+        return amount;
+    }
+}
@@ -0,0 +1,100 @@
+package com.avilachehab.christmasgifts.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Turns a noisy stream of smart-scale readings for one bag into discrete consumption events.
+ * <p>
+ * Readings are median-filtered over a sliding window so single-sample spikes (a knock on the
+ * counter) are dropped. A value only counts once the median stays within {@code tolerance} of
+ * itself for {@code settleMillis}; readings below {@code -tolerance} mean the bag was lifted off
+ * the tared scale and reset the window. Settled drops of at least {@code minConsumption} are
+ * reported as consumption, settled rises re-base the reference weight (bag refilled or replaced),
+ * and smaller drifts are kept pending until they add up. Not thread-safe.
+ */
+public class ScaleSignalFilter {
+
+    private final int windowSize;
+    private final long settleMillis;
+    private final BigDecimal tolerance;
+    private final BigDecimal minConsumption;
+
+    private final Deque<BigDecimal> window = new ArrayDeque<>();
+    private BigDecimal candidate;
+    private long candidateSince;
+    private boolean candidateSettled;
+    private BigDecimal settledWeight;
+
+    public ScaleSignalFilter(int windowSize, long settleMillis, BigDecimal tolerance, BigDecimal minConsumption) {
+        this.windowSize = windowSize;
+        this.settleMillis = settleMillis;
+        this.tolerance = tolerance;
+        this.minConsumption = minConsumption;
+    }
+
+    /**
+     * Feeds one reading and returns the grams consumed if it completes a settle below the
+     * reference weight, otherwise {@code null}.
+     */
+    public BigDecimal accept(long timestamp, BigDecimal weight) {
+        if (weight.compareTo(tolerance.negate()) < 0) {
+            window.clear();
+            candidate = null;
+            return null;
+        }
+
+        window.addLast(weight);
+        if (window.size() > windowSize) {
+            window.removeFirst();
+        }
+        if (window.size() < windowSize) {
+            return null;
+        }
+
+        BigDecimal median = median();
+        if (candidate == null || median.subtract(candidate).abs().compareTo(tolerance) > 0) {
+            candidate = median;
+            candidateSince = timestamp;
+            candidateSettled = false;
+            return null;
+        }
+        if (candidateSettled || timestamp - candidateSince < settleMillis) {
+            return null;
+        }
+        candidateSettled = true;
+
+        BigDecimal settled = median.setScale(1, RoundingMode.HALF_UP);
+        if (settledWeight == null) {
+            settledWeight = settled;
+            return null;
+        }
+
+        BigDecimal consumed = settledWeight.subtract(settled);
+        if (consumed.compareTo(minConsumption) >= 0) {
+            settledWeight = settled;
+            return consumed;
+        }
+        if (consumed.negate().compareTo(minConsumption) >= 0) {
+            settledWeight = settled;
+        }
+        return null;
+    }
+
+    public BigDecimal getSettledWeight() {
+        return settledWeight;
+    }
+
+    private BigDecimal median() {
+        BigDecimal[] sorted = window.toArray(new BigDecimal[0]);
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        if (sorted.length % 2 == 1) {
+            return sorted[middle];
+        }
+        return sorted[middle - 1].add(sorted[middle]).divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,134 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.SeasonSummaryDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Year;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-season spending from the pre-aggregated {@code season_totals} table.
+ * <p>
+ * Gift writes mark their season dirty; once the transaction commits, each dirty season's row is
+ * recomputed from that season's gifts with one {@code MERGE} in a new transaction, reading only
+ * the season's range of {@code idx_gifts_season_person_price}. Comparing seasons then reads one
+ * row per season, however many gifts past seasons hold.
+ */
+@Slf4j
+@Service
+public class SeasonTotals {
+
+    private static final String TOTALS_SELECT = "SELECT season, SUM(price), COUNT(*), COUNT(DISTINCT person_id), "
+            + "CURRENT_TIMESTAMP FROM gifts";
+    private static final String COLUMNS = "(season, total_spent, gift_count, person_count, refreshed_at)";
+    private static final String MERGE_SQL = "MERGE INTO season_totals " + COLUMNS + " KEY (season) "
+            + TOTALS_SELECT + " WHERE season = ? GROUP BY season";
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM season_totals WHERE season = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM gifts WHERE season = ?)";
+    private static final String REBUILD_SQL = "INSERT INTO season_totals " + COLUMNS + " "
+            + TOTALS_SELECT + " GROUP BY season";
+    private static final String SUMMARY_SQL = "SELECT s.season, b.total_budget, COALESCE(t.total_spent, 0), "
+            + "COALESCE(t.gift_count, 0), COALESCE(t.person_count, 0) "
+            + "FROM (SELECT season FROM season_totals UNION SELECT season FROM season_budgets) s "
+            + "LEFT JOIN season_totals t ON t.season = s.season "
+            + "LEFT JOIN season_budgets b ON b.season = s.season ORDER BY s.season";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+
+    public SeasonTotals(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * The season gifts default to: the current calendar year.
+     */
+    public static int currentSeason() {
+        return Year.now().getValue();
+    }
+
+    /**
+     * Every season with gifts or a budget, oldest first, each compared with the season before it.
+     */
+    public List<SeasonSummaryDto> getSummaries() {
+        List<SeasonSummaryDto> seasons = jdbcTemplate.query(SUMMARY_SQL,
+                (rs, rowNum) -> new SeasonSummaryDto(rs.getInt(1), rs.getBigDecimal(2), rs.getBigDecimal(3),
+                        rs.getLong(4), rs.getInt(5), null));
+        for (int i = 1; i < seasons.size(); i++) {
+            SeasonSummaryDto previous = seasons.get(i - 1);
+            SeasonSummaryDto season = seasons.get(i);
+            if (previous.getSeason() == season.getSeason() - 1 && previous.getGiftCount() > 0) {
+                season.setSpentChange(season.getTotalSpent().subtract(previous.getTotalSpent()));
+            }
+        }
+        return seasons;
+    }
+
+    /**
+     * Schedules the season's totals for recomputation once the current transaction commits.
+     */
+    public void markDirty(int season) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(Set.of(season));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Integer> dirty = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+        if (dirty == null) {
+            Set<Integer> seasons = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, seasons);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SeasonTotals.this);
+                    if (status == STATUS_COMMITTED) {
+                        refreshQuietly(seasons);
+                    }
+                }
+            });
+            dirty = seasons;
+        }
+        dirty.add(season);
+    }
+
+    void refresh(Collection<Integer> seasons) {
+        List<Object[]> mergeArgs = seasons.stream().map(season -> new Object[]{season}).toList();
+        List<Object[]> deleteArgs = seasons.stream().map(season -> new Object[]{season, season}).toList();
+        newTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(MERGE_SQL, mergeArgs);
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_SQL, deleteArgs);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Integer rows = newTransaction.execute(status -> {
+            jdbcTemplate.update("DELETE FROM season_totals");
+            return jdbcTemplate.update(REBUILD_SQL);
+        });
+        log.info("Rebuilt season totals ({} seasons)", rows);
+    }
+
+    private void refreshQuietly(Collection<Integer> seasons) {
+        try {
+            refresh(seasons);
+        } catch (RuntimeException e) {
+            // The startup rebuild repairs the rows
+            log.error("Failed to refresh season totals for {}", seasons, e);
+        }
+    }
+}
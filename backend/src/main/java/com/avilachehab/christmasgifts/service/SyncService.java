@@ -0,0 +1,150 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.PersonDto;
+import com.avilachehab.christmasgifts.dto.RoasterDto;
+import com.avilachehab.christmasgifts.dto.SyncDto;
+import com.avilachehab.christmasgifts.dto.TombstoneDto;
+import com.avilachehab.christmasgifts.model.Coffee;
+import com.avilachehab.christmasgifts.model.Gift;
+import com.avilachehab.christmasgifts.model.Person;
+import com.avilachehab.christmasgifts.model.Roaster;
+import com.avilachehab.christmasgifts.model.Tombstone;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.GiftRepository;
+import com.avilachehab.christmasgifts.repository.PersonRepository;
+import com.avilachehab.christmasgifts.repository.RoasterRepository;
+import com.avilachehab.christmasgifts.repository.TombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync over the change sequence stamped by {@link ChangeTracker}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+    
+    static final int MAX_LIMIT = 1000;
+    
+    private static final String PURGED_THROUGH_SQL = "SELECT tombstones_purged_through FROM sync_state WHERE id = 1";
+    private static final String ADVANCE_PURGED_THROUGH_SQL =
+            "UPDATE sync_state SET tombstones_purged_through = ? WHERE id = 1 AND tombstones_purged_through < ?";
+    
+    private final CoffeeRepository coffeeRepository;
+    private final RoasterRepository roasterRepository;
+    private final PersonRepository personRepository;
+    private final GiftRepository giftRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final CoffeeService coffeeService;
+    private final GiftService giftService;
+    private final ChangeTracker changeTracker;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
+    
+    /**
+     * Returns up to {@code limit} changes after {@code since} in change order. The cursor only
+     * advances past changes that are already committed, so a write committing late is never
+     * skipped.
+     */
+    @Transactional(readOnly = true)
+    public SyncDto getChangesSince(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        SyncDto sync = new SyncDto();
+        sync.setSince(since);
+        if (since > 0 && since < purgedThrough()) {
+            sync.setReset(true);
+            sync.setCursor(since);
+            return sync;
+        }
+        
+        long before = changeTracker.stableHorizon();
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<Coffee> coffees = coffeeRepository.findChangedBetween(since, before, page);
+        List<Roaster> roasters = roasterRepository.findChangedBetween(since, before, page);
+        List<Person> persons = personRepository.findChangedBetween(since, before, page);
+        List<Gift> gifts = giftRepository.findChangedBetween(since, before, page);
+        List<Tombstone> tombstones = tombstoneRepository.findChangedBetween(since, before, page);
+        
+        // Each table returned its first pageSize + 1 changes, so together they hold the first pageSize + 1 overall
+        List<Long> seqs = new ArrayList<>();
+        coffees.forEach(coffee -> seqs.add(coffee.getChangeSeq()));
+        roasters.forEach(roaster -> seqs.add(roaster.getChangeSeq()));
+        persons.forEach(person -> seqs.add(person.getChangeSeq()));
+        gifts.forEach(gift -> seqs.add(gift.getChangeSeq()));
+        tombstones.forEach(tombstone -> seqs.add(tombstone.getChangeSeq()));
+        Collections.sort(seqs);
+        
+        long cursor;
+        if (seqs.size() > pageSize) {
+            cursor = seqs.get(pageSize - 1);
+            sync.setHasMore(true);
+        } else {
+            // Nothing below the horizon is left to show up, so the cursor can skip the gaps
+            cursor = Math.max(since, before - 1);
+        }
+        sync.setCursor(cursor);
+        
+        sync.setCoffees(coffees.stream()
+                .filter(coffee -> coffee.getChangeSeq() <= cursor)
+                .map(coffeeService::convertToDto)
+                .collect(Collectors.toList()));
+        sync.setRoasters(roasters.stream()
+                .filter(roaster -> roaster.getChangeSeq() <= cursor)
+                .map(roaster -> new RoasterDto(roaster.getId(), roaster.getName(), roaster.getLocation(),
+                        roaster.getWebsite(), roaster.getNotes(), null, null, null))
+                .collect(Collectors.toList()));
+        sync.setPersons(persons.stream()
+                .filter(person -> person.getChangeSeq() <= cursor)
+                .map(person -> new PersonDto(person.getId(), person.getName(), null, null, null, person.getAllowance()))
+                .collect(Collectors.toList()));
+        sync.setGifts(gifts.stream()
+                .filter(gift -> gift.getChangeSeq() <= cursor)
+                .map(giftService::convertToDto)
+                .collect(Collectors.toList()));
+        sync.setDeleted(tombstones.stream()
+                .filter(tombstone -> tombstone.getChangeSeq() <= cursor)
+                .map(tombstone -> new TombstoneDto(tombstone.getEntityType(), tombstone.getEntityId()))
+                .collect(Collectors.toList()));
+        return sync;
+    }
+    
+    /**
+     * Drops tombstones older than the retention window. Clients whose cursor is below the purged
+     * range get {@code reset} and start over from {@code since=0}.
+     */
+    @Scheduled(fixedDelayString = "${app.sync.tombstone-gc-interval-ms:3600000}",
+            initialDelayString = "${app.sync.tombstone-gc-interval-ms:3600000}")
+    @Transactional
+    public int purgeTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        Long through = tombstoneRepository.findLatestChangeSeqBefore(cutoff);
+        if (through == null) {
+            return 0;
+        }
+        jdbcTemplate.update(ADVANCE_PURGED_THROUGH_SQL, through, through);
+        int purged = tombstoneRepository.deleteThrough(through);
+        log.info("Purged {} tombstones through change {}", purged, through);
+        return purged;
+    }
+    
+    private long purgedThrough() {
+        Long purged = jdbcTemplate.queryForObject(PURGED_THROUGH_SQL, Long.class);
+        return purged != null ? purged : 0;
+    }
+}
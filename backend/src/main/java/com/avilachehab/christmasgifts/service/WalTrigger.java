@@ -0,0 +1,29 @@
+package com.avilachehab.christmasgifts.service;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Row trigger H2 fires after every insert, update and delete on a logged table; hands the row
+ * images to the {@link DurableStore} logging its database. Installed by
+ * {@link DurableStore#start()}.
+ */
+public class WalTrigger implements Trigger {
+
+    private String database;
+    private String tableName;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        this.database = conn.getCatalog();
+        this.tableName = tableName;
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+        DurableStore.captured(database, tableName, oldRow, newRow);
+    }
+}
@@ -0,0 +1,184 @@
+package com.avilachehab.christmasgifts.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records in numbered, memory-mapped segment files
+ * ({@code wal-00000001.log}, ...).
+ * <p>
+ * Each record is {@code [length][crc32c][payload]}; a new segment is zero-filled, so a zero length
+ * marks the end of its records and a checksum mismatch marks a torn write. Writes land in the page
+ * cache as soon as they are copied into the mapping, so they survive a JVM crash without
+ * {@link #force()}; forcing is only needed against power loss.
+ */
+final class WriteAheadLog implements Closeable {
+
+    static final int HEADER_BYTES = 8;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d+)\\.log");
+
+    private final Path dir;
+    private final int segmentSize;
+
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int forcedThrough; // buffer position already forced
+
+    WriteAheadLog(Path dir, int segmentSize, long firstSegment) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        open(firstSegment, segmentSize);
+    }
+
+    static Path segmentPath(Path dir, long segment) {
+        return dir.resolve(String.format("wal-%08d.log", segment));
+    }
+
+    /**
+     * Segment numbers present in {@code dir}, ascending.
+     */
+    static List<Long> segments(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the records of every segment from {@code fromSegment} on, in order. Stops at the first
+     * torn record, since anything after it cannot be trusted to follow it.
+     */
+    static List<byte[]> read(Path dir, long fromSegment) {
+        List<byte[]> records = new ArrayList<>();
+        for (long segment : segments(dir)) {
+            if (segment < fromSegment) {
+                continue;
+            }
+            try (FileChannel file = FileChannel.open(segmentPath(dir, segment), StandardOpenOption.READ)) {
+                MappedByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                while (data.remaining() >= HEADER_BYTES) {
+                    int length = data.getInt();
+                    int crc = data.getInt();
+                    if (length == 0) {
+                        break;
+                    }
+                    if (length < 0 || length > data.remaining()) {
+                        return records;
+                    }
+                    byte[] payload = new byte[length];
+                    data.get(payload);
+                    if (checksum(payload) != crc) {
+                        return records;
+                    }
+                    records.add(payload);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return records;
+    }
+
+    synchronized long currentSegment() {
+        return segment;
+    }
+
+    /**
+     * Bytes written to the current segment.
+     */
+    synchronized int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Appends one record, moving to the next segment when it does not fit, and returns its size.
+     */
+    synchronized int append(byte[] payload) {
+        int size = HEADER_BYTES + payload.length;
+        // Keep room for the zero length that ends the segment
+        if (buffer.remaining() < size + HEADER_BYTES) {
+            force();
+            open(segment + 1, Math.max(segmentSize, size + HEADER_BYTES));
+        }
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(payload));
+        buffer.put(payload);
+        return size;
+    }
+
+    /**
+     * Flushes the records written since the last call to the device.
+     */
+    synchronized void force() {
+        int position = buffer.position();
+        if (position > forcedThrough) {
+            buffer.force(forcedThrough, position - forcedThrough);
+            forcedThrough = position;
+        }
+    }
+
+    /**
+     * Forces the current segment and starts an empty one; returns the new segment's number.
+     */
+    synchronized long rotate() {
+        force();
+        open(segment + 1, segmentSize);
+        return segment;
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        closeChannel();
+    }
+
+    private void open(long next, int size) {
+        closeChannel();
+        try {
+            Path path = segmentPath(dir, next);
+            Files.deleteIfExists(path);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            segment = next;
+            forcedThrough = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,41 @@
+-- Hot/cold split for coffees. A bag is finished when its weight reaches zero; CoffeeArchiver moves
+-- it to coffee_archive after a grace period so active-inventory reads only scan bags in use.
+-- History reads (spend analytics, the roaster scoreboard) go through the coffee_history view.
+
+ALTER TABLE coffees ADD COLUMN finished_at TIMESTAMP(6);
+UPDATE coffees SET finished_at = CURRENT_TIMESTAMP WHERE current_weight = 0;
+CREATE INDEX idx_coffees_finished_at ON coffees (finished_at);
+
+CREATE TABLE coffee_archive (
+    id                BIGINT         NOT NULL PRIMARY KEY,
+    coffee_name       VARCHAR(255)   NOT NULL,
+    roast_date        DATE           NOT NULL,
+    purchase_date     DATE           NOT NULL,
+    initial_weight    NUMERIC(10, 2) NOT NULL,
+    current_weight    NUMERIC(10, 2) NOT NULL,
+    origin            VARCHAR(255),
+    roast_level       VARCHAR(255),
+    processing_method VARCHAR(255),
+    price             NUMERIC(10, 2),
+    notes             VARCHAR(2000),
+    roaster_id        BIGINT         NOT NULL,
+    change_seq        BIGINT         NOT NULL,
+    finished_at       TIMESTAMP(6)   NOT NULL,
+    archived_at       TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT fk_coffee_archive_roaster FOREIGN KEY (roaster_id) REFERENCES roasters (id) ON DELETE CASCADE
+);
+
+-- Archive listing per roaster and overall, newest first; the scoreboard's per-roaster refresh
+CREATE INDEX idx_coffee_archive_roaster ON coffee_archive (roaster_id, finished_at);
+CREATE INDEX idx_coffee_archive_finished_at ON coffee_archive (finished_at);
+-- Date-range filters of the spend analytics
+CREATE INDEX idx_coffee_archive_purchase_date ON coffee_archive (purchase_date, price, initial_weight);
+
+CREATE VIEW coffee_history AS
+SELECT id, coffee_name, roast_date, purchase_date, initial_weight, current_weight, origin, roast_level,
+       processing_method, price, notes, roaster_id, finished_at
+FROM coffees
+UNION ALL
+SELECT id, coffee_name, roast_date, purchase_date, initial_weight, current_weight, origin, roast_level,
+       processing_method, price, notes, roaster_id, finished_at
+FROM coffee_archive;
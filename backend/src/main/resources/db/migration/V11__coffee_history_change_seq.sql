@@ -0,0 +1,11 @@
+-- The inventory snapshot loads and re-reads bags through coffee_history, archived ones included, and
+-- orders its updates by change_seq, so the view exposes it.
+
+CREATE OR REPLACE VIEW coffee_history AS
+SELECT id, coffee_name, roast_date, purchase_date, initial_weight, current_weight, origin, roast_level,
+       processing_method, price, notes, roaster_id, finished_at, change_seq
+FROM coffees
+UNION ALL
+SELECT id, coffee_name, roast_date, purchase_date, initial_weight, current_weight, origin, roast_level,
+       processing_method, price, notes, roaster_id, finished_at, change_seq
+FROM coffee_archive;
@@ -0,0 +1,3 @@
+-- Person names are stored trimmed so the bulk upsert matches them exactly through idx_persons_name.
+
+UPDATE persons SET name = TRIM(name) WHERE name <> TRIM(name);
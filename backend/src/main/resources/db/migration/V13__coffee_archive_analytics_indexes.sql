@@ -0,0 +1,8 @@
+-- The spend and volume analytics group over coffee_history, so the archive half of the view needs
+-- the same covering indexes V4 put on coffees. idx_coffee_archive_purchase_date (V10) already
+-- mirrors idx_coffees_purchase_date.
+
+CREATE INDEX idx_coffee_archive_roaster_spend ON coffee_archive (roaster_id, purchase_date, price, initial_weight);
+CREATE INDEX idx_coffee_archive_origin_spend ON coffee_archive (origin, purchase_date, price, initial_weight);
+CREATE INDEX idx_coffee_archive_roast_level_spend ON coffee_archive (roast_level, purchase_date, price, initial_weight);
+CREATE INDEX idx_coffee_archive_processing_spend ON coffee_archive (processing_method, purchase_date, price, initial_weight);
@@ -0,0 +1,58 @@
+-- Baseline: the schema previously created by spring.jpa.hibernate.ddl-auto=update, plus the
+-- consumption ledger tables. Databases created before Flyway are not baselined; they are recreated.
+
+CREATE TABLE roasters (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name     VARCHAR(255) NOT NULL,
+    location VARCHAR(255),
+    website  VARCHAR(255),
+    notes    VARCHAR(1000)
+);
+
+CREATE TABLE coffees (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    coffee_name       VARCHAR(255)   NOT NULL,
+    roast_date        DATE           NOT NULL,
+    purchase_date     DATE           NOT NULL,
+    initial_weight    NUMERIC(10, 2) NOT NULL,
+    current_weight    NUMERIC(10, 2) NOT NULL,
+    origin            VARCHAR(255),
+    roast_level       VARCHAR(255) CHECK (roast_level IN ('LIGHT', 'MEDIUM', 'MEDIUM_DARK', 'DARK')),
+    processing_method VARCHAR(255),
+    price             NUMERIC(10, 2),
+    notes             VARCHAR(2000),
+    roaster_id        BIGINT         NOT NULL,
+    CONSTRAINT fk_coffees_roaster FOREIGN KEY (roaster_id) REFERENCES roasters (id)
+);
+
+CREATE TABLE persons (
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE gifts (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(255)   NOT NULL,
+    price       NUMERIC(10, 2) NOT NULL,
+    person_id   BIGINT         NOT NULL,
+    CONSTRAINT fk_gifts_person FOREIGN KEY (person_id) REFERENCES persons (id)
+);
+
+CREATE SEQUENCE consumption_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE consumption_events (
+    id          BIGINT         NOT NULL PRIMARY KEY,
+    coffee_id   BIGINT         NOT NULL,
+    amount      NUMERIC(10, 2) NOT NULL,
+    consumed_on DATE           NOT NULL,
+    consumed_at TIMESTAMP(6)   NOT NULL
+);
+
+CREATE TABLE consumption_daily_rollups (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    coffee_id    BIGINT         NOT NULL,
+    rollup_day   DATE           NOT NULL,
+    total_amount NUMERIC(12, 2) NOT NULL,
+    event_count  INTEGER        NOT NULL,
+    CONSTRAINT uk_consumption_rollups_coffee_day UNIQUE (coffee_id, rollup_day)
+);
@@ -0,0 +1,19 @@
+-- Indexes for the lookups behind the main endpoints.
+-- H2 already backs foreign keys with an index of its own; the explicit FK-column indexes keep
+-- the plans the same on databases that don't (e.g. PostgreSQL).
+
+-- Roaster -> coffees (findByRoasterId and the Roaster.coffees collection load)
+CREATE INDEX idx_coffees_roaster_id ON coffees (roaster_id);
+-- Freshness / aging scans
+CREATE INDEX idx_coffees_roast_date ON coffees (roast_date);
+CREATE INDEX idx_coffees_coffee_name ON coffees (coffee_name);
+
+-- Person -> gifts (findByPersonId and the Person.gifts collection load)
+CREATE INDEX idx_gifts_person_id ON gifts (person_id);
+
+CREATE INDEX idx_roasters_name ON roasters (name);
+CREATE INDEX idx_persons_name ON persons (name);
+
+-- Rollup and compaction range scans over the ledger
+CREATE INDEX idx_consumption_events_consumed_on ON consumption_events (consumed_on);
+CREATE INDEX idx_consumption_rollups_rollup_day ON consumption_daily_rollups (rollup_day);
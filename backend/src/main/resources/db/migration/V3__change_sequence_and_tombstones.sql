@@ -0,0 +1,38 @@
+-- Delta sync: every write stamps the row with the next value of change_seq, deletions leave a
+-- tombstone, and GET /api/sync returns what changed after a client's cursor.
+
+CREATE SEQUENCE change_seq START WITH 1 INCREMENT BY 1;
+
+ALTER TABLE roasters ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE coffees ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE persons ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE gifts ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+
+-- Existing rows count as changed after cursor 0 so a first full sync sees them
+UPDATE roasters SET change_seq = NEXT VALUE FOR change_seq;
+UPDATE coffees SET change_seq = NEXT VALUE FOR change_seq;
+UPDATE persons SET change_seq = NEXT VALUE FOR change_seq;
+UPDATE gifts SET change_seq = NEXT VALUE FOR change_seq;
+
+CREATE INDEX idx_roasters_change_seq ON roasters (change_seq);
+CREATE INDEX idx_coffees_change_seq ON coffees (change_seq);
+CREATE INDEX idx_persons_change_seq ON persons (change_seq);
+CREATE INDEX idx_gifts_change_seq ON gifts (change_seq);
+
+CREATE TABLE tombstones (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entity_type VARCHAR(32)  NOT NULL,
+    entity_id   BIGINT       NOT NULL,
+    change_seq  BIGINT       NOT NULL,
+    deleted_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_tombstones_change_seq ON tombstones (change_seq);
+
+-- Highest change_seq whose tombstone was garbage-collected; cursors below it must resync
+CREATE TABLE sync_state (
+    id                        INTEGER NOT NULL PRIMARY KEY,
+    tombstones_purged_through BIGINT  NOT NULL
+);
+
+INSERT INTO sync_state (id, tombstones_purged_through) VALUES (1, 0);
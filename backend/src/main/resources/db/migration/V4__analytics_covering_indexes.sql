@@ -0,0 +1,9 @@
+-- Covering indexes for GET /api/analytics/spend and /volume: each leads with a group-by
+-- dimension and carries every column the aggregate reads, so the queries never touch the table.
+-- idx_coffees_purchase_date serves grouping by purchase month and plain date-range filters.
+
+CREATE INDEX idx_coffees_purchase_date ON coffees (purchase_date, price, initial_weight);
+CREATE INDEX idx_coffees_roaster_spend ON coffees (roaster_id, purchase_date, price, initial_weight);
+CREATE INDEX idx_coffees_origin_spend ON coffees (origin, purchase_date, price, initial_weight);
+CREATE INDEX idx_coffees_roast_level_spend ON coffees (roast_level, purchase_date, price, initial_weight);
+CREATE INDEX idx_coffees_processing_spend ON coffees (processing_method, purchase_date, price, initial_weight);
@@ -0,0 +1,17 @@
+-- Precomputed roaster scoreboard for GET /api/roasters/scoreboard. Rows are refreshed per roaster
+-- after every committed coffee write and rebuilt on startup and nightly (grams_per_day depends on
+-- the current date). Each metric is indexed so top-k reads stop after k rows.
+
+CREATE TABLE roaster_scores (
+    roaster_id           BIGINT         PRIMARY KEY,
+    bags                 INTEGER        NOT NULL,
+    avg_days_to_purchase NUMERIC(10, 2) NOT NULL,
+    price_per_gram       NUMERIC(10, 4),
+    grams_per_day        NUMERIC(10, 2) NOT NULL,
+    refreshed_at         TIMESTAMP      NOT NULL,
+    CONSTRAINT fk_roaster_scores_roaster FOREIGN KEY (roaster_id) REFERENCES roasters (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_roaster_scores_freshness ON roaster_scores (avg_days_to_purchase);
+CREATE INDEX idx_roaster_scores_price_per_gram ON roaster_scores (price_per_gram);
+CREATE INDEX idx_roaster_scores_grams_per_day ON roaster_scores (grams_per_day);
@@ -0,0 +1,4 @@
+-- Covering index for the budget summary: per-person gift counts and totals are read from the
+-- index alone, without visiting the gifts table.
+
+CREATE INDEX idx_gifts_person_price ON gifts (person_id, price);
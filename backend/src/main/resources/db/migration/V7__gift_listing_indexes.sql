@@ -0,0 +1,5 @@
+-- Keyset pagination for GET /api/gifts: each sort key with the id tie-breaker, so a page is an
+-- index range scan that stops after `limit` rows. Per-person listings use idx_gifts_person_price.
+
+CREATE INDEX idx_gifts_price_id ON gifts (price, id);
+CREATE INDEX idx_gifts_description_id ON gifts (description, id);
@@ -0,0 +1,3 @@
+-- Optional per-person gift allowance; spending against it is tracked in memory by BudgetCounters.
+
+ALTER TABLE persons ADD COLUMN allowance NUMERIC(10, 2);
@@ -0,0 +1,28 @@
+-- Gifts belong to a season (the Christmas year). Existing gifts are assigned to the season the
+-- migration runs in. Season-scoped listings and budget reads lead with the season column, so the
+-- current season is an index range however many past seasons are kept.
+
+ALTER TABLE gifts ADD COLUMN season INTEGER;
+UPDATE gifts SET season = YEAR(CURRENT_DATE);
+ALTER TABLE gifts ALTER COLUMN season SET NOT NULL;
+
+CREATE INDEX idx_gifts_season_id ON gifts (season, id);
+CREATE INDEX idx_gifts_season_person_price ON gifts (season, person_id, price);
+CREATE INDEX idx_gifts_season_price_id ON gifts (season, price, id);
+CREATE INDEX idx_gifts_season_description_id ON gifts (season, description, id);
+
+-- Budget set for each season (GET/PUT /api/budget/seasons)
+CREATE TABLE season_budgets (
+    season       INTEGER        PRIMARY KEY,
+    total_budget NUMERIC(12, 2) NOT NULL
+);
+
+-- Pre-aggregated spending per season for year-over-year comparison. Rows are refreshed per season
+-- after every committed gift write and rebuilt on startup.
+CREATE TABLE season_totals (
+    season       INTEGER        PRIMARY KEY,
+    total_spent  NUMERIC(14, 2) NOT NULL,
+    gift_count   BIGINT         NOT NULL,
+    person_count INTEGER        NOT NULL,
+    refreshed_at TIMESTAMP      NOT NULL
+);
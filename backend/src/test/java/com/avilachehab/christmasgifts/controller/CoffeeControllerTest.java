@@ -1,15 +1,24 @@
 package com.avilachehab.christmasgifts.controller;
 
+import com.avilachehab.christmasgifts.config.BinaryFormatConfig;
 import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.ConsumptionForecastDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.filter.JwtAuthenticationFilter;
 import com.avilachehab.christmasgifts.model.RoastLevel;
+import com.avilachehab.christmasgifts.service.CoffeeArchiver;
 import com.avilachehab.christmasgifts.service.CoffeeService;
+import com.avilachehab.christmasgifts.service.ConsumptionService;
+import com.avilachehab.christmasgifts.service.ConsumptionWriteBuffer;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -18,6 +27,7 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -25,6 +35,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = CoffeeController.class)
+@Import(BinaryFormatConfig.class)
 @AutoConfigureMockMvc(addFilters = false)
 class CoffeeControllerTest {
 
@@ -34,6 +45,15 @@ class CoffeeControllerTest {
     @MockBean
     private CoffeeService coffeeService;
 
+    @MockBean
+    private ConsumptionService consumptionService;
+
+    @MockBean
+    private ConsumptionWriteBuffer consumptionWriteBuffer;
+
+    @MockBean
+    private CoffeeArchiver coffeeArchiver;
+
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -53,7 +73,7 @@ class CoffeeControllerTest {
         coffee2.setCoffeeName("Colombian");
         coffee2.setCurrentWeight(BigDecimal.valueOf(150));
 
-        when(coffeeService.getAllCoffees()).thenReturn(Arrays.asList(coffee1, coffee2));
+        when(coffeeService.getAllCoffees(FieldSelection.ALL)).thenReturn(Arrays.asList(coffee1, coffee2));
 
         // When/Then
         mockMvc.perform(get("/api/coffees"))
@@ -64,7 +84,7 @@ class CoffeeControllerTest {
                 .andExpect(jsonPath("$[0].coffeeName").value("Ethiopian Yirgacheffe"))
                 .andExpect(jsonPath("$[1].id").value(2));
 
-        verify(coffeeService, times(1)).getAllCoffees();
+        verify(coffeeService, times(1)).getAllCoffees(FieldSelection.ALL);
     }
 
     @Test
@@ -75,7 +95,7 @@ class CoffeeControllerTest {
         coffee.setCoffeeName("Ethiopian Yirgacheffe");
         coffee.setRoastLevel(RoastLevel.LIGHT);
 
-        when(coffeeService.getCoffeeById(1L)).thenReturn(coffee);
+        when(coffeeService.getCoffeeById(1L, FieldSelection.ALL)).thenReturn(coffee);
 
         // When/Then
         mockMvc.perform(get("/api/coffees/1"))
@@ -84,7 +104,7 @@ class CoffeeControllerTest {
                 .andExpect(jsonPath("$.coffeeName").value("Ethiopian Yirgacheffe"))
                 .andExpect(jsonPath("$.roastLevel").value("LIGHT"));
 
-        verify(coffeeService, times(1)).getCoffeeById(1L);
+        verify(coffeeService, times(1)).getCoffeeById(1L, FieldSelection.ALL);
     }
 
     @Test
@@ -95,7 +115,7 @@ class CoffeeControllerTest {
         coffee.setCoffeeName("Ethiopian Yirgacheffe");
         coffee.setRoasterId(1L);
 
-        when(coffeeService.getCoffeesByRoasterId(1L)).thenReturn(List.of(coffee));
+        when(coffeeService.getCoffeesByRoasterId(1L, FieldSelection.ALL)).thenReturn(List.of(coffee));
 
         // When/Then
         mockMvc.perform(get("/api/coffees/roaster/1"))
@@ -103,7 +123,7 @@ class CoffeeControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].roasterId").value(1));
 
-        verify(coffeeService, times(1)).getCoffeesByRoasterId(1L);
+        verify(coffeeService, times(1)).getCoffeesByRoasterId(1L, FieldSelection.ALL);
     }
 
     @Test
@@ -180,6 +200,44 @@ class CoffeeControllerTest {
         verify(coffeeService, times(1)).consumeCoffee(eq(1L), eq(BigDecimal.valueOf(20)));
     }
 
+    @Test
+    void consumeCoffee_WriteBehind_ShouldReturnAcceptedWithProvisionalWeight() throws Exception {
+        // Given
+        CoffeeDto provisional = new CoffeeDto();
+        provisional.setId(1L);
+        provisional.setCurrentWeight(BigDecimal.valueOf(180));
+
+        when(consumptionWriteBuffer.isEnabled()).thenReturn(true);
+        when(consumptionWriteBuffer.accept(eq(1L), eq(BigDecimal.valueOf(20)))).thenReturn(provisional);
+
+        // When/Then
+        mockMvc.perform(post("/api/coffees/1/consume")
+                        .param("amount", "20"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.currentWeight").value(180));
+
+        verify(coffeeService, never()).consumeCoffee(any(), any());
+    }
+
+    @Test
+    void getForecast_ShouldReturnForecast() throws Exception {
+        // Given
+        ConsumptionForecastDto forecast = new ConsumptionForecastDto(
+                1L, BigDecimal.valueOf(180), BigDecimal.valueOf(18), 14, 10L, LocalDate.of(2026, 1, 11));
+
+        when(consumptionService.getForecast(1L)).thenReturn(forecast);
+
+        // When/Then
+        mockMvc.perform(get("/api/coffees/1/forecast"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.coffeeId").value(1))
+                .andExpect(jsonPath("$.dailyConsumptionRate").value(18))
+                .andExpect(jsonPath("$.daysRemaining").value(10))
+                .andExpect(jsonPath("$.projectedEmptyDate").value("2026-01-11"));
+
+        verify(consumptionService, times(1)).getForecast(1L);
+    }
+
     @Test
     void deleteCoffee_ShouldReturnNoContent() throws Exception {
         // Given
@@ -191,5 +249,53 @@ class CoffeeControllerTest {
 
         verify(coffeeService, times(1)).deleteCoffee(1L);
     }
-}
 
+    @Test
+    void getAllCoffees_WithFields_ShouldReturnOnlySelectedFields() throws Exception {
+        // Given
+        CoffeeDto coffee = new CoffeeDto();
+        coffee.setId(1L);
+        coffee.setCoffeeName("Ethiopian Yirgacheffe");
+        coffee.setNotes("Not requested");
+
+        when(coffeeService.getAllCoffees(any(FieldSelection.class))).thenReturn(List.of(coffee));
+
+        // When/Then
+        mockMvc.perform(get("/api/coffees").param("fields", "id,coffeeName"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"coffeeName\":\"Ethiopian Yirgacheffe\"}]", true));
+    }
+
+    @Test
+    void getAllCoffees_WithCborAccept_ShouldReturnSelectedFieldsAsCbor() throws Exception {
+        // Given
+        CoffeeDto coffee = new CoffeeDto();
+        coffee.setId(1L);
+        coffee.setCoffeeName("Ethiopian Yirgacheffe");
+        coffee.setRoastDate(LocalDate.of(2024, 1, 5));
+        coffee.setNotes("Not requested");
+
+        when(coffeeService.getAllCoffees(any(FieldSelection.class))).thenReturn(List.of(coffee));
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/coffees").param("fields", "id,coffeeName,roastDate")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        JsonNode coffees = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(coffees).isEqualTo(objectMapper.readTree(
+                "[{\"id\":1,\"coffeeName\":\"Ethiopian Yirgacheffe\",\"roastDate\":\"2024-01-05\"}]"));
+    }
+
+    @Test
+    void getAllCoffees_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/coffees").param("fields", "id,secret"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(coffeeService);
+    }
+}
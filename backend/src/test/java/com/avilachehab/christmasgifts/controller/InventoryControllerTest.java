@@ -1,5 +1,9 @@
 package com.avilachehab.christmasgifts.controller;
 
+import com.avilachehab.christmasgifts.config.BinaryFormatConfig;
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.CompactInventorySummaryDto;
+import com.avilachehab.christmasgifts.dto.CompactRoasterDto;
 import com.avilachehab.christmasgifts.dto.InventorySummaryDto;
 import com.avilachehab.christmasgifts.filter.JwtAuthenticationFilter;
 import com.avilachehab.christmasgifts.service.InventoryService;
@@ -8,16 +12,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = InventoryController.class)
+@Import(BinaryFormatConfig.class)
 @AutoConfigureMockMvc(addFilters = false)
 class InventoryControllerTest {
 
@@ -52,5 +63,71 @@ class InventoryControllerTest {
 
         verify(inventoryService, times(1)).getInventorySummary();
     }
-}
 
+    @Test
+    void getInventorySummary_WithCompactFormat_ShouldReturnIdKeyedSummary() throws Exception {
+        // Given
+        when(inventoryService.getCompactInventorySummary()).thenReturn(compactSummary());
+
+        // When/Then
+        mockMvc.perform(get("/api/inventory/summary").param("format", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.coffees.7.coffeeName").value("Kenyan"))
+                .andExpect(jsonPath("$.roasters.1.coffeeIds[0]").value(7))
+                .andExpect(jsonPath("$.lowStockCoffeeIds[0]").value(7))
+                .andExpect(jsonPath("$.agingCoffeeIds").isEmpty());
+
+        verify(inventoryService, never()).getInventorySummary();
+    }
+
+    @Test
+    void getInventorySummary_WithCompactMediaType_ShouldReturnCompactSummary() throws Exception {
+        // Given
+        when(inventoryService.getCompactInventorySummary()).thenReturn(compactSummary());
+
+        // When/Then
+        mockMvc.perform(get("/api/inventory/summary").accept(InventoryController.COMPACT_MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(InventoryController.COMPACT_MEDIA_TYPE))
+                .andExpect(jsonPath("$.totalBags").value(1))
+                .andExpect(jsonPath("$.lowStockCoffeeIds[0]").value(7));
+
+        verify(inventoryService, never()).getInventorySummary();
+    }
+
+    @Test
+    void getInventorySummary_WithSmileAccept_ShouldReturnSameSummaryAsSmile() throws Exception {
+        // Given
+        CoffeeDto coffee = new CoffeeDto();
+        coffee.setId(7L);
+        coffee.setCoffeeName("Kenyan");
+        coffee.setRoastDate(LocalDate.of(2024, 1, 5));
+        coffee.setPrice(new BigDecimal("18.90"));
+        InventorySummaryDto summary = new InventorySummaryDto(BigDecimal.valueOf(550), 3,
+                new BigDecimal("0.0605"), new BigDecimal("63.50"), List.of(coffee), List.of(), List.of());
+
+        when(inventoryService.getInventorySummary()).thenReturn(summary);
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/inventory/summary").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        InventorySummaryDto decoded = Jackson2ObjectMapperBuilder.smile().build()
+                .readValue(body, InventorySummaryDto.class);
+        assertThat(decoded).isEqualTo(summary);
+    }
+
+    private CompactInventorySummaryDto compactSummary() {
+        CoffeeDto coffee = new CoffeeDto();
+        coffee.setId(7L);
+        coffee.setCoffeeName("Kenyan");
+        coffee.setRoasterId(1L);
+        CompactRoasterDto roaster = new CompactRoasterDto(1L, "Blue Bottle", null, null, null,
+                List.of(7L), BigDecimal.valueOf(20), 1);
+        return new CompactInventorySummaryDto(BigDecimal.valueOf(40), 1, BigDecimal.valueOf(0.08),
+                BigDecimal.valueOf(20), Map.of(7L, coffee), Map.of(1L, roaster), List.of(7L), List.of());
+    }
+}
@@ -1,7 +1,11 @@
 package com.avilachehab.christmasgifts.controller;
 
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.RoasterDto;
+import com.avilachehab.christmasgifts.dto.RoasterScoreDto;
 import com.avilachehab.christmasgifts.filter.JwtAuthenticationFilter;
+import com.avilachehab.christmasgifts.service.RoasterScoreboard;
 import com.avilachehab.christmasgifts.service.RoasterService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -14,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -31,6 +36,9 @@ class RoasterControllerTest {
     @MockBean
     private RoasterService roasterService;
 
+    @MockBean
+    private RoasterScoreboard roasterScoreboard;
+
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -50,7 +58,7 @@ class RoasterControllerTest {
         roaster2.setName("Stumptown");
         roaster2.setTotalSpent(BigDecimal.valueOf(30.00));
 
-        when(roasterService.getAllRoasters()).thenReturn(Arrays.asList(roaster1, roaster2));
+        when(roasterService.getAllRoasters(FieldSelection.ALL)).thenReturn(Arrays.asList(roaster1, roaster2));
 
         // When/Then
         mockMvc.perform(get("/api/roasters"))
@@ -62,7 +70,7 @@ class RoasterControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].name").value("Stumptown"));
 
-        verify(roasterService, times(1)).getAllRoasters();
+        verify(roasterService, times(1)).getAllRoasters(FieldSelection.ALL);
     }
 
     @Test
@@ -73,7 +81,7 @@ class RoasterControllerTest {
         roaster.setName("Blue Bottle");
         roaster.setLocation("Oakland, CA");
 
-        when(roasterService.getRoasterById(1L)).thenReturn(roaster);
+        when(roasterService.getRoasterById(1L, FieldSelection.ALL)).thenReturn(roaster);
 
         // When/Then
         mockMvc.perform(get("/api/roasters/1"))
@@ -83,7 +91,7 @@ class RoasterControllerTest {
                 .andExpect(jsonPath("$.name").value("Blue Bottle"))
                 .andExpect(jsonPath("$.location").value("Oakland, CA"));
 
-        verify(roasterService, times(1)).getRoasterById(1L);
+        verify(roasterService, times(1)).getRoasterById(1L, FieldSelection.ALL);
     }
 
     @Test
@@ -146,5 +154,42 @@ class RoasterControllerTest {
 
         verify(roasterService, times(1)).deleteRoaster(1L);
     }
-}
 
+    @Test
+    void getAllRoasters_WithNestedFields_ShouldNarrowNestedCoffees() throws Exception {
+        // Given
+        CoffeeDto coffee = new CoffeeDto();
+        coffee.setId(3L);
+        coffee.setCurrentWeight(BigDecimal.valueOf(120));
+        coffee.setNotes("Not requested");
+        RoasterDto roaster = new RoasterDto();
+        roaster.setId(1L);
+        roaster.setName("Blue Bottle");
+        roaster.setCoffees(List.of(coffee));
+
+        when(roasterService.getAllRoasters(any(FieldSelection.class))).thenReturn(List.of(roaster));
+
+        // When/Then
+        mockMvc.perform(get("/api/roasters").param("fields", "name,coffees.id,coffees.currentWeight"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(
+                        "[{\"name\":\"Blue Bottle\",\"coffees\":[{\"id\":3,\"currentWeight\":120}]}]", true));
+    }
+
+    @Test
+    void getScoreboard_ShouldReturnTopRoastersForMetric() throws Exception {
+        // Given
+        RoasterScoreDto score = new RoasterScoreDto(1L, "Test Roaster", 3, BigDecimal.valueOf(4.5),
+                BigDecimal.valueOf(0.072), BigDecimal.valueOf(18.25));
+        when(roasterScoreboard.getTop(RoasterScoreboard.Metric.CONSUMPTION_SPEED, 5)).thenReturn(List.of(score));
+
+        // When/Then
+        mockMvc.perform(get("/api/roasters/scoreboard").param("metric", "CONSUMPTION_SPEED").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].roasterId").value(1))
+                .andExpect(jsonPath("$[0].roasterName").value("Test Roaster"))
+                .andExpect(jsonPath("$[0].gramsPerDay").value(18.25));
+
+        verify(roasterService, never()).getRoasterById(any(), any());
+    }
+}
@@ -0,0 +1,89 @@
+package com.avilachehab.christmasgifts.controller;
+
+import com.avilachehab.christmasgifts.dto.ScaleIngestionResultDto;
+import com.avilachehab.christmasgifts.dto.ScaleReadingDto;
+import com.avilachehab.christmasgifts.filter.JwtAuthenticationFilter;
+import com.avilachehab.christmasgifts.service.ScaleIngestionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ScaleReadingController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ScaleReadingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ScaleIngestionService scaleIngestionService;
+
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Test
+    void ingestReadings_ShouldReturnIngestionResult() throws Exception {
+        // Given
+        ScaleIngestionResultDto result = new ScaleIngestionResultDto(
+                1L, 2, 1, BigDecimal.valueOf(18), BigDecimal.valueOf(232));
+
+        when(scaleIngestionService.ingest(eq(1L), anyList())).thenReturn(result);
+
+        // When/Then
+        mockMvc.perform(post("/api/coffees/1/readings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"timestamp\":1000,\"weight\":250.1},{\"timestamp\":1100,\"weight\":250.0}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consumptionEvents").value(1))
+                .andExpect(jsonPath("$.consumedWeight").value(18));
+
+        verify(scaleIngestionService, times(1)).ingest(eq(1L), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingestReadingStream_ShouldParseNewlineDelimitedReadings() throws Exception {
+        // Given
+        List<ScaleReadingDto> received = new ArrayList<>();
+        when(scaleIngestionService.ingestStream(eq(1L), any())).thenAnswer(invocation -> {
+            invocation.<Iterator<ScaleReadingDto>>getArgument(1).forEachRemaining(received::add);
+            return new ScaleIngestionResultDto(1L, received.size(), 0, BigDecimal.ZERO, null);
+        });
+
+        // When/Then
+        mockMvc.perform(post("/api/coffees/1/readings")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"timestamp\":1000,\"weight\":250.1}\n{\"timestamp\":1100,\"weight\":249.9}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.readingsAccepted").value(2));
+
+        assertThat(received).extracting(ScaleReadingDto::getTimestamp).containsExactly(1000L, 1100L);
+    }
+
+    @Test
+    void resetScale_ShouldReturnNoContent() throws Exception {
+        // When/Then
+        mockMvc.perform(delete("/api/coffees/1/readings"))
+                .andExpect(status().isNoContent());
+
+        verify(scaleIngestionService, times(1)).reset(1L);
+    }
+}
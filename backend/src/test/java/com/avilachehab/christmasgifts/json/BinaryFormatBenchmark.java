@@ -0,0 +1,124 @@
+package com.avilachehab.christmasgifts.json;
+
+import com.avilachehab.christmasgifts.config.BinaryFormatConfig;
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.InventorySummaryDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares JSON, CBOR and Smile for the {@code /api/coffees} list and the
+ * {@code /api/inventory/summary} payload: bytes on the wire (raw and gzip) and median encode and
+ * decode time, using the same serializers and settings as the application.
+ * <p>
+ * Without arguments it uses generated inventories of 10k and 100k coffees. To measure real data,
+ * pass files saved from those endpoints as JSON ({@code curl -H "Accept: application/json"});
+ * arrays are read as coffee lists, objects as inventory summaries.
+ * <p>
+ * Not a test; run with
+ * {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.avilachehab.christmasgifts.json.BinaryFormatBenchmark [-Dexec.args="coffees.json"]}
+ */
+public final class BinaryFormatBenchmark {
+
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 15;
+
+    private BinaryFormatBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", mapper(new JsonFactory()));
+        mappers.put("cbor", mapper(new CBORFactory()));
+        mappers.put("smile", mapper(BinaryFormatConfig.smileFactory()));
+        ObjectMapper json = mappers.get("json");
+        JavaType coffeeList = json.getTypeFactory().constructCollectionType(List.class, CoffeeDto.class);
+        JavaType summaryType = json.constructType(InventorySummaryDto.class);
+
+        Map<String, Object> datasets = new LinkedHashMap<>();
+        Map<String, JavaType> types = new LinkedHashMap<>();
+        if (args.length == 0) {
+            for (int size : new int[]{10_000, 100_000}) {
+                InventorySummaryDto summary = InventorySerializationBenchmark.summary(size);
+                List<CoffeeDto> coffees = summary.getRoasters().stream()
+                        .flatMap(roaster -> roaster.getCoffees().stream()).toList();
+                datasets.put(String.format("%,d coffees", size), coffees);
+                types.put(String.format("%,d coffees", size), coffeeList);
+                datasets.put(String.format("summary of %,d coffees", size), summary);
+                types.put(String.format("summary of %,d coffees", size), summaryType);
+            }
+        } else {
+            for (String arg : args) {
+                byte[] bytes = Files.readAllBytes(Path.of(arg));
+                JavaType type = json.readTree(bytes).isArray() ? coffeeList : summaryType;
+                datasets.put(arg, json.readValue(bytes, type));
+                types.put(arg, type);
+            }
+        }
+
+        for (Map.Entry<String, Object> dataset : datasets.entrySet()) {
+            Object value = dataset.getValue();
+            JavaType type = types.get(dataset.getKey());
+            System.out.printf("%s%n", dataset.getKey());
+            for (Map.Entry<String, ObjectMapper> format : mappers.entrySet()) {
+                ObjectMapper mapper = format.getValue();
+                byte[] encoded = mapper.writeValueAsBytes(value);
+                if (!mapper.readValue(encoded, type).equals(value)) {
+                    throw new IllegalStateException(format.getKey() + " does not round-trip " + dataset.getKey());
+                }
+                double[] encodeMillis = new double[ITERATIONS];
+                double[] decodeMillis = new double[ITERATIONS];
+                for (int i = -WARMUP; i < ITERATIONS; i++) {
+                    long start = System.nanoTime();
+                    mapper.writeValue(OutputStream.nullOutputStream(), value);
+                    long encodedAt = System.nanoTime();
+                    mapper.readValue(encoded, type);
+                    long decodedAt = System.nanoTime();
+                    if (i >= 0) {
+                        encodeMillis[i] = (encodedAt - start) / 1_000_000.0;
+                        decodeMillis[i] = (decodedAt - encodedAt) / 1_000_000.0;
+                    }
+                }
+                System.out.printf("  %-6s %,12d bytes raw %,11d gzip   encode %7.1f ms   decode %7.1f ms%n",
+                        format.getKey(), encoded.length, gzip(encoded), median(encodeMillis), median(decodeMillis));
+            }
+        }
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new FieldSelectionModule())
+                .build();
+    }
+
+    private static double median(double[] timings) {
+        Arrays.sort(timings);
+        return timings[timings.length / 2];
+    }
+
+    private static int gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,138 @@
+package com.avilachehab.christmasgifts.json;
+
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.CompactInventorySummaryDto;
+import com.avilachehab.christmasgifts.dto.CompactRoasterDto;
+import com.avilachehab.christmasgifts.dto.InventorySummaryDto;
+import com.avilachehab.christmasgifts.dto.RoasterDto;
+import com.avilachehab.christmasgifts.model.RoastLevel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares {@link InventorySummaryDto} at 10k and 100k coffees with the normalized
+ * {@link CompactInventorySummaryDto} of the same inventory: bytes on the wire (raw and gzip) and
+ * median serialization time.
+ * <p>
+ * Not a test; run with
+ * {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.avilachehab.christmasgifts.json.InventorySerializationBenchmark}
+ */
+public final class InventorySerializationBenchmark {
+
+    private static final int COFFEES_PER_ROASTER = 50;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 21;
+
+    private InventorySerializationBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new FieldSelectionModule())
+                .build();
+
+        for (int size : new int[]{10_000, 100_000}) {
+            InventorySummaryDto summary = summary(size);
+            CompactInventorySummaryDto compact = compact(summary);
+            byte[] nestedBytes = mapper.writeValueAsBytes(summary);
+            byte[] compactBytes = mapper.writeValueAsBytes(compact);
+
+            System.out.printf("%,d coffees: %,d bytes raw, %,d bytes gzip%n",
+                    size, nestedBytes.length, gzip(nestedBytes));
+            System.out.printf("  compact: %,d bytes raw, %,d bytes gzip%n", compactBytes.length, gzip(compactBytes));
+            double[] nestedMillis = new double[ITERATIONS];
+            double[] compactMillis = new double[ITERATIONS];
+            for (int i = -WARMUP; i < ITERATIONS; i++) {
+                // Alternate so both formats see the same JIT and GC conditions
+                double nestedRun = millis(mapper, summary);
+                double compactRun = millis(mapper, compact);
+                if (i >= 0) {
+                    nestedMillis[i] = nestedRun;
+                    compactMillis[i] = compactRun;
+                }
+            }
+            System.out.printf("  nested        %6.1f ms%n", median(nestedMillis));
+            System.out.printf("  compact       %6.1f ms%n", median(compactMillis));
+        }
+    }
+
+    static InventorySummaryDto summary(int size) {
+        List<CoffeeDto> coffees = new ArrayList<>(size);
+        List<RoasterDto> roasters = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long roasterId = i / COFFEES_PER_ROASTER + 1;
+            if (roasters.size() < roasterId) {
+                roasters.add(new RoasterDto(roasterId, "Roaster " + roasterId, "Somewhere", null, null,
+                        new ArrayList<>(), BigDecimal.ZERO, 0));
+            }
+            CoffeeDto coffee = coffee(i + 1L, roasterId);
+            coffees.add(coffee);
+            roasters.get(roasters.size() - 1).getCoffees().add(coffee);
+        }
+        List<CoffeeDto> lowStock = coffees.subList(0, size / 5);
+        List<CoffeeDto> aging = coffees.subList(size / 2, size);
+        return new InventorySummaryDto(BigDecimal.valueOf(size * 212L), size, new BigDecimal("0.0756"),
+                BigDecimal.valueOf(size * 19L), lowStock, aging, roasters);
+    }
+
+    private static CoffeeDto coffee(long id, Long roasterId) {
+        return new CoffeeDto(id, "Coffee \"" + id + "\"", LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 8),
+                BigDecimal.valueOf(250), new BigDecimal("212.50"), "Ethiopia", RoastLevel.LIGHT, "Washed",
+                new BigDecimal("18.90"), "Notes with unicode: café ☕", roasterId, "Roaster " + roasterId,
+                42L, new BigDecimal("85.00"));
+    }
+
+    private static CompactInventorySummaryDto compact(InventorySummaryDto summary) {
+        Map<Long, CoffeeDto> coffees = new LinkedHashMap<>();
+        Map<Long, CompactRoasterDto> roasters = new LinkedHashMap<>();
+        for (RoasterDto roaster : summary.getRoasters()) {
+            List<Long> coffeeIds = new ArrayList<>(roaster.getCoffees().size());
+            for (CoffeeDto coffee : roaster.getCoffees()) {
+                coffees.put(coffee.getId(), coffee);
+                coffeeIds.add(coffee.getId());
+            }
+            roasters.put(roaster.getId(), new CompactRoasterDto(roaster.getId(), roaster.getName(),
+                    roaster.getLocation(), roaster.getWebsite(), roaster.getNotes(), coffeeIds,
+                    roaster.getTotalSpent(), roaster.getCoffeeCount()));
+        }
+        return new CompactInventorySummaryDto(summary.getTotalWeight(), summary.getTotalBags(),
+                summary.getAveragePricePerGram(), summary.getTotalSpent(), coffees, roasters,
+                summary.getLowStockCoffees().stream().map(CoffeeDto::getId).collect(Collectors.toList()),
+                summary.getAgingCoffees().stream().map(CoffeeDto::getId).collect(Collectors.toList()));
+    }
+
+    private static double millis(ObjectMapper mapper, Object summary) throws IOException {
+        long start = System.nanoTime();
+        mapper.writeValue(OutputStream.nullOutputStream(), summary);
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    private static double median(double[] timings) {
+        Arrays.sort(timings);
+        return timings[timings.length / 2];
+    }
+
+    private static int gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,185 @@
+package com.avilachehab.christmasgifts.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AllocationSolverTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should match exhaustive search on small random wishlists")
+    void solve_smallInstances_matchesBruteForce() {
+        // Arrange
+        Random random = new Random(42);
+        for (int round = 0; round < 25; round++) {
+            List<AllocationSolver.Group> groups = new ArrayList<>();
+            for (int g = 0; g < 3; g++) {
+                List<AllocationSolver.Item> items = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    items.add(new AllocationSolver.Item(100 * (1 + random.nextInt(30)), random.nextInt(10)));
+                }
+                long min = random.nextBoolean() ? 0 : 1_000;
+                groups.add(new AllocationSolver.Group(g, min, min + 3_000, items));
+            }
+            long budget = 3_000 + 100L * random.nextInt(60);
+            long expected = bruteForce(groups, budget);
+
+            // Act & Assert
+            if (expected < 0) {
+                assertThatThrownBy(() -> AllocationSolver.solve(groups, budget, deadline(), pool))
+                        .isInstanceOf(IllegalArgumentException.class);
+                continue;
+            }
+            AllocationSolver.Solution solution = AllocationSolver.solve(groups, budget, deadline(), pool);
+            assertThat(solution.value()).isEqualTo(expected);
+            assertThat(solution.optimal()).isTrue();
+            assertThat(solution.gap()).isZero();
+            assertThat(solution.cost()).isLessThanOrEqualTo(budget);
+            for (int g = 0; g < groups.size(); g++) {
+                long cost = solution.choices().get(g).cost();
+                assertThat(cost).isBetween(groups.get(g).minCost(), groups.get(g).maxCost());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should return a feasible allocation and its gap once the deadline has passed")
+    void solve_expiredDeadline_returnsIncumbentWithBound() {
+        // Arrange
+        Random random = new Random(7);
+        List<AllocationSolver.Group> groups = new ArrayList<>();
+        for (int g = 0; g < 40; g++) {
+            List<AllocationSolver.Item> items = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                items.add(new AllocationSolver.Item(100 + random.nextInt(10_000), 1 + random.nextInt(100)));
+            }
+            groups.add(new AllocationSolver.Group(g, 500, 20_000, items));
+        }
+
+        // Act
+        AllocationSolver.Solution solution = AllocationSolver.solve(groups, 250_000, System.nanoTime() - 1, pool);
+
+        // Assert
+        assertThat(solution.optimal()).isFalse();
+        assertThat(solution.cost()).isLessThanOrEqualTo(250_000);
+        assertThat(solution.value()).isPositive();
+        assertThat(solution.upperBound()).isGreaterThanOrEqualTo(solution.value());
+        assertThat(solution.gap()).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject wishlists whose minimum spend no gift set reaches")
+    void solve_unreachableMinimum_throws() {
+        // Arrange
+        List<AllocationSolver.Group> groups = List.of(new AllocationSolver.Group(9, 5_000, 10_000,
+                List.of(new AllocationSolver.Item(1_000, 3), new AllocationSolver.Item(2_000, 4))));
+
+        // Act & Assert
+        assertThatThrownBy(() -> AllocationSolver.solve(groups, 100_000, deadline(), pool))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Person 9");
+    }
+
+    @Test
+    @DisplayName("Should find an exact-spend gift set when prices are coarsened, without claiming optimality")
+    void solve_coarsenedPrices_findsSetAndReportsBound() {
+        // Arrange: 400 candidates force a 2-cent unit, which rounds 2501 + 2499 up past 5000
+        List<AllocationSolver.Item> items = new ArrayList<>();
+        items.add(new AllocationSolver.Item(2_501, 5));
+        items.add(new AllocationSolver.Item(2_499, 4));
+        for (int i = 0; i < 398; i++) {
+            items.add(new AllocationSolver.Item(10_000, 1));
+        }
+        List<AllocationSolver.Group> groups = List.of(new AllocationSolver.Group(3, 5_000, 5_000, items));
+
+        // Act
+        AllocationSolver.Solution solution = AllocationSolver.solve(groups, 5_000, deadline(), pool);
+
+        // Assert
+        assertThat(AllocationSolver.options(groups.get(0), 5_000, deadline()).unit()).isEqualTo(2);
+        assertThat(solution.cost()).isEqualTo(5_000);
+        assertThat(solution.value()).isEqualTo(9);
+        assertThat(solution.optimal()).isFalse();
+        assertThat(solution.upperBound()).isGreaterThanOrEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should stop building options at the deadline and fall back to greedy gift sets")
+    void solve_deadlineDuringOptionBuilding_returnsGreedySetWithBound() {
+        // Arrange
+        List<AllocationSolver.Item> items = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            items.add(new AllocationSolver.Item(1_000L * i, i));
+        }
+        List<AllocationSolver.Group> groups = List.of(new AllocationSolver.Group(5, 2_000, 6_000, items));
+
+        // Act
+        AllocationSolver.Solution solution = AllocationSolver.solve(groups, 6_000, System.nanoTime() - 1, pool);
+
+        // Assert
+        assertThat(solution.optimal()).isFalse();
+        assertThat(solution.cost()).isBetween(2_000L, 6_000L);
+        assertThat(solution.value()).isPositive();
+        assertThat(solution.upperBound()).isEqualTo(55.0);
+    }
+
+    private static long deadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+
+    /**
+     * Best total value over every subset of every group, or -1 when nothing is feasible.
+     */
+    private static long bruteForce(List<AllocationSolver.Group> groups, long budget) {
+        return bruteForce(groups, 0, budget);
+    }
+
+    private static long bruteForce(List<AllocationSolver.Group> groups, int g, long budget) {
+        if (g == groups.size()) {
+            return 0;
+        }
+        AllocationSolver.Group group = groups.get(g);
+        long best = -1;
+        int n = group.items().size();
+        for (int mask = 0; mask < 1 << n; mask++) {
+            long cost = 0;
+            long value = 0;
+            for (int i = 0; i < n; i++) {
+                if ((mask & 1 << i) != 0) {
+                    cost += group.items().get(i).cost();
+                    value += group.items().get(i).value();
+                }
+            }
+            if (cost < group.minCost() || cost > group.maxCost() || cost > budget) {
+                continue;
+            }
+            long rest = bruteForce(groups, g + 1, budget - cost);
+            if (rest >= 0) {
+                best = Math.max(best, value + rest);
+            }
+        }
+        return best;
+    }
+}
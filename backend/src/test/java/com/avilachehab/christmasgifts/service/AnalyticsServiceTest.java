@@ -0,0 +1,92 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.AnalyticsRowDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Test
+    @DisplayName("Should group spend by roaster over the whole table when no range is given")
+    void getSpend_withoutRange_groupsWholeTable() {
+        // Arrange
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        when(jdbcTemplate.query(sql.capture(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        // Act
+        analyticsService.getSpend(AnalyticsService.Dimension.ROASTER, null, null);
+
+        // Assert
+        assertThat(sql.getValue())
+                .isEqualTo("SELECT roaster_id AS group_key, COUNT(*) AS bags, COALESCE(SUM(price), 0) AS total "
+                        + "FROM coffee_history GROUP BY roaster_id ORDER BY group_key");
+    }
+
+    @Test
+    @DisplayName("Should bind the purchase date range for volume queries")
+    void getVolume_withRange_bindsDates() {
+        // Arrange
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        when(jdbcTemplate.query(sql.capture(), any(RowMapper.class), args.capture())).thenReturn(List.of());
+
+        // Act
+        analyticsService.getVolume(AnalyticsService.Dimension.ORIGIN, from, to);
+
+        // Assert
+        assertThat(sql.getValue())
+                .contains("COALESCE(SUM(initial_weight), 0)")
+                .contains("WHERE purchase_date >= ? AND purchase_date <= ?")
+                .endsWith("GROUP BY origin ORDER BY group_key");
+        assertThat(args.getValue()).containsExactly(Date.valueOf(from), Date.valueOf(to));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should format purchase month keys as yyyy-MM")
+    void getSpend_byPurchaseMonth_formatsKey() throws Exception {
+        // Arrange
+        ArgumentCaptor<RowMapper<AnalyticsRowDto>> mapper = ArgumentCaptor.forClass(RowMapper.class);
+        when(jdbcTemplate.query(anyString(), mapper.capture(), any(Object[].class))).thenReturn(List.of());
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("group_key")).thenReturn(202603L);
+        when(rs.getLong("bags")).thenReturn(2L);
+        when(rs.getBigDecimal("total")).thenReturn(new BigDecimal("43.50"));
+
+        // Act
+        analyticsService.getSpend(AnalyticsService.Dimension.PURCHASE_MONTH, null, null);
+        AnalyticsRowDto row = mapper.getValue().mapRow(rs, 0);
+
+        // Assert
+        assertThat(row.getKey()).isEqualTo("2026-03");
+        assertThat(row.getBags()).isEqualTo(2);
+        assertThat(row.getTotal()).isEqualByComparingTo("43.50");
+    }
+}
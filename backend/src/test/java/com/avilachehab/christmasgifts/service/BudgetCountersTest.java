@@ -0,0 +1,124 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetCountersTest {
+
+    private static final int SEASON = 2025;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BudgetCounters budgetCounters;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(budgetCounters, "alertThresholds", "0.8,1.0");
+    }
+
+    @Test
+    @DisplayName("Should alert once per threshold crossed and re-arm after dropping below")
+    void giftAdded_crossingThresholds_alertsOncePerCrossing() {
+        // Arrange
+        budgetCounters.allowanceChanged(1L, new BigDecimal("100.00"));
+        ArgumentCaptor<BudgetAlertEvent> alerts = ArgumentCaptor.forClass(BudgetAlertEvent.class);
+
+        // Act
+        budgetCounters.giftAdded(1L, SEASON, new BigDecimal("50.00"));
+        budgetCounters.giftAdded(1L, SEASON, new BigDecimal("30.00")); // 80%
+        budgetCounters.giftAdded(1L, SEASON, new BigDecimal("5.00"));  // still above 80%
+        budgetCounters.giftAdded(1L, SEASON, new BigDecimal("15.00")); // 100%
+        budgetCounters.giftRemoved(1L, SEASON, new BigDecimal("50.00"));
+        budgetCounters.giftAdded(1L, SEASON, new BigDecimal("35.00")); // 85% again
+
+        // Assert
+        verify(eventPublisher, times(3)).publishEvent(alerts.capture());
+        assertThat(alerts.getAllValues()).extracting(BudgetAlertEvent::getThreshold)
+                .containsExactly(new BigDecimal("0.8"), new BigDecimal("1.0"), new BigDecimal("0.8"));
+        BudgetCounters.Totals totals = budgetCounters.getTotals(1L, SEASON);
+        assertThat(totals.spent()).isEqualByComparingTo("85.00");
+        assertThat(totals.giftCount()).isEqualTo(4);
+        assertThat(budgetCounters.getRecentAlerts()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should move spending between persons without re-alerting on an unchanged price")
+    void giftChanged_samePersonAndMove_adjustsBothCounters() {
+        // Arrange
+        budgetCounters.allowanceChanged(1L, new BigDecimal("100.00"));
+        budgetCounters.giftAdded(1L, SEASON, new BigDecimal("90.00"));
+        clearInvocations(eventPublisher);
+
+        // Act
+        budgetCounters.giftChanged(1L, SEASON, new BigDecimal("90.00"), 1L, SEASON, new BigDecimal("90.00"));
+        budgetCounters.giftChanged(1L, SEASON, new BigDecimal("90.00"), 2L, SEASON, new BigDecimal("90.00"));
+
+        // Assert
+        verify(eventPublisher, never()).publishEvent(any());
+        assertThat(budgetCounters.getTotals(1L, SEASON).spent()).isEqualByComparingTo("0");
+        assertThat(budgetCounters.getTotals(1L, SEASON).giftCount()).isZero();
+        assertThat(budgetCounters.getTotals(2L, SEASON).spent()).isEqualByComparingTo("90.00");
+        assertThat(budgetCounters.getTotals(2L, SEASON).giftCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply the allowance to each season separately")
+    void giftAdded_differentSeasons_countedSeparately() {
+        // Arrange
+        budgetCounters.allowanceChanged(1L, new BigDecimal("100.00"));
+
+        // Act
+        budgetCounters.giftAdded(1L, SEASON - 1, new BigDecimal("70.00"));
+        budgetCounters.giftAdded(1L, SEASON, new BigDecimal("70.00"));
+
+        // Assert
+        verify(eventPublisher, never()).publishEvent(any());
+        assertThat(budgetCounters.getTotals(1L, SEASON - 1).spent()).isEqualByComparingTo("70.00");
+        assertThat(budgetCounters.getTotals(1L, SEASON).spent()).isEqualByComparingTo("70.00");
+        assertThat(budgetCounters.getTotals(1L, SEASON).allowance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    @DisplayName("Should only count gifts whose transaction commits")
+    void giftAdded_rolledBack_leavesCountersUnchanged() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            budgetCounters.giftAdded(1L, SEASON, new BigDecimal("20.00"));
+
+            // Act
+            assertThat(budgetCounters.getTotals(1L, SEASON).giftCount()).isZero();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertThat(budgetCounters.getTotals(1L, SEASON).spent()).isEqualByComparingTo("0");
+        assertThat(budgetCounters.getTotals(1L, SEASON).giftCount()).isZero();
+    }
+}
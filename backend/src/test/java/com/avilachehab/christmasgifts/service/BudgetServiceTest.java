@@ -0,0 +1,105 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.BudgetSummaryDto;
+import com.avilachehab.christmasgifts.dto.PersonDto;
+import com.avilachehab.christmasgifts.model.Gift;
+import com.avilachehab.christmasgifts.model.Person;
+import com.avilachehab.christmasgifts.model.SeasonBudget;
+import com.avilachehab.christmasgifts.repository.GiftRepository;
+import com.avilachehab.christmasgifts.repository.PersonRepository;
+import com.avilachehab.christmasgifts.repository.SeasonBudgetRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetServiceTest {
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private GiftRepository giftRepository;
+
+    @Mock
+    private BudgetCounters budgetCounters;
+
+    @Mock
+    private SeasonBudgetRepository seasonBudgetRepository;
+
+    @Mock
+    private SeasonTotals seasonTotals;
+
+    @InjectMocks
+    private BudgetService budgetService;
+
+    @Test
+    @DisplayName("Should build the summary from the budget counters without loading gifts")
+    void getBudgetSummary_withoutGifts_usesCountersOnly() {
+        // Arrange
+        when(personRepository.findAll(any(Sort.class))).thenReturn(List.of(person(1L, "Ana"), person(2L, "Luis")));
+        when(budgetCounters.getTotals(1L, 2025))
+                .thenReturn(new BudgetCounters.Totals(new BigDecimal("40.00"), 2, new BigDecimal("50.00")));
+        when(budgetCounters.getTotals(2L, 2025)).thenReturn(new BudgetCounters.Totals(new BigDecimal("0.00"), 0, null));
+
+        // Act
+        BudgetSummaryDto result = budgetService.getBudgetSummary(2025, new BigDecimal("100.00"), false);
+
+        // Assert
+        assertThat(result.getTotalSpent()).isEqualByComparingTo("40.00");
+        assertThat(result.getRemaining()).isEqualByComparingTo("60.00");
+        assertThat(result.getPersons()).extracting(PersonDto::getGiftCount).containsExactly(2L, 0L);
+        assertThat(result.getPersons().get(0).getAllowance()).isEqualByComparingTo("50.00");
+        assertThat(result.getPersons()).allSatisfy(person -> assertThat(person.getGifts()).isNull());
+        verifyNoInteractions(giftRepository);
+    }
+
+    @Test
+    @DisplayName("Should use the stored season budget and attach the season's gifts when requested")
+    void getBudgetSummary_withGifts_attachesGifts() {
+        // Arrange
+        Person ana = person(1L, "Ana");
+        Gift scarf = new Gift();
+        scarf.setId(10L);
+        scarf.setDescription("Scarf");
+        scarf.setPrice(new BigDecimal("25.00"));
+        scarf.setSeason(2025);
+        scarf.setPerson(ana);
+        when(personRepository.findAll(any(Sort.class))).thenReturn(List.of(ana));
+        when(budgetCounters.getTotals(1L, 2025))
+                .thenReturn(new BudgetCounters.Totals(new BigDecimal("25.00"), 1, null));
+        when(seasonBudgetRepository.findById(2025))
+                .thenReturn(Optional.of(new SeasonBudget(2025, new BigDecimal("300.00"))));
+        when(giftRepository.findBySeasonOrderByPerson(2025)).thenReturn(List.of(scarf));
+
+        // Act
+        BudgetSummaryDto result = budgetService.getBudgetSummary(2025, null, true);
+
+        // Assert
+        assertThat(result.getTotalBudget()).isEqualByComparingTo("300.00");
+        assertThat(result.getRemaining()).isEqualByComparingTo("275.00");
+        PersonDto person = result.getPersons().get(0);
+        assertThat(person.getGifts()).hasSize(1);
+        assertThat(person.getGifts().get(0).getDescription()).isEqualTo("Scarf");
+        assertThat(person.getGifts().get(0).getPersonName()).isEqualTo("Ana");
+    }
+
+    private static Person person(Long id, String name) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        return person;
+    }
+}
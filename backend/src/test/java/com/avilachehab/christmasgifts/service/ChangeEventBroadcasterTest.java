@@ -0,0 +1,243 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.ChangeEventDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeEventBroadcasterTest {
+
+    private ChangeEventBroadcaster broadcaster;
+    private QueuedExecutor dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ChangeEventBroadcaster();
+        dispatcher = new QueuedExecutor();
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", 3);
+        ReflectionTestUtils.setField(broadcaster, "dispatchThreads", 2);
+        broadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        broadcaster.stop();
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest pending change per row")
+    void onEntityChanged_sameRowTwiceBeforeDispatch_sendsLatestOnly() {
+        // Arrange
+        useQueuedDispatcher();
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter);
+
+        // Act
+        broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 1L, 10L, false));
+        broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.GIFT, 4L, 11L, false));
+        broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 1L, 12L, false));
+        dispatcher.runAll();
+
+        // Assert
+        assertThat(emitter.changes).extracting(ChangeEventDto::getChangeSeq).containsExactly(11L, 12L);
+        assertThat(emitter.resyncs).isZero();
+    }
+
+    @Test
+    @DisplayName("Should send each row of a bulk write from a single dispatch")
+    void onEntitiesChanged_bulkWrite_sendsEveryRowInOneDispatch() {
+        // Arrange
+        useQueuedDispatcher();
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter);
+
+        // Act
+        broadcaster.onEntitiesChanged(new EntitiesChangedEvent(ChangeTracker.GIFT, List.of(4L, 5L), List.of(20L, 21L), false, false));
+        dispatcher.runAll();
+
+        // Assert
+        assertThat(emitter.changes).extracting(ChangeEventDto::getId).containsExactly(4L, 5L);
+        assertThat(dispatcher.submitted).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should replace an overflowing buffer with a single resync event")
+    void onEntityChanged_bufferOverflows_sendsResync() {
+        // Arrange
+        useQueuedDispatcher();
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter);
+
+        // Act
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, id, id, false));
+        }
+        dispatcher.runAll();
+
+        // Assert
+        assertThat(emitter.resyncs).isEqualTo(1);
+        assertThat(emitter.changes).isEmpty();
+        assertThat(dispatcher.submitted).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber whose connection fails")
+    void onEntityChanged_sendFails_removesSubscriber() {
+        // Arrange
+        useQueuedDispatcher();
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+        broadcaster.subscribe(emitter);
+
+        // Act
+        broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.ROASTER, 2L, 7L, true));
+        dispatcher.runAll();
+
+        // Assert
+        assertThat(broadcaster.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep delivering to others while one subscriber's write is blocked")
+    void onEntityChanged_subscriberStalls_othersStillReceive() throws InterruptedException {
+        // Arrange
+        RecordingEmitter stalled = new RecordingEmitter();
+        stalled.stall = new CountDownLatch(1);
+        broadcaster.subscribe(stalled);
+        broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 1L, 1L, false));
+        assertThat(stalled.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.subscribe(healthy);
+
+        try {
+            // Act
+            broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 2L, 2L, false));
+
+            // Assert
+            assertThat(healthy.received.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(healthy.changes).extracting(ChangeEventDto::getChangeSeq).containsExactly(2L);
+            assertThat(broadcaster.getSubscriberCount()).isEqualTo(2);
+        } finally {
+            stalled.stall.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber whose buffer overflows while a write is blocked")
+    void onEntityChanged_bufferOverflowsDuringBlockedWrite_dropsSubscriber() throws InterruptedException {
+        // Arrange
+        RecordingEmitter stalled = new RecordingEmitter();
+        stalled.stall = new CountDownLatch(1);
+        broadcaster.subscribe(stalled);
+        broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 1L, 1L, false));
+        assertThat(stalled.writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            // Act
+            for (long id = 2; id <= 5; id++) {
+                broadcaster.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, id, id, false));
+            }
+
+            // Assert
+            assertThat(broadcaster.getSubscriberCount()).isZero();
+        } finally {
+            stalled.stall.countDown();
+        }
+    }
+
+    private void useQueuedDispatcher() {
+        ReflectionTestUtils.setField(broadcaster, "dispatcher", dispatcher);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<ChangeEventDto> changes = new ArrayList<>();
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch received = new CountDownLatch(1);
+        private int resyncs;
+        private boolean failing;
+        private CountDownLatch stall; // blocks every send until released, like a full socket buffer
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("stalled client gave up");
+            }
+            if (failing) {
+                throw new IOException("broken pipe");
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            for (ResponseBodyEmitter.DataWithMediaType part : parts) {
+                if (part.getData() instanceof ChangeEventDto change) {
+                    changes.add(change);
+                    received.countDown();
+                } else if (part.getData().toString().contains("event:" + ChangeEventBroadcaster.RESYNC_EVENT)) {
+                    resyncs++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs dispatch tasks only when the test asks, so buffering can be observed.
+     */
+    private static final class QueuedExecutor extends AbstractExecutorService {
+        private final List<Runnable> tasks = new ArrayList<>();
+        private int submitted;
+
+        @Override
+        public void execute(Runnable command) {
+            submitted++;
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
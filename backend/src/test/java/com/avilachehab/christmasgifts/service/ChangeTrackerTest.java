@@ -0,0 +1,166 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.repository.TombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeTrackerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ChangeTracker changeTracker;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold the horizon at a change until its transaction completes")
+    void stableHorizon_uncommittedChange_staysBelowIt() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(7L, 8L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        long first = changeTracker.nextChangeSeq();
+        long second = changeTracker.nextChangeSeq();
+        long horizonInFlight = changeTracker.stableHorizon();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        long horizonCommitted = changeTracker.stableHorizon();
+
+        // Assert
+        assertThat(first).isEqualTo(7L);
+        assertThat(second).isEqualTo(8L);
+        assertThat(horizonInFlight).isEqualTo(7L);
+        assertThat(horizonCommitted).isEqualTo(9L);
+    }
+
+    @Test
+    @DisplayName("Should start the horizon after the current sequence value when nothing was written yet")
+    void stableHorizon_noWritesSinceStartup_allocatesOnce() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(120L);
+
+        // Act
+        long horizon = changeTracker.stableHorizon();
+
+        // Assert
+        assertThat(horizon).isEqualTo(121L);
+        assertThat(changeTracker.stableHorizon()).isEqualTo(121L);
+    }
+
+    @Test
+    @DisplayName("Should hold the horizon at the first number of a bulk allocation until it completes")
+    void nextChangeSeqs_bulkAllocation_holdsHorizonAtFirst() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(3))).thenReturn(List.of(10L, 11L, 12L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        List<Long> seqs = changeTracker.nextChangeSeqs(3);
+        long horizonInFlight = changeTracker.stableHorizon();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertThat(seqs).containsExactly(10L, 11L, 12L);
+        assertThat(horizonInFlight).isEqualTo(10L);
+        assertThat(changeTracker.stableHorizon()).isEqualTo(13L);
+    }
+
+    @Test
+    @DisplayName("Should write one tombstone batch and publish a single archived event")
+    void recordArchival_archivedRows_batchesTombstones() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(20L, 21L));
+
+        // Act
+        changeTracker.recordArchival(ChangeTracker.COFFEE, List.of(5L, 6L));
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO tombstones"), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[1], row -> row[2])
+                .containsExactly(tuple(5L, 20L), tuple(6L, 21L));
+        ArgumentCaptor<EntitiesChangedEvent> event = ArgumentCaptor.forClass(EntitiesChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getEntityIds()).containsExactly(5L, 6L);
+        assertThat(event.getValue().getChangeSeqs()).containsExactly(20L, 21L);
+        assertThat(event.getValue().isDeleted()).isTrue();
+        assertThat(event.getValue().isArchived()).isTrue();
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    @DisplayName("Should tombstone a parent's children in one statement and publish only the parent")
+    void recordDeletion_withChildren_tombstonesSetBasedAndHoldsHorizon() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(contains("NEXT VALUE"), eq(Long.class))).thenReturn(30L);
+        when(jdbcTemplate.queryForObject(contains("CURRENT VALUE"), eq(Long.class))).thenReturn(32L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        changeTracker.recordDeletion(ChangeTracker.ROASTER, 4L, ChangeTracker.COFFEE, "coffees", "roaster_id");
+        long horizonInFlight = changeTracker.stableHorizon();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        verify(jdbcTemplate).update(contains("SELECT ?, id, NEXT VALUE FOR change_seq, ? FROM coffees WHERE roaster_id = ?"),
+                eq(ChangeTracker.COFFEE), any(Timestamp.class), eq(4L));
+        verify(jdbcTemplate).update(contains("INSERT INTO tombstones"), eq(ChangeTracker.ROASTER), eq(4L), eq(30L),
+                any(Timestamp.class));
+        ArgumentCaptor<EntityChangedEvent> event = ArgumentCaptor.forClass(EntityChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getEntityId()).isEqualTo(4L);
+        assertThat(event.getValue().getChangeSeq()).isEqualTo(30L);
+        assertThat(horizonInFlight).isEqualTo(30L);
+        assertThat(changeTracker.stableHorizon()).isEqualTo(33L);
+    }
+
+    @Test
+    @DisplayName("Should skip the database when nothing was archived")
+    void recordArchival_noIds_doesNothing() {
+        // Act
+        changeTracker.recordArchival(ChangeTracker.COFFEE, List.of());
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, tombstoneRepository, eventPublisher);
+    }
+}
@@ -0,0 +1,96 @@
+package com.avilachehab.christmasgifts.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoffeeArchiverTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ChangeTracker changeTracker;
+
+    @Mock
+    private ConsumptionWriteBuffer consumptionWriteBuffer;
+
+    private CoffeeArchiver coffeeArchiver;
+
+    @BeforeEach
+    void setUp() {
+        coffeeArchiver = new CoffeeArchiver(jdbcTemplate, transactionManager, changeTracker, consumptionWriteBuffer);
+        ReflectionTestUtils.setField(coffeeArchiver, "graceDays", 14);
+        ReflectionTestUtils.setField(coffeeArchiver, "batchSize", 2);
+    }
+
+    @Test
+    @DisplayName("Should copy finished bags to the archive, delete them and tombstone each one")
+    void archiveBatch_finishedBags_movesThemToArchive() {
+        // Arrange
+        when(jdbcTemplate.queryForList(contains("FROM coffees WHERE finished_at < ?"), eq(Long.class), any(), eq(2)))
+                .thenReturn(List.of(7L, 9L));
+
+        // Act
+        int archived = coffeeArchiver.archiveBatch(LocalDateTime.now());
+
+        // Assert
+        assertThat(archived).isEqualTo(2);
+        verify(jdbcTemplate).update(contains("INSERT INTO coffee_archive"), eq(7L), eq(9L));
+        verify(jdbcTemplate).update(contains("DELETE FROM coffees WHERE id IN (?, ?)"), eq(7L), eq(9L));
+        verify(changeTracker).recordArchival(ChangeTracker.COFFEE, List.of(7L, 9L));
+        verify(consumptionWriteBuffer).discard(7L);
+        verify(consumptionWriteBuffer).discard(9L);
+    }
+
+    @Test
+    @DisplayName("Should keep archiving in batches until a batch comes back short")
+    void archiveFinished_fullBatches_continuesUntilShortBatch() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), eq(2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+
+        // Act
+        int archived = coffeeArchiver.archiveFinished();
+
+        // Assert
+        assertThat(archived).isEqualTo(5);
+        verify(transactionManager, times(3)).commit(any());
+        verify(changeTracker).recordArchival(ChangeTracker.COFFEE, List.of(5L));
+    }
+
+    @Test
+    @DisplayName("Should not touch the tables when no bag is past the grace period")
+    void archiveBatch_nothingFinished_writesNothing() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), eq(2))).thenReturn(List.of());
+
+        // Act
+        int archived = coffeeArchiver.archiveBatch(LocalDateTime.now());
+
+        // Assert
+        assertThat(archived).isZero();
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(changeTracker, consumptionWriteBuffer);
+    }
+}
@@ -1,10 +1,12 @@
 package com.avilachehab.christmasgifts.service;
 
 import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.model.Coffee;
 import com.avilachehab.christmasgifts.model.Roaster;
 import com.avilachehab.christmasgifts.model.RoastLevel;
 import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.ProjectionRepository;
 import com.avilachehab.christmasgifts.repository.RoasterRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,11 +21,15 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -38,6 +44,21 @@ class CoffeeServiceTest {
     @Mock
     private RoasterRepository roasterRepository;
 
+    @Mock
+    private ConsumptionService consumptionService;
+
+    @Mock
+    private ConsumptionWriteBuffer consumptionWriteBuffer;
+
+    @Mock
+    private ProjectionRepository projectionRepository;
+
+    @Mock
+    private ChangeTracker changeTracker;
+
+    @Mock
+    private RoasterScoreboard roasterScoreboard;
+
     @InjectMocks
     private CoffeeService coffeeService;
 
@@ -245,6 +266,27 @@ class CoffeeServiceTest {
         verify(coffeeRepository, times(1)).save(any(Coffee.class));
     }
 
+    @Test
+    @DisplayName("Should refresh both roaster scores when a coffee moves roaster")
+    void updateCoffee_changedRoaster_marksBothRoastersDirty() {
+        // Arrange
+        Roaster otherRoaster = new Roaster();
+        otherRoaster.setId(2L);
+        otherRoaster.setName("Other Roaster");
+        testCoffeeDto.setRoasterId(2L);
+        when(coffeeRepository.findById(1L)).thenReturn(Optional.of(testCoffee));
+        when(roasterRepository.findById(2L)).thenReturn(Optional.of(otherRoaster));
+        when(coffeeRepository.save(any(Coffee.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        CoffeeDto result = coffeeService.updateCoffee(1L, testCoffeeDto);
+
+        // Assert
+        assertThat(result.getRoasterId()).isEqualTo(2L);
+        verify(roasterScoreboard, times(1)).markDirty(1L);
+        verify(roasterScoreboard, times(1)).markDirty(2L);
+    }
+
     @Test
     @DisplayName("Should throw exception when updating non-existent coffee")
     void updateCoffee_nonExistentId_throwsException() {
@@ -275,6 +317,37 @@ class CoffeeServiceTest {
                 .extracting(CoffeeDto::getCurrentWeight)
                 .isEqualTo(BigDecimal.valueOf(180));
         verify(coffeeRepository, times(1)).save(any(Coffee.class));
+        verify(consumptionService, times(1)).recordConsumption(1L, consumeAmount);
+    }
+
+    @Test
+    @DisplayName("Should stamp the consumed coffee with a new change sequence")
+    void consumeCoffee_validAmount_stampsChangeSeq() {
+        // Arrange
+        when(coffeeRepository.findById(1L)).thenReturn(Optional.of(testCoffee));
+        when(coffeeRepository.save(any(Coffee.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(changeTracker.nextChangeSeq()).thenReturn(42L);
+
+        // Act
+        coffeeService.consumeCoffee(1L, BigDecimal.valueOf(20));
+
+        // Assert
+        assertThat(testCoffee.getChangeSeq()).isEqualTo(42L);
+    }
+
+    @Test
+    @DisplayName("Should mark the bag finished when consuming the last of it")
+    void consumeCoffee_wholeBag_marksFinished() {
+        // Arrange
+        when(coffeeRepository.findById(1L)).thenReturn(Optional.of(testCoffee));
+        when(coffeeRepository.save(any(Coffee.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        coffeeService.consumeCoffee(1L, testCoffee.getCurrentWeight());
+
+        // Assert
+        assertThat(testCoffee.getCurrentWeight()).isZero();
+        assertThat(testCoffee.getFinishedAt()).isNotNull();
     }
 
     @Test
@@ -289,6 +362,7 @@ class CoffeeServiceTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Cannot consume more coffee than available");
         verify(coffeeRepository, never()).save(any(Coffee.class));
+        verify(consumptionService, never()).recordConsumption(any(), any());
     }
 
     @Test
@@ -326,21 +400,22 @@ class CoffeeServiceTest {
     @DisplayName("Should delete existing coffee successfully")
     void deleteCoffee_validId_deletesCoffee() {
         // Arrange
-        when(coffeeRepository.existsById(1L)).thenReturn(true);
+        when(coffeeRepository.findRoasterIdById(1L)).thenReturn(Optional.of(1L));
 
         // Act
         coffeeService.deleteCoffee(1L);
 
         // Assert
-        verify(coffeeRepository, times(1)).existsById(1L);
         verify(coffeeRepository, times(1)).deleteById(1L);
+        verify(changeTracker, times(1)).recordDeletion(ChangeTracker.COFFEE, 1L);
+        verify(roasterScoreboard, times(1)).markDirty(1L);
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existent coffee")
     void deleteCoffee_nonExistentId_throwsException() {
         // Arrange
-        when(coffeeRepository.existsById(999L)).thenReturn(false);
+        when(coffeeRepository.findRoasterIdById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> coffeeService.deleteCoffee(999L))
@@ -380,4 +455,42 @@ class CoffeeServiceTest {
                 .isNotNull()
                 .isEqualByComparingTo(BigDecimal.valueOf(50.0).setScale(1, java.math.RoundingMode.HALF_UP));
     }
+
+    @Test
+    @DisplayName("Should select only the columns behind the requested fields")
+    void getAllCoffees_withFieldSelection_readsOnlySelectedColumns() {
+        // Arrange
+        FieldSelection selection = FieldSelection.parse("id,coffeeName,percentageRemaining", CoffeeService.FIELDS);
+        when(projectionRepository.findColumns(eq(Coffee.class), any(), isNull(), isNull())).thenReturn(List.of(Map.of(
+                "id", 1L,
+                "coffeeName", "Ethiopian Yirgacheffe",
+                "initialWeight", BigDecimal.valueOf(250),
+                "currentWeight", BigDecimal.valueOf(200))));
+
+        // Act
+        List<CoffeeDto> result = coffeeService.getAllCoffees(selection);
+
+        // Assert
+        verify(projectionRepository).findColumns(Coffee.class,
+                Set.of("id", "coffeeName", "initialWeight", "currentWeight"), null, null);
+        verify(coffeeRepository, never()).findAll();
+        assertThat(result).singleElement().satisfies(coffee -> {
+            assertThat(coffee.getCoffeeName()).isEqualTo("Ethiopian Yirgacheffe");
+            assertThat(coffee.getPercentageRemaining()).isEqualByComparingTo("80");
+            assertThat(coffee.getNotes()).isNull();
+        });
+    }
+
+    @Test
+    @DisplayName("Should throw exception when projected coffee does not exist")
+    void getCoffeeById_withFieldSelectionNotFound_throwsException() {
+        // Arrange
+        FieldSelection selection = FieldSelection.parse("id", CoffeeService.FIELDS);
+        when(projectionRepository.findColumns(Coffee.class, Set.of("id"), "id", 999L)).thenReturn(List.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> coffeeService.getCoffeeById(999L, selection))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Coffee not found with id: 999");
+    }
 }
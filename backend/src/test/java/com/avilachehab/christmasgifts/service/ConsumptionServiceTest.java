@@ -0,0 +1,200 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.ConsumptionForecastDto;
+import com.avilachehab.christmasgifts.model.Coffee;
+import com.avilachehab.christmasgifts.model.ConsumptionEvent;
+import com.avilachehab.christmasgifts.model.ConsumptionRollup;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.ConsumptionEventRepository;
+import com.avilachehab.christmasgifts.repository.ConsumptionRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumptionServiceTest {
+
+    @Mock
+    private ConsumptionEventRepository consumptionEventRepository;
+
+    @Mock
+    private ConsumptionRollupRepository consumptionRollupRepository;
+
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    @InjectMocks
+    private ConsumptionService consumptionService;
+
+    private Coffee testCoffee;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(consumptionService, "retentionDays", 90);
+        ReflectionTestUtils.setField(consumptionService, "forecastWindowDays", 14);
+
+        testCoffee = new Coffee();
+        testCoffee.setId(1L);
+        testCoffee.setPurchaseDate(LocalDate.now().minusDays(30));
+        testCoffee.setInitialWeight(BigDecimal.valueOf(250));
+        testCoffee.setCurrentWeight(BigDecimal.valueOf(100));
+    }
+
+    @Test
+    @DisplayName("Should append a consumption event stamped with today's date")
+    void recordConsumption_validAmount_savesEvent() {
+        // Act
+        consumptionService.recordConsumption(1L, BigDecimal.valueOf(18));
+
+        // Assert
+        ArgumentCaptor<ConsumptionEvent> captor = ArgumentCaptor.forClass(ConsumptionEvent.class);
+        verify(consumptionEventRepository, times(1)).save(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(ConsumptionEvent::getCoffeeId, ConsumptionEvent::getAmount, ConsumptionEvent::getConsumedOn)
+                .containsExactly(1L, BigDecimal.valueOf(18), LocalDate.now());
+    }
+
+    @Test
+    @DisplayName("Should project the empty date from the rollups over the forecast window")
+    void getForecast_withConsumption_projectsEmptyDate() {
+        // Arrange
+        LocalDate windowStart = LocalDate.now().minusDays(13);
+        when(coffeeRepository.findById(1L)).thenReturn(Optional.of(testCoffee));
+        when(consumptionRollupRepository.sumConsumedSince(1L, windowStart)).thenReturn(BigDecimal.valueOf(140));
+
+        // Act
+        ConsumptionForecastDto result = consumptionService.getForecast(1L);
+
+        // Assert
+        assertThat(result.getWindowDays()).isEqualTo(14);
+        assertThat(result.getDailyConsumptionRate()).isEqualByComparingTo("10");
+        assertThat(result.getDaysRemaining()).isEqualTo(10L);
+        assertThat(result.getProjectedEmptyDate()).isEqualTo(LocalDate.now().plusDays(10));
+        verify(consumptionEventRepository, never()).aggregateDailyFrom(any());
+    }
+
+    @Test
+    @DisplayName("Should shorten the window for recently purchased coffee")
+    void getForecast_recentPurchase_usesDaysSincePurchase() {
+        // Arrange
+        testCoffee.setPurchaseDate(LocalDate.now().minusDays(3));
+        when(coffeeRepository.findById(1L)).thenReturn(Optional.of(testCoffee));
+        when(consumptionRollupRepository.sumConsumedSince(1L, testCoffee.getPurchaseDate()))
+                .thenReturn(BigDecimal.valueOf(80));
+
+        // Act
+        ConsumptionForecastDto result = consumptionService.getForecast(1L);
+
+        // Assert
+        assertThat(result.getWindowDays()).isEqualTo(4);
+        assertThat(result.getDailyConsumptionRate()).isEqualByComparingTo("20");
+        assertThat(result.getDaysRemaining()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("Should leave the projection empty when nothing was consumed")
+    void getForecast_noConsumption_returnsNoProjection() {
+        // Arrange
+        when(coffeeRepository.findById(1L)).thenReturn(Optional.of(testCoffee));
+        when(consumptionRollupRepository.sumConsumedSince(any(), any())).thenReturn(BigDecimal.ZERO);
+
+        // Act
+        ConsumptionForecastDto result = consumptionService.getForecast(1L);
+
+        // Assert
+        assertThat(result.getDailyConsumptionRate()).isEqualByComparingTo("0");
+        assertThat(result.getDaysRemaining()).isNull();
+        assertThat(result.getProjectedEmptyDate()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should throw exception when forecasting a non-existent coffee")
+    void getForecast_nonExistentId_throwsException() {
+        // Arrange
+        when(coffeeRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> consumptionService.getForecast(999L))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Coffee not found with id: 999");
+    }
+
+    @Test
+    @DisplayName("Should recompute rollups from the latest rolled-up day and compact old events")
+    void rollupAndCompact_existingRollups_recomputesFromLatestDay() {
+        // Arrange
+        LocalDate latest = LocalDate.now().minusDays(1);
+        ConsumptionEventRepository.DailyTotal total = dailyTotal(1L, latest, BigDecimal.valueOf(36), 2L);
+        when(consumptionRollupRepository.findLatestDay()).thenReturn(latest);
+        when(consumptionEventRepository.aggregateDailyFrom(latest)).thenReturn(List.of(total));
+
+        // Act
+        consumptionService.rollupAndCompact();
+
+        // Assert
+        verify(consumptionRollupRepository, times(1)).deleteFromDay(latest);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ConsumptionRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(consumptionRollupRepository).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .singleElement()
+                .extracting(ConsumptionRollup::getCoffeeId, ConsumptionRollup::getTotalAmount, ConsumptionRollup::getEventCount)
+                .containsExactly(1L, BigDecimal.valueOf(36), 2);
+        verify(consumptionEventRepository, times(1)).deleteOlderThan(LocalDate.now().minusDays(90));
+    }
+
+    @Test
+    @DisplayName("Should not recompute a latest day whose raw events were already compacted")
+    void rollupAndCompact_latestDayPastRetention_startsAfterLatestDay() {
+        // Arrange
+        LocalDate latest = LocalDate.now().minusDays(120);
+        when(consumptionRollupRepository.findLatestDay()).thenReturn(latest);
+
+        // Act
+        consumptionService.rollupAndCompact();
+
+        // Assert
+        verify(consumptionRollupRepository, times(1)).deleteFromDay(latest.plusDays(1));
+        verify(consumptionEventRepository, times(1)).aggregateDailyFrom(latest.plusDays(1));
+    }
+
+    @Test
+    @DisplayName("Should only compact when there is nothing to roll up")
+    void rollupAndCompact_noEvents_onlyCompacts() {
+        // Act
+        consumptionService.rollupAndCompact();
+
+        // Assert
+        verify(consumptionRollupRepository, never()).deleteFromDay(any());
+        verify(consumptionEventRepository, times(1)).deleteOlderThan(any());
+    }
+
+    private ConsumptionEventRepository.DailyTotal dailyTotal(Long coffeeId, LocalDate day,
+                                                             BigDecimal amount, Long count) {
+        return new ConsumptionEventRepository.DailyTotal() {
+            public Long getCoffeeId() { return coffeeId; }
+            public LocalDate getDay() { return day; }
+            public BigDecimal getTotalAmount() { return amount; }
+            public Long getEventCount() { return count; }
+        };
+    }
+}
@@ -0,0 +1,237 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.model.Coffee;
+import com.avilachehab.christmasgifts.model.Roaster;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumptionWriteBufferTest {
+
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    @Mock
+    private ConsumptionService consumptionService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ChangeTracker changeTracker;
+
+    @Mock
+    private RoasterScoreboard roasterScoreboard;
+
+    @InjectMocks
+    private ConsumptionWriteBuffer consumptionWriteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(consumptionWriteBuffer, "writeMode", "write-behind");
+        ReflectionTestUtils.setField(consumptionWriteBuffer, "flushThreshold", Integer.MAX_VALUE);
+
+        Roaster roaster = new Roaster();
+        roaster.setId(3L);
+        roaster.setName("Tim Wendelboe");
+        Coffee coffee = new Coffee();
+        coffee.setId(1L);
+        coffee.setCoffeeName("Ethiopia Guji");
+        coffee.setRoastDate(LocalDate.now().minusDays(5));
+        coffee.setInitialWeight(BigDecimal.valueOf(250));
+        coffee.setCurrentWeight(BigDecimal.valueOf(200));
+        coffee.setRoaster(roaster);
+        when(coffeeRepository.findWithRoasterById(1L)).thenReturn(Optional.of(coffee));
+    }
+
+    @Test
+    @DisplayName("Should acknowledge consumes with the provisional remaining weight")
+    void accept_validAmounts_returnsProvisionalWeight() {
+        // Act
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18));
+        CoffeeDto result = consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18.5));
+
+        // Assert
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getCurrentWeight()).isEqualByComparingTo("163.5");
+        assertThat(result.getCoffeeName()).isEqualTo("Ethiopia Guji");
+        assertThat(result.getRoasterName()).isEqualTo("Tim Wendelboe");
+        assertThat(result.getInitialWeight()).isEqualByComparingTo("250");
+        assertThat(result.getPercentageRemaining()).isEqualByComparingTo("65.4");
+        assertThat(result.getDaysSinceRoast()).isEqualTo(5L);
+        verify(coffeeRepository, times(1)).findWithRoasterById(1L);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject consumes beyond the provisional weight")
+    void accept_excessiveAmount_throwsException() {
+        // Arrange
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(150));
+
+        // Act & Assert
+        assertThatThrownBy(() -> consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(60)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Cannot consume more coffee than available");
+    }
+
+    @Test
+    @DisplayName("Should reserve only what is left for readings beyond the provisional weight")
+    void acceptAvailable_beyondProvisionalWeight_reservesRemainder() {
+        // Arrange
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(190));
+
+        // Act
+        BigDecimal reserved = consumptionWriteBuffer.acceptAvailable(1L, BigDecimal.valueOf(18));
+        BigDecimal afterEmpty = consumptionWriteBuffer.acceptAvailable(1L, BigDecimal.valueOf(18));
+
+        // Assert
+        assertThat(reserved).isEqualByComparingTo("10");
+        assertThat(afterEmpty).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Should coalesce buffered consumes into one batched update per flush")
+    void flush_pendingConsumes_writesCoalescedBatch() {
+        // Arrange
+        inlineTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18));
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(20));
+
+        // Act
+        int written = consumptionWriteBuffer.flush();
+
+        // Assert
+        assertThat(written).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batchCaptor.capture());
+        assertThat(batchCaptor.getValue()).singleElement()
+                .satisfies(args -> assertThat((BigDecimal) args[0]).isEqualByComparingTo("38"));
+        verify(consumptionService, times(1)).recordConsumptions(Map.of(1L, BigDecimal.valueOf(3800, 2)));
+        assertThat(consumptionWriteBuffer.flush()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop buffered consumption the database no longer accepts")
+    void flush_rowNotUpdated_dropsAccumulator() {
+        // Arrange
+        inlineTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18));
+
+        // Act
+        int written = consumptionWriteBuffer.flush();
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18));
+
+        // Assert
+        assertThat(written).isZero();
+        verify(consumptionService).recordConsumptions(Map.of());
+        verify(coffeeRepository, times(2)).findWithRoasterById(1L);
+    }
+
+    @Test
+    @DisplayName("Should keep drained consumption for the next flush when the write fails")
+    void flush_writeFails_retriesAmountOnNextFlush() {
+        // Arrange
+        inlineTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new RuntimeException("Database unavailable"))
+                .thenReturn(new int[]{1});
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18));
+
+        // Act
+        assertThatThrownBy(() -> consumptionWriteBuffer.flush()).hasMessage("Database unavailable");
+        int written = consumptionWriteBuffer.flush();
+
+        // Assert
+        assertThat(written).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batchCaptor.capture());
+        assertThat(batchCaptor.getAllValues().get(1)).singleElement()
+                .satisfies(args -> assertThat((BigDecimal) args[0]).isEqualByComparingTo("18"));
+        verify(consumptionService, times(1)).recordConsumptions(Map.of(1L, BigDecimal.valueOf(1800, 2)));
+    }
+
+    @Test
+    @DisplayName("Should flush on stop and refuse consumes afterwards")
+    void accept_afterStop_throwsServiceUnavailable() throws Exception {
+        // Arrange
+        inlineTransactions();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+        ReflectionTestUtils.setField(consumptionWriteBuffer, "flushIntervalMs", 60_000L);
+        consumptionWriteBuffer.start();
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18));
+
+        // Act
+        consumptionWriteBuffer.stop();
+
+        // Assert
+        verify(consumptionService, times(1)).recordConsumptions(Map.of(1L, BigDecimal.valueOf(1800, 2)));
+        assertThatThrownBy(() -> consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18)))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    @DisplayName("Should re-base the provisional weight after a direct update")
+    void rebase_afterUpdate_usesNewWeight() {
+        // Arrange
+        consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(18));
+
+        CoffeeDto updated = new CoffeeDto();
+        updated.setId(1L);
+        updated.setCoffeeName("Ethiopia Guji Hambela");
+        updated.setInitialWeight(BigDecimal.valueOf(250));
+        updated.setCurrentWeight(BigDecimal.valueOf(250));
+
+        // Act
+        consumptionWriteBuffer.rebase(updated);
+        CoffeeDto result = consumptionWriteBuffer.accept(1L, BigDecimal.valueOf(10));
+
+        // Assert
+        assertThat(result.getCurrentWeight()).isEqualByComparingTo("222");
+        assertThat(result.getCoffeeName()).isEqualTo("Ethiopia Guji Hambela");
+    }
+
+    private void inlineTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
@@ -0,0 +1,161 @@
+package com.avilachehab.christmasgifts.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DurableStoreTest {
+
+    @Test
+    @DisplayName("Should round-trip logged row changes through the record encoding")
+    void encode_decode_roundTripsChanges() {
+        // Arrange
+        LocalDateTime finishedAt = LocalDateTime.of(2026, 10, 19, 13, 35, 0, 46_246_000);
+        Object[] row = {7L, "Kenya AA ünïcode", Date.valueOf(LocalDate.of(2026, 10, 1)), new BigDecimal("232.00"),
+                Timestamp.valueOf(finishedAt), null, 3, true};
+        List<DurableStore.Change> changes = List.of(
+                new DurableStore.Change(1, "COFFEES", DurableStore.INSERT, null, row),
+                new DurableStore.Change(2, "COFFEES", DurableStore.UPDATE, new Object[]{7L}, row),
+                new DurableStore.Change(3, "GIFTS", DurableStore.DELETE, new Object[]{9L}, null));
+
+        // Act
+        List<DurableStore.Change> decoded = DurableStore.decode(DurableStore.encode(changes));
+
+        // Assert
+        assertThat(decoded).extracting(DurableStore.Change::ordinal, DurableStore.Change::table,
+                DurableStore.Change::op).containsExactly(
+                        tuple(1L, "COFFEES", DurableStore.INSERT),
+                        tuple(2L, "COFFEES", DurableStore.UPDATE),
+                        tuple(3L, "GIFTS", DurableStore.DELETE));
+        assertThat(decoded.get(0).key()).isNull();
+        assertThat(decoded.get(1).key()).containsExactly(7L);
+        assertThat(decoded.get(1).row()).containsExactly(7L, "Kenya AA ünïcode", LocalDate.of(2026, 10, 1),
+                new BigDecimal("232.00"), finishedAt, null, 3, true);
+        assertThat(decoded.get(2).row()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should bring back every committed change across restarts, with keys and views usable")
+    void recover_afterCheckpointAndLoggedWrites_restoresDatabase(@TempDir Path dir) throws InterruptedException {
+        // Arrange: first run starts empty, checkpoints once and logs more writes after it
+        DataSource firstDb = database("durable-first");
+        JdbcTemplate first = new JdbcTemplate(firstDb);
+        DurableStore firstStore = store(firstDb, dir);
+        firstStore.recover();
+        first.execute("CREATE SEQUENCE change_seq START WITH 1 INCREMENT BY 1");
+        first.execute("CREATE TABLE bags (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL, weight NUMERIC(10, 2) NOT NULL, change_seq BIGINT NOT NULL)");
+        first.execute("CREATE VIEW heavy_bags AS SELECT id, name FROM bags WHERE weight >= 100");
+        firstStore.start();
+        insertBag(first, "Kenya AA", "250.00");
+        insertBag(first, "Huila", "80.00");
+        assertThat(firstStore.checkpoint()).isTrue();
+        insertBag(first, "Sidamo", "340.00");
+        first.update("UPDATE bags SET weight = 120.00, change_seq = NEXT VALUE FOR change_seq WHERE name = 'Huila'");
+        first.update("DELETE FROM bags WHERE name = 'Kenya AA'");
+        firstStore.stop();
+        first.execute("SHUTDOWN");
+
+        // Act: second run replays the log onto the snapshot, then logs a write of its own
+        DataSource secondDb = database("durable-second");
+        JdbcTemplate second = new JdbcTemplate(secondDb);
+        DurableStore secondStore = store(secondDb, dir);
+        secondStore.recover();
+
+        // Assert
+        assertThat(secondStore.getStats().getReplayedChanges()).isEqualTo(3);
+        assertThat(second.queryForList("SELECT name FROM bags ORDER BY id", String.class))
+                .containsExactly("Huila", "Sidamo");
+        assertThat(second.queryForList("SELECT name FROM heavy_bags ORDER BY id", String.class))
+                .containsExactly("Huila", "Sidamo");
+        long maxId = second.queryForObject("SELECT MAX(id) FROM bags", Long.class);
+        long maxSeq = second.queryForObject("SELECT MAX(change_seq) FROM bags", Long.class);
+        secondStore.start();
+        insertBag(second, "Yirgacheffe", "200.00");
+        assertThat(second.queryForObject("SELECT id FROM bags WHERE name = 'Yirgacheffe'", Long.class))
+                .isGreaterThan(maxId);
+        assertThat(second.queryForObject("SELECT change_seq FROM bags WHERE name = 'Yirgacheffe'", Long.class))
+                .isGreaterThan(maxSeq);
+        secondStore.stop();
+        second.execute("SHUTDOWN");
+
+        // A third run sees the second run's write on top of its startup snapshot
+        DataSource thirdDb = database("durable-third");
+        DurableStore thirdStore = store(thirdDb, dir);
+        thirdStore.recover();
+        assertThat(new JdbcTemplate(thirdDb).queryForList("SELECT name FROM heavy_bags ORDER BY id", String.class))
+                .containsExactly("Huila", "Sidamo", "Yirgacheffe");
+        new JdbcTemplate(thirdDb).execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("Should keep each store logging its own database and skip maintenance on one that is not logging")
+    void stop_twoStores_leavesTheOtherLogging(@TempDir Path firstDir, @TempDir Path secondDir) throws InterruptedException {
+        // Arrange
+        DataSource firstDb = database("durable-isolated-first");
+        DataSource secondDb = database("durable-isolated-second");
+        JdbcTemplate first = new JdbcTemplate(firstDb);
+        first.execute("CREATE TABLE bags (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL, weight NUMERIC(10, 2) NOT NULL, change_seq BIGINT NOT NULL)");
+        DurableStore firstStore = store(firstDb, firstDir);
+        DurableStore idleStore = store(secondDb, secondDir);
+        firstStore.recover();
+        firstStore.start();
+
+        try {
+            // Act
+            idleStore.maintain();
+            idleStore.stop();
+            first.update("INSERT INTO bags (name, weight, change_seq) VALUES ('Kenya AA', 250.00, 1)");
+
+            // Assert
+            assertThat(idleStore.checkpoint()).isFalse();
+            assertThat(firstStore.getStats().getAppendedChanges()).isEqualTo(1);
+            assertThat(firstStore.checkpoint()).isTrue();
+        } finally {
+            firstStore.stop();
+            first.execute("SHUTDOWN");
+            new JdbcTemplate(secondDb).execute("SHUTDOWN");
+        }
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private static DurableStore store(DataSource dataSource, Path dir) {
+        DurableStore store = new DurableStore(dataSource);
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "dir", dir);
+        ReflectionTestUtils.setField(store, "fsync", "commit");
+        ReflectionTestUtils.setField(store, "segmentSize", 1 << 16);
+        ReflectionTestUtils.setField(store, "checkpointIntervalMs", 600_000L);
+        ReflectionTestUtils.setField(store, "checkpointBytes", 1L << 20);
+        ReflectionTestUtils.setField(store, "checkpointLockTimeoutMs", 2_000L);
+        ReflectionTestUtils.setField(store, "excludedTables", Set.of("flyway_schema_history"));
+        return store;
+    }
+
+    private static void insertBag(JdbcTemplate jdbcTemplate, String name, String weight) {
+        jdbcTemplate.update("INSERT INTO bags (name, weight, change_seq) VALUES (?, ?, NEXT VALUE FOR change_seq)",
+                name, new BigDecimal(weight));
+    }
+}
@@ -0,0 +1,119 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.GiftDto;
+import com.avilachehab.christmasgifts.dto.GiftPageDto;
+import com.avilachehab.christmasgifts.dto.GiftSort;
+import com.avilachehab.christmasgifts.repository.GiftRepository;
+import com.avilachehab.christmasgifts.repository.PersonRepository;
+import com.avilachehab.christmasgifts.repository.ProjectionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GiftServiceTest {
+
+    @Mock
+    private GiftRepository giftRepository;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private ProjectionRepository projectionRepository;
+
+    @Mock
+    private ChangeTracker changeTracker;
+
+    @Mock
+    private BudgetCounters budgetCounters;
+
+    @Mock
+    private SeasonTotals seasonTotals;
+
+    @InjectMocks
+    private GiftService giftService;
+
+    @Test
+    @DisplayName("Should return a cursor when more rows follow the page")
+    void getGifts_moreRows_returnsCursorForLastRow() {
+        // Arrange
+        when(giftRepository.findGiftRows(null, null, null, null, GiftSort.PRICE, Sort.Direction.ASC, null, 3))
+                .thenReturn(List.of(gift(1L, "10.00"), gift(2L, "12.50"), gift(3L, "20.00")));
+
+        // Act
+        GiftPageDto page = giftService.getGifts(null, null, null, null, GiftSort.PRICE, Sort.Direction.ASC, null, 2);
+
+        // Assert
+        assertThat(page.getGifts()).extracting(GiftDto::getId).containsExactly(1L, 2L);
+        GiftDto after = GiftService.decodeCursor(page.getNextCursor(), GiftSort.PRICE);
+        assertThat(after.getId()).isEqualTo(2L);
+        assertThat(after.getPrice()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    @DisplayName("Should resume after the cursor row and end without a cursor")
+    void getGifts_withCursor_passesKeysetAndEnds() {
+        // Arrange
+        String cursor = GiftService.encodeCursor(gift(2L, "12.50"), GiftSort.PRICE);
+        ArgumentCaptor<GiftDto> after = ArgumentCaptor.forClass(GiftDto.class);
+        when(giftRepository.findGiftRows(eq(2025), eq(5L), eq(new BigDecimal("10")), any(), eq(GiftSort.PRICE),
+                eq(Sort.Direction.ASC), after.capture(), eq(3))).thenReturn(List.of(gift(3L, "20.00")));
+
+        // Act
+        GiftPageDto page = giftService.getGifts(2025, 5L, new BigDecimal("10"), null, GiftSort.PRICE,
+                Sort.Direction.ASC, cursor, 2);
+
+        // Assert
+        assertThat(page.getGifts()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(after.getValue().getId()).isEqualTo(2L);
+        assertThat(after.getValue().getPrice()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    @DisplayName("Should keep descriptions with colons intact in the cursor")
+    void encodeCursor_descriptionWithColon_roundTrips() {
+        // Arrange
+        GiftDto last = gift(7L, "5.00");
+        last.setDescription("Book: Dune");
+
+        // Act
+        GiftDto after = GiftService.decodeCursor(GiftService.encodeCursor(last, GiftSort.DESCRIPTION),
+                GiftSort.DESCRIPTION);
+
+        // Assert
+        assertThat(after.getId()).isEqualTo(7L);
+        assertThat(after.getDescription()).isEqualTo("Book: Dune");
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor that does not match the sort")
+    void getGifts_malformedCursor_throwsBadRequest() {
+        // Act & Assert
+        assertThatThrownBy(() -> giftService.getGifts(null, null, null, null, GiftSort.ID, Sort.Direction.ASC,
+                "not-a-cursor", 10))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Invalid cursor");
+        verifyNoInteractions(giftRepository);
+    }
+
+    private static GiftDto gift(Long id, String price) {
+        return new GiftDto(id, "Gift " + id, new BigDecimal(price), 1L, "Ana", 2025);
+    }
+}
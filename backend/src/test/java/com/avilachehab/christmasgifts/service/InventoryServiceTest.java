@@ -1,6 +1,8 @@
 package com.avilachehab.christmasgifts.service;
 
 import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.CompactInventorySummaryDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.InventorySummaryDto;
 import com.avilachehab.christmasgifts.dto.RoasterDto;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +20,8 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -303,4 +307,34 @@ class InventoryServiceTest {
         // Assert
         assertThat(result.getLowStockCoffees()).isEmpty();
     }
+
+    @Test
+    @DisplayName("Should reference each coffee once by id in the compact summary")
+    void getCompactInventorySummary_withCoffees_returnsIdKeyedTables() {
+        // Arrange
+        coffee1.setRoasterId(1L);
+        coffee2.setRoasterId(1L);
+        coffee3.setRoasterId(2L);
+        RoasterDto roaster2 = new RoasterDto();
+        roaster2.setId(2L);
+        roaster2.setName("Stumptown");
+        when(coffeeService.getAllCoffees()).thenReturn(Arrays.asList(coffee1, coffee2, coffee3));
+        when(roasterService.getAllRoasters(any(FieldSelection.class))).thenReturn(List.of(roaster1, roaster2));
+
+        // Act
+        CompactInventorySummaryDto result = inventoryService.getCompactInventorySummary();
+
+        // Assert
+        assertThat(result.getTotalBags()).isEqualTo(3);
+        assertThat(result.getTotalWeight()).isEqualByComparingTo(BigDecimal.valueOf(550));
+        assertThat(result.getTotalSpent()).isEqualByComparingTo(BigDecimal.valueOf(63.50));
+        assertThat(result.getCoffees()).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(result.getLowStockCoffeeIds()).containsExactly(2L);
+        assertThat(result.getAgingCoffeeIds()).containsExactly(2L);
+        assertThat(result.getRoasters().get(1L).getCoffeeIds()).containsExactly(1L, 2L);
+        assertThat(result.getRoasters().get(1L).getCoffeeCount()).isEqualTo(2);
+        assertThat(result.getRoasters().get(1L).getTotalSpent()).isEqualByComparingTo(BigDecimal.valueOf(43.50));
+        assertThat(result.getRoasters().get(2L).getCoffeeIds()).containsExactly(3L);
+        verify(roasterService, never()).getAllRoasters();
+    }
 }
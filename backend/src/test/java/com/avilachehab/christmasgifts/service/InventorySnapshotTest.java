@@ -0,0 +1,194 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.InventoryAggregateDto;
+import com.avilachehab.christmasgifts.model.RoastLevel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventorySnapshotTest {
+
+    private static final int DAY = (int) LocalDate.of(2026, 3, 10).toEpochDay();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private InventorySnapshot inventorySnapshot;
+
+    @Test
+    @DisplayName("Should sum bags, spend and weight per roaster")
+    void aggregate_byRoaster_sumsColumns() {
+        // Arrange
+        inventorySnapshot.apply(row(1L, 1L, 1L, DAY, 25000, 20000, 1850));
+        inventorySnapshot.apply(row(2L, 2L, 1L, DAY, 50000, 5000, 2500));
+        inventorySnapshot.apply(row(3L, 3L, 2L, DAY, 30000, 30000, InventorySnapshot.NO_PRICE));
+
+        // Act
+        List<InventoryAggregateDto> result = inventorySnapshot.aggregate(InventorySnapshot.Dimension.ROASTER, null, null);
+
+        // Assert
+        assertThat(result).extracting(InventoryAggregateDto::getKey).containsExactly("1", "2");
+        InventoryAggregateDto first = result.get(0);
+        assertThat(first.getBags()).isEqualTo(2);
+        assertThat(first.getTotalSpent()).isEqualByComparingTo("43.50");
+        assertThat(first.getCurrentWeight()).isEqualByComparingTo("250");
+        assertThat(first.getAveragePricePerGram()).isEqualByComparingTo("0.0580");
+        assertThat(result.get(1).getTotalSpent()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(result.get(1).getAveragePricePerGram()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should ignore a stale version and drop deleted rows")
+    void apply_staleVersionAndRemove_keepsLatestLiveRows() {
+        // Arrange
+        inventorySnapshot.apply(row(1L, 5L, 1L, DAY, 25000, 10000, 1000));
+        inventorySnapshot.apply(row(2L, 6L, 2L, DAY, 25000, 25000, 1000));
+        inventorySnapshot.apply(row(1L, 4L, 1L, DAY, 25000, 25000, 1000));
+
+        // Act
+        inventorySnapshot.remove(2L, 7L);
+        List<InventoryAggregateDto> result = inventorySnapshot.aggregate(InventorySnapshot.Dimension.ROASTER, null, null);
+
+        // Assert
+        assertThat(inventorySnapshot.size()).isEqualTo(1);
+        assertThat(result).singleElement()
+                .satisfies(group -> assertThat(group.getCurrentWeight()).isEqualByComparingTo("100"));
+    }
+
+    @Test
+    @DisplayName("Should not bring back a row deleted while its change was being re-read")
+    void onEntityChanged_deleteOvertakesReRead_keepsRowDeleted() {
+        // Arrange: the delete commits and is applied between the re-read and its apply
+        inventorySnapshot.apply(row(1L, 5L, 1L, DAY, 25000, 25000, 1000));
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<InventorySnapshot.Row>>any(), eq(1L)))
+                .thenAnswer(invocation -> {
+                    inventorySnapshot.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 1L, 7L, true));
+                    return List.of(row(1L, 6L, 1L, DAY, 25000, 20000, 1000));
+                });
+
+        // Act
+        inventorySnapshot.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 1L, 6L, false));
+
+        // Assert
+        assertThat(inventorySnapshot.size()).isZero();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(inventorySnapshot, "deletedSeqs")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should drop a deleted bag without reading it back")
+    void onEntityChanged_coffeeDeleted_removesWithoutQuery() {
+        // Arrange
+        inventorySnapshot.apply(row(1L, 5L, 1L, DAY, 25000, 25000, 1000));
+
+        // Act
+        inventorySnapshot.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 1L, 8L, true));
+
+        // Assert
+        assertThat(inventorySnapshot.size()).isZero();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(inventorySnapshot, "deletedSeqs")).isEmpty();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should keep counting bags that were archived")
+    void onEntitiesChanged_bagsArchived_keepsRows() {
+        // Arrange
+        inventorySnapshot.apply(row(1L, 5L, 1L, DAY, 25000, 0, 1000));
+
+        // Act
+        inventorySnapshot.onEntitiesChanged(
+                new EntitiesChangedEvent(ChangeTracker.COFFEE, List.of(1L), List.of(9L), true, true));
+
+        // Assert
+        assertThat(inventorySnapshot.size()).isEqualTo(1);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should drop every bag of a deleted roaster, archived ones included")
+    void onEntityChanged_roasterDeleted_removesItsBags() {
+        // Arrange
+        inventorySnapshot.apply(row(1L, 1L, 1L, DAY, 25000, 0, 1000));
+        inventorySnapshot.apply(row(2L, 2L, 2L, DAY, 25000, 25000, 1000));
+        inventorySnapshot.apply(row(3L, 3L, 1L, DAY, 25000, 25000, 1000));
+
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<InventorySnapshot.Row>>any(), eq(3L)))
+                .thenAnswer(invocation -> {
+                    // The roaster is deleted while a change to one of its bags is being re-read
+                    inventorySnapshot.onEntityChanged(new EntityChangedEvent(ChangeTracker.ROASTER, 1L, 10L, true));
+                    return List.of(row(3L, 4L, 1L, DAY, 25000, 20000, 1000));
+                });
+
+        // Act
+        inventorySnapshot.onEntityChanged(new EntityChangedEvent(ChangeTracker.COFFEE, 3L, 4L, false));
+
+        // Assert
+        assertThat(inventorySnapshot.size()).isEqualTo(1);
+        assertThat(inventorySnapshot.aggregate(InventorySnapshot.Dimension.ROASTER, null, null))
+                .extracting(InventoryAggregateDto::getKey).containsExactly("2");
+    }
+
+    @Test
+    @DisplayName("Should group by purchase month within the date range")
+    void aggregate_byPurchaseMonthWithRange_filtersAndLabelsMonths() {
+        // Arrange
+        inventorySnapshot.apply(row(1L, 1L, 1L, (int) LocalDate.of(2025, 12, 31).toEpochDay(), 25000, 0, 1000));
+        inventorySnapshot.apply(row(2L, 2L, 1L, (int) LocalDate.of(2026, 1, 1).toEpochDay(), 25000, 0, 1000));
+        inventorySnapshot.apply(row(3L, 3L, 1L, (int) LocalDate.of(2026, 2, 28).toEpochDay(), 25000, 0, 1000));
+
+        // Act
+        List<InventoryAggregateDto> result = inventorySnapshot.aggregate(InventorySnapshot.Dimension.PURCHASE_MONTH,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31));
+
+        // Assert
+        assertThat(result).extracting(InventoryAggregateDto::getKey).containsExactly("2026-01", "2026-02");
+    }
+
+    @Test
+    @DisplayName("Should produce the same totals when the rows are split across fork/join tasks")
+    void aggregate_manyRows_mergesParallelPartials() {
+        // Arrange
+        int rows = 100_000;
+        RoastLevel[] levels = RoastLevel.values();
+        for (int i = 0; i < rows; i++) {
+            inventorySnapshot.apply(new InventorySnapshot.Row(i, i, i % 7, DAY, DAY, 25000, 12500, 1900,
+                    (byte) levels[i % levels.length].ordinal()));
+        }
+
+        // Act
+        List<InventoryAggregateDto> result = inventorySnapshot.aggregate(InventorySnapshot.Dimension.ROAST_LEVEL, null, null);
+
+        // Assert
+        assertThat(result).extracting(InventoryAggregateDto::getKey)
+                .containsExactly("LIGHT", "MEDIUM", "MEDIUM_DARK", "DARK");
+        assertThat(result.stream().mapToLong(InventoryAggregateDto::getBags).sum()).isEqualTo(rows);
+        assertThat(result.stream().map(InventoryAggregateDto::getTotalSpent).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(BigDecimal.valueOf(rows * 19L));
+    }
+
+    private static InventorySnapshot.Row row(long id, long changeSeq, long roasterId, int purchaseDay,
+                                             long initialWeight, long currentWeight, long price) {
+        return new InventorySnapshot.Row(id, changeSeq, roasterId, purchaseDay, purchaseDay,
+                initialWeight, currentWeight, price, InventorySnapshot.NO_ROAST_LEVEL);
+    }
+}
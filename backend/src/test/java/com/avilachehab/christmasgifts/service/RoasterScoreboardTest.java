@@ -0,0 +1,95 @@
+package com.avilachehab.christmasgifts.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoasterScoreboardTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RoasterScoreboard roasterScoreboard;
+
+    @Test
+    @DisplayName("Should order by the metric's best direction and cap the limit")
+    void getTop_consumptionSpeed_ordersDescendingWithCappedLimit() {
+        // Arrange
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        when(jdbcTemplate.query(sql.capture(), any(RowMapper.class), eq(RoasterScoreboard.MAX_LIMIT)))
+                .thenReturn(List.of());
+
+        // Act
+        roasterScoreboard.getTop(RoasterScoreboard.Metric.CONSUMPTION_SPEED, 10_000);
+
+        // Assert
+        assertThat(sql.getValue()).contains("ORDER BY s.grams_per_day DESC, s.roaster_id LIMIT ?");
+    }
+
+    @Test
+    @DisplayName("Should refresh each dirty roaster once, only after the transaction commits")
+    void markDirty_insideTransaction_refreshesAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            roasterScoreboard.markDirty(1L);
+            roasterScoreboard.markDirty(1L);
+            roasterScoreboard.markDirty(2L);
+
+            // Assert
+            verifyNoInteractions(transactionManager);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertThat(synchronizations).hasSize(1);
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ArgumentCaptor<List<Object[]>> mergeArgs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("MERGE INTO roaster_scores"), mergeArgs.capture());
+        assertThat(mergeArgs.getValue()).extracting(args -> args[0]).containsExactly(1L, 2L);
+        verify(jdbcTemplate).batchUpdate(contains("DELETE FROM roaster_scores"), anyList());
+    }
+
+    @Test
+    @DisplayName("Should drop dirty roasters when the transaction rolls back")
+    void markDirty_rolledBack_skipsRefresh() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            roasterScoreboard.markDirty(1L);
+
+            // Act
+            TransactionSynchronizationManager.getSynchronizations().get(0)
+                    .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertThat(TransactionSynchronizationManager.hasResource(roasterScoreboard)).isFalse();
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
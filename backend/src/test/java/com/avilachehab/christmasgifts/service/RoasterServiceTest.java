@@ -1,13 +1,18 @@
 package com.avilachehab.christmasgifts.service;
 
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.FieldSelection;
 import com.avilachehab.christmasgifts.dto.RoasterDto;
 import com.avilachehab.christmasgifts.model.Coffee;
 import com.avilachehab.christmasgifts.model.Roaster;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.ProjectionRepository;
 import com.avilachehab.christmasgifts.repository.RoasterRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,11 +23,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -34,6 +44,21 @@ class RoasterServiceTest {
     @Mock
     private RoasterRepository roasterRepository;
 
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    @Mock
+    private CoffeeService coffeeService;
+
+    @Mock
+    private ProjectionRepository projectionRepository;
+
+    @Mock
+    private ChangeTracker changeTracker;
+
+    @Mock
+    private ConsumptionWriteBuffer consumptionWriteBuffer;
+
     @InjectMocks
     private RoasterService roasterService;
 
@@ -200,28 +225,48 @@ class RoasterServiceTest {
     @DisplayName("Should delete existing roaster successfully")
     void deleteRoaster_validId_deletesRoaster() {
         // Arrange
-        when(roasterRepository.existsById(1L)).thenReturn(true);
+        when(roasterRepository.bulkDeleteById(1L)).thenReturn(1);
 
         // Act
         roasterService.deleteRoaster(1L);
 
         // Assert
-        verify(roasterRepository, times(1)).existsById(1L);
-        verify(roasterRepository, times(1)).deleteById(1L);
+        verify(coffeeRepository, times(1)).bulkDeleteByRoasterId(1L);
+        verify(roasterRepository, times(1)).bulkDeleteById(1L);
+        verify(roasterRepository, never()).deleteById(any());
+        verify(changeTracker, times(1))
+                .recordDeletion(ChangeTracker.ROASTER, 1L, ChangeTracker.COFFEE, "coffees", "roaster_id");
+    }
+
+    @Test
+    @DisplayName("Should tombstone the roaster's coffees before deleting them, both set-based")
+    void deleteRoaster_withCoffees_recordsCoffeeDeletions() {
+        // Arrange
+        when(roasterRepository.bulkDeleteById(1L)).thenReturn(1);
+
+        // Act
+        roasterService.deleteRoaster(1L);
+
+        // Assert
+        InOrder inOrder = inOrder(changeTracker, coffeeRepository);
+        inOrder.verify(changeTracker)
+                .recordDeletion(ChangeTracker.ROASTER, 1L, ChangeTracker.COFFEE, "coffees", "roaster_id");
+        inOrder.verify(coffeeRepository).bulkDeleteByRoasterId(1L);
+        verify(consumptionWriteBuffer, times(1)).discardRoaster(1L);
+        verify(consumptionWriteBuffer, never()).discard(any());
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existent roaster")
     void deleteRoaster_nonExistentId_throwsException() {
         // Arrange
-        when(roasterRepository.existsById(999L)).thenReturn(false);
+        when(roasterRepository.bulkDeleteById(999L)).thenReturn(0);
 
         // Act & Assert
         assertThatThrownBy(() -> roasterService.deleteRoaster(999L))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Roaster not found with id: 999");
-        verify(roasterRepository, times(1)).existsById(999L);
-        verify(roasterRepository, never()).deleteById(any());
+        verify(consumptionWriteBuffer, never()).discardRoaster(any());
     }
 
     @Test
@@ -299,4 +344,35 @@ class RoasterServiceTest {
                     assertThat(roaster.getCoffeeCount()).isZero();
                 });
     }
+
+    @Test
+    @DisplayName("Should build selected roaster fields from projections without loading coffee collections")
+    void getAllRoasters_withFieldSelection_usesProjections() {
+        // Arrange
+        FieldSelection selection = FieldSelection.parse("name,coffeeCount,coffees.currentWeight",
+                RoasterService.FIELDS, Map.of("coffees", CoffeeService.FIELDS));
+        when(projectionRepository.findColumns(Roaster.class, Set.of("id", "name"), "id", null))
+                .thenReturn(List.of(Map.of("id", 1L, "name", "Blue Bottle")));
+        CoffeeDto coffee = new CoffeeDto();
+        coffee.setCurrentWeight(BigDecimal.valueOf(200));
+        when(coffeeService.getCoffeesGroupedByRoaster(selection.nested("coffees"), null))
+                .thenReturn(Map.of(1L, List.of(coffee)));
+        CoffeeRepository.RoasterTotals totals = mock(CoffeeRepository.RoasterTotals.class);
+        when(totals.getRoasterId()).thenReturn(1L);
+        when(totals.getCoffeeCount()).thenReturn(1L);
+        when(totals.getTotalSpent()).thenReturn(BigDecimal.valueOf(18.50));
+        when(coffeeRepository.summarizeByRoaster()).thenReturn(List.of(totals));
+
+        // Act
+        List<RoasterDto> result = roasterService.getAllRoasters(selection);
+
+        // Assert
+        verify(roasterRepository, never()).findAll();
+        assertThat(result).singleElement().satisfies(roaster -> {
+            assertThat(roaster.getName()).isEqualTo("Blue Bottle");
+            assertThat(roaster.getCoffeeCount()).isEqualTo(1);
+            assertThat(roaster.getCoffees()).containsExactly(coffee);
+            assertThat(roaster.getNotes()).isNull();
+        });
+    }
 }
@@ -0,0 +1,174 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.ScaleIngestionResultDto;
+import com.avilachehab.christmasgifts.dto.ScaleReadingDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScaleIngestionServiceTest {
+
+    @Mock
+    private CoffeeService coffeeService;
+
+    @Mock
+    private ConsumptionWriteBuffer consumptionWriteBuffer;
+
+    @InjectMocks
+    private ScaleIngestionService scaleIngestionService;
+
+    private CoffeeDto testCoffee;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scaleIngestionService, "medianWindow", 5);
+        ReflectionTestUtils.setField(scaleIngestionService, "settleMillis", 1500L);
+        ReflectionTestUtils.setField(scaleIngestionService, "toleranceGrams", new BigDecimal("0.5"));
+        ReflectionTestUtils.setField(scaleIngestionService, "minConsumptionGrams", new BigDecimal("2"));
+
+        testCoffee = new CoffeeDto();
+        testCoffee.setId(1L);
+        testCoffee.setCurrentWeight(BigDecimal.valueOf(250));
+    }
+
+    @Test
+    @DisplayName("Should detect each dose in a recorded session despite lifts and knocks")
+    void ingest_recordedSession_booksEachDose() throws IOException {
+        // Arrange
+        when(coffeeService.getCoffeeById(1L)).thenReturn(testCoffee);
+        List<ScaleReadingDto> readings = recording();
+
+        // Act
+        ScaleIngestionResultDto result = scaleIngestionService.ingest(1L, readings);
+
+        // Assert
+        assertThat(result.getReadingsAccepted()).isEqualTo(readings.size());
+        assertThat(result.getConsumptionEvents()).isEqualTo(3);
+        assertThat(result.getConsumedWeight().doubleValue()).isCloseTo(54.0, within(1.0));
+        assertThat(result.getSettledWeight().doubleValue()).isCloseTo(196.0, within(0.5));
+
+        ArgumentCaptor<BigDecimal> amounts = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(coffeeService, times(3)).consumeCoffee(eq(1L), amounts.capture());
+        assertThat(amounts.getAllValues())
+                .allSatisfy(amount -> assertThat(amount.doubleValue()).isCloseTo(18.0, within(0.5)));
+    }
+
+    @Test
+    @DisplayName("Should give the same result when the session is streamed in small batches")
+    void ingestStream_recordedSession_matchesSingleBatch() throws IOException {
+        // Arrange
+        when(coffeeService.getCoffeeById(1L)).thenReturn(testCoffee);
+
+        // Act
+        ScaleIngestionResultDto result = scaleIngestionService.ingestStream(1L, recording().iterator());
+
+        // Assert
+        assertThat(result.getReadingsAccepted()).isEqualTo(300);
+        assertThat(result.getConsumptionEvents()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should not book anything until the reading settles")
+    void ingest_unsettledReadings_booksNothing() {
+        // Arrange
+        when(coffeeService.getCoffeeById(1L)).thenReturn(testCoffee);
+        List<ScaleReadingDto> readings = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            readings.add(new ScaleReadingDto(i * 100L, BigDecimal.valueOf(i % 2 == 0 ? 250 : 230)));
+        }
+
+        // Act
+        ScaleIngestionResultDto result = scaleIngestionService.ingest(1L, readings);
+
+        // Assert
+        assertThat(result.getConsumptionEvents()).isZero();
+        assertThat(result.getSettledWeight()).isNull();
+        verify(coffeeService, never()).consumeCoffee(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should never consume more than the recorded weight")
+    void ingest_scaleAheadOfRecordedWeight_clampsToCurrentWeight() throws IOException {
+        // Arrange
+        testCoffee.setCurrentWeight(BigDecimal.valueOf(10));
+        when(coffeeService.getCoffeeById(1L)).thenReturn(testCoffee);
+
+        // Act
+        scaleIngestionService.ingest(1L, recording());
+
+        // Assert
+        verify(coffeeService, times(3)).consumeCoffee(1L, BigDecimal.valueOf(10));
+    }
+
+    @Test
+    @DisplayName("Should book through the write-behind buffer when it is enabled")
+    void ingest_writeBehindEnabled_reservesThroughBuffer() throws IOException {
+        // Arrange
+        when(coffeeService.getCoffeeById(1L)).thenReturn(testCoffee);
+        when(consumptionWriteBuffer.isEnabled()).thenReturn(true);
+        when(consumptionWriteBuffer.acceptAvailable(eq(1L), any()))
+                .thenReturn(BigDecimal.valueOf(18), BigDecimal.valueOf(7), BigDecimal.ZERO);
+
+        // Act
+        ScaleIngestionResultDto result = scaleIngestionService.ingest(1L, recording());
+
+        // Assert
+        assertThat(result.getConsumedWeight()).isEqualByComparingTo("25");
+        verify(consumptionWriteBuffer, times(3)).acceptAvailable(eq(1L), any());
+        verify(coffeeService, never()).consumeCoffee(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject readings for a non-existent coffee")
+    void ingest_nonExistentCoffee_throwsException() {
+        // Arrange
+        when(coffeeService.getCoffeeById(999L)).thenThrow(new RuntimeException("Coffee not found with id: 999"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> scaleIngestionService.ingest(999L, List.of()))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Coffee not found with id: 999");
+    }
+
+    private List<ScaleReadingDto> recording() throws IOException {
+        List<ScaleReadingDto> readings = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/scale/pour-over-session.csv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                readings.add(new ScaleReadingDto(Long.parseLong(columns[0]), new BigDecimal(columns[1])));
+            }
+        }
+        return readings;
+    }
+}
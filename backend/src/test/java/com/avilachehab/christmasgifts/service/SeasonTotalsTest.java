@@ -0,0 +1,85 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.SeasonSummaryDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeasonTotalsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SeasonTotals seasonTotals;
+
+    @Test
+    @DisplayName("Should compare each season with the one before it when that season has gifts")
+    void getSummaries_consecutiveSeasons_setsSpentChange() {
+        // Arrange
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(new ArrayList<>(List.of(
+                season(2021, "300.00", 12),
+                season(2023, "420.00", 15),
+                season(2024, "380.00", 14),
+                season(2025, "0", 0),
+                season(2026, "50.00", 2))));
+
+        // Act
+        List<SeasonSummaryDto> result = seasonTotals.getSummaries();
+
+        // Assert
+        assertThat(result).extracting(SeasonSummaryDto::getSpentChange)
+                .containsExactly(null, null, new BigDecimal("-40.00"), new BigDecimal("-380.00"), null);
+    }
+
+    @Test
+    @DisplayName("Should refresh each dirty season once, only after the transaction commits")
+    void markDirty_insideTransaction_refreshesAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            seasonTotals.markDirty(2025);
+            seasonTotals.markDirty(2024);
+            seasonTotals.markDirty(2025);
+
+            // Assert
+            verifyNoInteractions(transactionManager);
+            TransactionSynchronizationManager.getSynchronizations().get(0)
+                    .afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ArgumentCaptor<List<Object[]>> mergeArgs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("MERGE INTO season_totals"), mergeArgs.capture());
+        assertThat(mergeArgs.getValue()).extracting(args -> args[0]).containsExactly(2025, 2024);
+        verify(jdbcTemplate).batchUpdate(contains("DELETE FROM season_totals"), anyList());
+    }
+
+    private static SeasonSummaryDto season(int season, String spent, long gifts) {
+        return new SeasonSummaryDto(season, null, new BigDecimal(spent), gifts, gifts > 0 ? 1 : 0, null);
+    }
+}
@@ -0,0 +1,191 @@
+package com.avilachehab.christmasgifts.service;
+
+import com.avilachehab.christmasgifts.dto.CoffeeDto;
+import com.avilachehab.christmasgifts.dto.SyncDto;
+import com.avilachehab.christmasgifts.dto.TombstoneDto;
+import com.avilachehab.christmasgifts.model.Coffee;
+import com.avilachehab.christmasgifts.model.Roaster;
+import com.avilachehab.christmasgifts.model.Tombstone;
+import com.avilachehab.christmasgifts.repository.CoffeeRepository;
+import com.avilachehab.christmasgifts.repository.GiftRepository;
+import com.avilachehab.christmasgifts.repository.PersonRepository;
+import com.avilachehab.christmasgifts.repository.RoasterRepository;
+import com.avilachehab.christmasgifts.repository.TombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    @Mock
+    private RoasterRepository roasterRepository;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private GiftRepository giftRepository;
+
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+
+    @Mock
+    private CoffeeService coffeeService;
+
+    @Mock
+    private GiftService giftService;
+
+    @Mock
+    private ChangeTracker changeTracker;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(syncService, "tombstoneRetentionDays", 30);
+    }
+
+    @Test
+    @DisplayName("Should return changes after the cursor and advance it to the stable horizon")
+    void getChangesSince_allChangesFit_advancesCursorToHorizon() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+        when(changeTracker.stableHorizon()).thenReturn(20L);
+        Coffee coffee = coffee(1L, 12L);
+        when(coffeeRepository.findChangedBetween(5L, 20L, PageRequest.of(0, 11))).thenReturn(List.of(coffee));
+        when(coffeeService.convertToDto(coffee)).thenReturn(coffeeDto(1L));
+        when(roasterRepository.findChangedBetween(5L, 20L, PageRequest.of(0, 11))).thenReturn(List.of(roaster(3L, 14L)));
+        when(tombstoneRepository.findChangedBetween(5L, 20L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(new Tombstone(1L, ChangeTracker.GIFT, 9L, 17L, LocalDateTime.now())));
+
+        // Act
+        SyncDto result = syncService.getChangesSince(5L, 10);
+
+        // Assert
+        assertThat(result.isHasMore()).isFalse();
+        assertThat(result.isReset()).isFalse();
+        assertThat(result.getCursor()).isEqualTo(19L);
+        assertThat(result.getCoffees()).extracting(CoffeeDto::getId).containsExactly(1L);
+        assertThat(result.getRoasters()).singleElement()
+                .satisfies(roaster -> assertThat(roaster.getCoffees()).isNull());
+        assertThat(result.getDeleted()).containsExactly(new TombstoneDto(ChangeTracker.GIFT, 9L));
+    }
+
+    @Test
+    @DisplayName("Should cut a full page at the limit-th change across all tables")
+    void getChangesSince_moreChangesThanLimit_cutsPageInChangeOrder() {
+        // Arrange
+        when(changeTracker.stableHorizon()).thenReturn(100L);
+        Coffee first = coffee(1L, 1L);
+        Coffee third = coffee(2L, 3L);
+        when(coffeeRepository.findChangedBetween(0L, 100L, PageRequest.of(0, 3))).thenReturn(List.of(first, third));
+        when(coffeeService.convertToDto(first)).thenReturn(coffeeDto(1L));
+        when(roasterRepository.findChangedBetween(0L, 100L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(roaster(1L, 2L), roaster(2L, 4L)));
+
+        // Act
+        SyncDto result = syncService.getChangesSince(0L, 2);
+
+        // Assert
+        assertThat(result.isHasMore()).isTrue();
+        assertThat(result.getCursor()).isEqualTo(2L);
+        assertThat(result.getCoffees()).extracting(CoffeeDto::getId).containsExactly(1L);
+        assertThat(result.getRoasters()).singleElement()
+                .satisfies(roaster -> assertThat(roaster.getId()).isEqualTo(1L));
+        verify(coffeeService, never()).convertToDto(third);
+    }
+
+    @Test
+    @DisplayName("Should ask for a full resync when tombstones after the cursor were purged")
+    void getChangesSince_cursorBelowPurgedTombstones_requestsReset() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(50L);
+
+        // Act
+        SyncDto result = syncService.getChangesSince(10L, 100);
+
+        // Assert
+        assertThat(result.isReset()).isTrue();
+        assertThat(result.getCursor()).isEqualTo(10L);
+        verify(changeTracker, never()).stableHorizon();
+        verify(coffeeRepository, never()).findChangedBetween(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should purge expired tombstones and record how far they were purged")
+    void purgeTombstones_expiredTombstones_advancesWatermark() {
+        // Arrange
+        when(tombstoneRepository.findLatestChangeSeqBefore(any(LocalDateTime.class))).thenReturn(40L);
+        when(tombstoneRepository.deleteThrough(40L)).thenReturn(3);
+
+        // Act
+        int purged = syncService.purgeTombstones();
+
+        // Assert
+        assertThat(purged).isEqualTo(3);
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(40L), eq(40L));
+    }
+
+    @Test
+    @DisplayName("Should leave tombstones inside the retention window alone")
+    void purgeTombstones_nothingExpired_doesNothing() {
+        // Arrange
+        when(tombstoneRepository.findLatestChangeSeqBefore(any(LocalDateTime.class))).thenReturn(null);
+
+        // Act
+        int purged = syncService.purgeTombstones();
+
+        // Assert
+        assertThat(purged).isZero();
+        verify(tombstoneRepository, never()).deleteThrough(anyLong());
+    }
+
+    private static Coffee coffee(Long id, long changeSeq) {
+        Coffee coffee = new Coffee();
+        coffee.setId(id);
+        coffee.setChangeSeq(changeSeq);
+        return coffee;
+    }
+
+    private static CoffeeDto coffeeDto(Long id) {
+        CoffeeDto dto = new CoffeeDto();
+        dto.setId(id);
+        return dto;
+    }
+
+    private static Roaster roaster(Long id, long changeSeq) {
+        Roaster roaster = new Roaster();
+        roaster.setId(id);
+        roaster.setName("Roaster " + id);
+        roaster.setChangeSeq(changeSeq);
+        return roaster;
+    }
+}
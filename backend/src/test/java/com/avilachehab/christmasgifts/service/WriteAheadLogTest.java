@@ -0,0 +1,63 @@
+package com.avilachehab.christmasgifts.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should read back appended records across segment rollovers")
+    void append_rollsOverSegments_readsAllInOrder() {
+        // Arrange
+        WriteAheadLog wal = new WriteAheadLog(dir, 64, 1);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            wal.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        wal.append(new byte[200]); // larger than a segment
+        wal.close();
+
+        // Assert
+        List<byte[]> records = WriteAheadLog.read(dir, 1);
+        assertThat(records).hasSize(11);
+        assertThat(new String(records.get(9), StandardCharsets.UTF_8)).isEqualTo("record-9");
+        assertThat(records.get(10)).hasSize(200);
+        assertThat(WriteAheadLog.segments(dir)).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Should stop at a torn record and skip segments before the snapshot")
+    void read_tornTail_returnsIntactPrefix() throws Exception {
+        // Arrange
+        WriteAheadLog wal = new WriteAheadLog(dir, 1024, 1);
+        wal.append("before".getBytes(StandardCharsets.UTF_8));
+        long segment = wal.rotate();
+        wal.append("first".getBytes(StandardCharsets.UTF_8));
+        wal.append("second".getBytes(StandardCharsets.UTF_8));
+        wal.close();
+        try (RandomAccessFile file = new RandomAccessFile(WriteAheadLog.segmentPath(dir, segment).toFile(), "rw")) {
+            // Corrupt the payload of the second record
+            file.seek(WriteAheadLog.HEADER_BYTES + 5 + WriteAheadLog.HEADER_BYTES);
+            file.write('X');
+        }
+
+        // Act
+        List<byte[]> records = WriteAheadLog.read(dir, segment);
+
+        // Assert
+        assertThat(segment).isEqualTo(2);
+        assertThat(records).extracting(bytes -> new String(bytes, StandardCharsets.UTF_8)).containsExactly("first");
+    }
+}
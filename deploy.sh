@@ -163,6 +163,8 @@ RUN_CMD=(docker run -d --name "$CONTAINER_NAME"
   -e APP_USERNAME="$APP_USERNAME"
   -e APP_PASSWORD="$APP_PASSWORD"
   -e JWT_SECRET="$JWT_SECRET"
+  -e SPRING_PROFILES_ACTIVE=small
+  -e JDK_JAVA_OPTIONS="-XX:+UseSerialGC -Xmx160m -Xss512k -XX:TieredStopAtLevel=1"
   --restart unless-stopped
 )
 
@@ -170,7 +172,6 @@ if [[ -n "${H2_DATA_PATH:-}" ]]; then
   RUN_CMD+=(
     -e SPRING_DATASOURCE_URL=jdbc:h2:/data/christmasgifts
     -e SPRING_DATASOURCE_DRIVERCLASSNAME=org.h2.Driver
-    -e SPRING_JPA_HIBERNATE_DDL_AUTO=update
     -v "${H2_DATA_PATH}:/data"
   )
 fi